@@ -0,0 +1,85 @@
+package geje1017.benchmark;
+
+import geje1017.logic.matcher.BatchMatcher;
+import geje1017.logic.matcher.CompiledFSM;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the sequential and the parallel batch matching of one million short IDs over the number of threads,
+ * both for a list of strings and for the same IDs packed into one {@code char[]}.
+ * Run with {@code mvn -P benchmark verify -Djmh.include=BatchMatchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BatchMatchBenchmark {
+
+    private static final int INPUT_COUNT = 1_000_000;
+    private static final String EXPRESSION = "(A|B|C)(A|B|C|D)*(0|1|2|3|4|5|6|7|8|9)+";
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private List<String> inputs;
+    private char[] data;
+    private int[] offsets;
+    private ForkJoinPool pool;
+    private BatchMatcher matcher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new ForkJoinPool(threads);
+        matcher = new BatchMatcher(CompiledFSM.compile(EXPRESSION).minimize(), pool);
+
+        Random random = new Random(42);
+        String letters = "ABCDE0123456789";
+        inputs = new ArrayList<>(INPUT_COUNT);
+        StringBuilder packed = new StringBuilder();
+        offsets = new int[INPUT_COUNT + 1];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            StringBuilder input = new StringBuilder();
+            int length = 4 + random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                input.append(letters.charAt(random.nextInt(letters.length())));
+            }
+            inputs.add(input.toString());
+            packed.append(input);
+            offsets[i + 1] = packed.length();
+        }
+        data = packed.toString().toCharArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public BitSet listSequential() {
+        return matcher.matchAllSequential(inputs);
+    }
+
+    @Benchmark
+    public BitSet listParallel() {
+        return matcher.matchAll(inputs);
+    }
+
+    @Benchmark
+    public BitSet packedSequential() {
+        return matcher.matchAllSequential(data, offsets);
+    }
+
+    @Benchmark
+    public BitSet packedParallel() {
+        return matcher.matchAll(data, offsets);
+    }
+}
@@ -0,0 +1,72 @@
+package geje1017.benchmark;
+
+/**
+ * Enumerates the families of regular expressions the benchmarks are run on.
+ * Every family creates expressions of a given size, so that the growth of the running time can be compared.
+ */
+public enum ExpressionFamily {
+
+    /**
+     * A single literal word with {@code n} symbols, e.g. {@code abcd}.
+     */
+    LITERALS {
+        @Override
+        public String expression(int n) {
+            StringBuilder expression = new StringBuilder();
+            for (int i = 0; i < n; i++) {
+                expression.append(letter(i));
+            }
+            return expression.toString();
+        }
+    },
+    /**
+     * An alternation of {@code n} distinct two-letter words, e.g. {@code aa|ba|ca|da}.
+     */
+    WIDE_ALTERNATIONS {
+        @Override
+        public String expression(int n) {
+            StringBuilder expression = new StringBuilder();
+            for (int i = 0; i < n; i++) {
+                if (i > 0) {
+                    expression.append('|');
+                }
+                expression.append(letter(i)).append(letter(i / 26));
+            }
+            return expression.toString();
+        }
+    },
+    /**
+     * {@code n} closures nested into each other, e.g. {@code (((ab)*c)*d)*}.
+     */
+    NESTED_STARS {
+        @Override
+        public String expression(int n) {
+            String expression = String.valueOf(letter(0));
+            for (int i = 1; i <= n; i++) {
+                expression = "(" + expression + letter(i) + ")*";
+            }
+            return expression;
+        }
+    },
+    /**
+     * {@code (a|b)*a} followed by {@code n} copies of {@code (a|b)}, whose minimal DFA has {@code 2^(n+1)} states.
+     */
+    EXPONENTIAL {
+        @Override
+        public String expression(int n) {
+            return "(a|b)*a" + "(a|b)".repeat(n);
+        }
+    };
+
+    /**
+     * Creates the expression of this family with the given size.
+     *
+     * @param n The size of the expression.
+     * @return The infix expression.
+     */
+    public abstract String expression(int n);
+
+    private static char letter(int index) {
+        return (char) ('a' + index % 26);
+    }
+}
@@ -0,0 +1,119 @@
+package geje1017.benchmark;
+
+import geje1017.logic.matcher.BitParallelNFA;
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.matcher.GlushkovMatcher;
+import geje1017.logic.matcher.LazyDFA;
+import geje1017.logic.matcher.RegexMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the matching engines on many short inputs, where the cost per input matters more than the cost
+ * per character. Every invocation matches the same 256 random inputs of up to 16 characters over the letters
+ * of the expression. The compile benchmarks measure what the engines cost before the first input is matched.
+ * Run with {@code mvn -P benchmark verify -Djmh.include=MatcherBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MatcherBenchmark {
+
+    private static final int INPUT_COUNT = 256;
+    private static final int MAX_INPUT_LENGTH = 16;
+
+    @Param({"LITERALS", "WIDE_ALTERNATIONS", "NESTED_STARS", "EXPONENTIAL"})
+    public ExpressionFamily family;
+
+    @Param({"4", "8", "12"})
+    public int size;
+
+    private String expression;
+    private String[] inputs;
+    private CompiledFSM compiledFsm;
+    private RegexMatcher bytecodeMatcher;
+    private GlushkovMatcher glushkovMatcher;
+    private BitParallelNFA bitParallelNfa;
+    private LazyDFA lazyDfa;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        expression = family.expression(size);
+        compiledFsm = CompiledFSM.compile(expression);
+        bytecodeMatcher = compiledFsm.compileToBytecode();
+        glushkovMatcher = GlushkovMatcher.compile(expression);
+        bitParallelNfa = BitParallelNFA.compile(expression);
+        lazyDfa = LazyDFA.compile(expression);
+
+        char[] letters = compiledFsm.getAlphabet().getSymbols();
+        Random random = new Random(42);
+        inputs = new String[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(MAX_INPUT_LENGTH + 1);
+            for (int j = 0; j < length; j++) {
+                input.append(letters[random.nextInt(letters.length)]);
+            }
+            inputs[i] = input.toString();
+        }
+    }
+
+    @Benchmark
+    public int compiledFsm() {
+        int count = 0;
+        for (String input : inputs) {
+            count += compiledFsm.matches(input) ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int bytecodeMatcher() {
+        int count = 0;
+        for (String input : inputs) {
+            count += bytecodeMatcher.matches(input) ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int glushkovMatcher() {
+        int count = 0;
+        for (String input : inputs) {
+            count += glushkovMatcher.matches(input) ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int bitParallelNfa() {
+        int count = 0;
+        for (String input : inputs) {
+            count += bitParallelNfa.matches(input) ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int lazyDfa() {
+        int count = 0;
+        for (String input : inputs) {
+            count += lazyDfa.matches(input) ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public CompiledFSM compileCompiledFsm() {
+        return CompiledFSM.compile(expression);
+    }
+
+    @Benchmark
+    public GlushkovMatcher compileGlushkovMatcher() {
+        return GlushkovMatcher.compile(expression);
+    }
+}
@@ -0,0 +1,66 @@
+package geje1017.benchmark;
+
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.matcher.ParallelDFAMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the speedup of the speculative parallel DFA matching of a single large input over the number of
+ * threads. Every invocation matches one random input of 16 million characters; {@code sequential} is the plain
+ * table-driven run of the same minimized DFA. The speedup is bounded by the number of available cores.
+ * Run with {@code mvn -P benchmark verify -Djmh.include=ParallelMatchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ParallelMatchBenchmark {
+
+    private static final int INPUT_LENGTH = 16 * 1024 * 1024;
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    @Param({"(a|b)*a(a|b)(a|b)(a|b)", "((a|b)(a|b)(a|b))*(ab|ba)*"})
+    public String expression;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private String input;
+    private CompiledFSM fsm;
+    private ForkJoinPool pool;
+    private ParallelDFAMatcher matcher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fsm = CompiledFSM.compile(expression).minimize();
+        pool = new ForkJoinPool(threads);
+        matcher = new ParallelDFAMatcher(fsm, CHUNK_SIZE, pool);
+
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(INPUT_LENGTH);
+        for (int i = 0; i < INPUT_LENGTH; i++) {
+            builder.append(random.nextBoolean() ? 'a' : 'b');
+        }
+        input = builder.toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public boolean sequential() {
+        return fsm.matches(input);
+    }
+
+    @Benchmark
+    public boolean parallel() {
+        return matcher.matches(input);
+    }
+}
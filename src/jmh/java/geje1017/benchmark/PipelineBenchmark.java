@@ -0,0 +1,87 @@
+package geje1017.benchmark;
+
+import geje1017.gui.FSMGroup;
+import geje1017.gui.FSMStorage;
+import geje1017.logic.finiteStateMachine.FSMOperator.FSMCopier;
+import geje1017.logic.finiteStateMachine.FSMOperator.FSMDeterminizer;
+import geje1017.logic.finiteStateMachine.FSMOperator.FSMMinimizer;
+import geje1017.logic.finiteStateMachine.FSMStructure;
+import geje1017.logic.postfix.ExpressionConverter;
+import geje1017.logic.postfix.ExpressionEvaluator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the single stages of the conversion pipeline and the complete evaluation of an expression.
+ * The FSMs for the determinization and minimization are taken from the last operator of a traced evaluation,
+ * so they are exactly the automata the pipeline processes for the whole expression.
+ * Run with {@code mvn -P benchmark verify}; the results are written to {@code target/jmh-result.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PipelineBenchmark {
+
+    @Param({"LITERALS", "WIDE_ALTERNATIONS", "NESTED_STARS", "EXPONENTIAL"})
+    public ExpressionFamily family;
+
+    @Param({"4", "8", "12"})
+    public int size;
+
+    private String expression;
+    private FSMStructure operationFsm;
+    private FSMStructure deterministicFsm;
+    private ExpressionEvaluator tracedEvaluator;
+    private ExpressionEvaluator fastEvaluator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        expression = family.expression(size);
+        tracedEvaluator = new ExpressionEvaluator();
+        fastEvaluator = new ExpressionEvaluator(ExpressionEvaluator.Mode.FAST, null);
+
+        List<FSMGroup> groups = tracedEvaluator.evaluateExpression(expression).getFSMGroups();
+        FSMGroup lastGroup = groups.get(groups.size() - 1);
+        operationFsm = lastGroup.getOperationFSM();
+        deterministicFsm = lastGroup.getDeterministicFSM();
+    }
+
+    @Benchmark
+    public String convertInfixToPostfix() {
+        return ExpressionConverter.convertInfixToPostfix(expression);
+    }
+
+    @Benchmark
+    public FSMStructure copyFsm() {
+        return FSMCopier.copyFsm(deterministicFsm);
+    }
+
+    @Benchmark
+    public FSMStructure toDeterministicFsm() {
+        return FSMDeterminizer.toDeterministicFsm(operationFsm);
+    }
+
+    @Benchmark
+    public FSMStructure minimize() {
+        return FSMMinimizer.minimize(deterministicFsm);
+    }
+
+    @Benchmark
+    public FSMStructure minimizeHopcroft() {
+        return FSMMinimizer.minimize(deterministicFsm, FSMMinimizer.Algorithm.HOPCROFT);
+    }
+
+    @Benchmark
+    public FSMStorage evaluateExpression() {
+        return tracedEvaluator.evaluateExpression(expression);
+    }
+
+    @Benchmark
+    public FSMStorage evaluateExpressionFast() {
+        return fastEvaluator.evaluateExpression(expression);
+    }
+}
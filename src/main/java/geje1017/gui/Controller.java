@@ -3,6 +3,7 @@ package geje1017.gui;
 import geje1017.gui.customGuiElements.ElementaryFSMPanel;
 import geje1017.gui.customGuiElements.FinalResultFSMPanel;
 import geje1017.gui.customGuiElements.IntermediateStepFSMPanel;
+import geje1017.logic.compiler.ExpressionCache;
 import geje1017.logic.finiteStateMachine.FSMStructure;
 import geje1017.logic.postfix.ExpressionEvaluator;
 import geje1017.logic.postfix.ExpressionValidator;
@@ -21,7 +22,13 @@ import java.util.List;
  */
 public class Controller implements ActionListener, KeyListener {
 
+    private static final int CACHE_SIZE = 100;
+    private static final long CACHE_WEIGHT = 100_000;
+
     private final Frame frame;
+    // Results of previous conversions, weighted by the number of states of the resulting automaton
+    private final ExpressionCache<FSMStorage> cache = new ExpressionCache<>(CACHE_SIZE, CACHE_WEIGHT,
+            storage -> storage.getResultFsm().getStates().size());
 
     /**
      * Constructs a {@code Controller} with a reference to the associated {@code Frame}.
@@ -97,7 +104,7 @@ public class Controller implements ActionListener, KeyListener {
      * Processes the input regular expression by converting it to FSMs and displaying the results.
      */
     private void processInput() {
-        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        ExpressionEvaluator evaluator = new ExpressionEvaluator(cache);
         String inputText = frame.getInputFieldText();
         FSMStorage fsmStorage = evaluator.evaluateExpression(inputText);
 
@@ -118,23 +125,24 @@ public class Controller implements ActionListener, KeyListener {
     }
 
     /**
-     * Displays a list of elementary FSMs in the solution panel.
+     * Displays a list of elementary FSMs in the solution panel as the first step.
      *
      * @param currFsm A list of FSM structures representing the elementary FSMs.
      */
     private void displayElementaryFSMs(List<FSMStructure> currFsm) {
-        ElementaryFSMPanel resultPanel = new ElementaryFSMPanel(currFsm);
+        ElementaryFSMPanel resultPanel = new ElementaryFSMPanel(currFsm, 1);
         frame.solutionPanel.add(resultPanel);
     }
 
     /**
-     * Displays a list of grouped FSMs in the solution panel.
+     * Displays a list of grouped FSMs in the solution panel, numbered from the second step on.
      *
      * @param groups A list of FSM groups to display.
      */
     private void displayGroupedFSMs(List<FSMGroup> groups) {
+        int step = 2;
         for (FSMGroup group : groups) {
-            addGroupResult(group);
+            addGroupResult(group, step++);
         }
     }
 
@@ -142,9 +150,10 @@ public class Controller implements ActionListener, KeyListener {
      * Adds a grouped FSM result to the solution panel.
      *
      * @param group The FSM group to display.
+     * @param step The number of the step.
      */
-    private void addGroupResult(FSMGroup group) {
-        IntermediateStepFSMPanel resultPanel = new IntermediateStepFSMPanel(group);
+    private void addGroupResult(FSMGroup group, int step) {
+        IntermediateStepFSMPanel resultPanel = new IntermediateStepFSMPanel(group, step);
         frame.solutionPanel.add(resultPanel);
     }
 
@@ -18,7 +18,6 @@ public abstract class AbstractFSMPanel extends JPanel {
     protected FSMGroup fsmGroup;
     protected JPanel detailsPanel;
 
-    protected static int step = 0;
     protected boolean isCollapsed = true;
 
     /**
@@ -125,15 +124,4 @@ public abstract class AbstractFSMPanel extends JPanel {
      * This view typically displays detailed information about the FSM.
      */
     protected abstract void addExpandedView();
-
-    // Getter and setter methods
-
-    protected void resetStep() {
-        step = 0;
-    }
-
-    protected int getStep() {
-        step++;
-        return step;
-    }
 }
@@ -10,9 +10,9 @@ public class ElementaryFSMPanel extends AbstractFSMPanel {
     private List<FSMStructure> fsmList;
     private final int ownStep;
 
-    public ElementaryFSMPanel(List<FSMStructure> fsmList) {
+    public ElementaryFSMPanel(List<FSMStructure> fsmList, int step) {
         super(null);
-        ownStep = getStep();
+        ownStep = step;
         this.fsmList = fsmList;
         toggleDetails();
     }
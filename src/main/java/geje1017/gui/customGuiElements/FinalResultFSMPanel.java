@@ -20,7 +20,6 @@ public class FinalResultFSMPanel extends AbstractFSMPanel {
      */
     public FinalResultFSMPanel(FSMGroup fsmGroup) {
         super(fsmGroup);
-        resetStep();
         toggleDetails();
     }
 
@@ -20,10 +20,11 @@ public class IntermediateStepFSMPanel extends AbstractFSMPanel {
      * It initializes the FSM group and toggles the details based on the current step.
      *
      * @param fsmGroup The FSMGroup representing the group of finite state machines to display.
+     * @param step The number of the step, counted from 1.
      */
-    public IntermediateStepFSMPanel(FSMGroup fsmGroup) {
+    public IntermediateStepFSMPanel(FSMGroup fsmGroup, int step) {
         super(fsmGroup);
-        ownStep = getStep();
+        ownStep = step;
 
         toggleDetails();
     }
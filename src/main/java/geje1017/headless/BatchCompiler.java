@@ -0,0 +1,325 @@
+package geje1017.headless;
+
+import geje1017.logic.compiler.ThompsonCompiler;
+import geje1017.logic.finiteStateMachine.IndexedFSM;
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.matcher.JavaSourceEmitter;
+import geje1017.logic.matcher.MappedFSM;
+import geje1017.logic.parser.ExpressionRewriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Compiles many expressions at once, e.g. all validators of an application at deploy time, without the GUI.
+ * Every expression is simplified, translated into its Thompson NFA, determinized and minimized, like in
+ * {@code ExpressionEvaluator.Mode.FAST}. The expressions are compiled concurrently on a work-stealing
+ * {@link ForkJoinPool}: the batch is split in halves down to single expressions, so idle threads take over the
+ * halves of busy ones and a few expensive expressions do not hold up the rest.
+ * Each expression gets an entry with its automaton and statistics; an expression that cannot be compiled gets
+ * an entry with the error instead and does not stop the batch. This includes expressions whose DFA would grow
+ * beyond the state budget of the compiler: their subset construction is stopped as soon as it exceeds the budget.
+ * <p>
+ * Usage: {@code java -cp <classpath> geje1017.headless.BatchCompiler <expression file> <output directory> [package]}.
+ * The file contains one expression per line; blank lines are skipped. For the expression in line n the class
+ * {@code Pattern<n>} is generated with the {@link JavaSourceEmitter}, the automaton is stored in
+ * {@code Pattern<n>.dfa} in the format of {@link MappedFSM}, and the statistics of all expressions are written
+ * to {@code stats.tsv}.
+ */
+public class BatchCompiler {
+
+    /**
+     * The default maximum number of DFA states of a single expression.
+     */
+    public static final int DEFAULT_MAX_STATES = 100_000;
+
+    private final ForkJoinPool pool;
+    private final int maxStates;
+
+    /**
+     * Constructs a compiler that runs on the common fork-join pool.
+     */
+    public BatchCompiler() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a compiler with the default state budget.
+     *
+     * @param pool The pool the expressions are compiled on.
+     */
+    public BatchCompiler(ForkJoinPool pool) {
+        this(pool, DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * Constructs a compiler.
+     *
+     * @param pool The pool the expressions are compiled on.
+     * @param maxStates The maximum number of DFA states of a single expression; expressions whose subset
+     *                  construction exceeds it get an error entry.
+     * @throws IllegalArgumentException If the state budget is not positive.
+     */
+    public BatchCompiler(ForkJoinPool pool, int maxStates) {
+        if (maxStates <= 0) {
+            throw new IllegalArgumentException("The state budget must be positive: " + maxStates);
+        }
+        this.pool = pool;
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * The main method that compiles the expression file given on the command line.
+     *
+     * @param args The expression file, the output directory and optionally the package of the generated classes.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: BatchCompiler <expression file> <output directory> [package]");
+            System.exit(2);
+        }
+
+        try {
+            long start = System.nanoTime();
+            List<Entry> entries = new BatchCompiler().compile(Path.of(args[0]));
+            Path directory = Files.createDirectories(Path.of(args[1]));
+            String prefix = args.length == 3 ? args[2] + "." : "";
+            int errorCount = 0;
+            for (Entry entry : entries) {
+                if (entry.isSuccessful()) {
+                    String className = "Pattern" + entry.getLine();
+                    Files.writeString(directory.resolve(className + ".java"),
+                            JavaSourceEmitter.emit(entry.getFsm(), prefix + className), StandardCharsets.UTF_8);
+                    MappedFSM.write(entry.getFsm(), directory.resolve(className + ".dfa"));
+                } else {
+                    errorCount++;
+                    System.err.println("Line " + entry.getLine() + ": " + entry.getError());
+                }
+            }
+            try (Writer writer = Files.newBufferedWriter(directory.resolve("stats.tsv"), StandardCharsets.UTF_8)) {
+                writeStatistics(entries, writer);
+            }
+            System.err.printf("%d expressions compiled, %d errors, %.1f ms%n",
+                    entries.size() - errorCount, errorCount, (System.nanoTime() - start) / 1e6);
+            System.exit(errorCount == 0 ? 0 : 1);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Compiles all expressions of a file, one per line. Blank lines are skipped.
+     *
+     * @param file The UTF-8 encoded expression file.
+     * @return One entry per expression, in the order of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    public List<Entry> compile(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        List<String> expressions = new ArrayList<>();
+        List<Integer> lineNumbers = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (!lines.get(i).isBlank()) {
+                expressions.add(lines.get(i).strip());
+                lineNumbers.add(i + 1);
+            }
+        }
+        return compile(expressions, lineNumbers.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Compiles a list of expressions. The line of every entry is its position in the list, counted from 1.
+     *
+     * @param expressions The infix expressions.
+     * @return One entry per expression, in the order of the list.
+     */
+    public List<Entry> compile(List<String> expressions) {
+        int[] lineNumbers = new int[expressions.size()];
+        Arrays.setAll(lineNumbers, i -> i + 1);
+        return compile(expressions, lineNumbers);
+    }
+
+    private List<Entry> compile(List<String> expressions, int[] lineNumbers) {
+        Entry[] entries = new Entry[expressions.size()];
+        pool.invoke(new CompileTask(expressions, lineNumbers, maxStates, entries, 0, entries.length));
+        return List.of(entries);
+    }
+
+    /**
+     * Compiles a single expression with the default state budget and measures its statistics.
+     *
+     * @param expression The infix expression.
+     * @param line The line of the expression.
+     * @return The entry of the expression; if the expression cannot be compiled, the entry holds the error.
+     */
+    public static Entry compileExpression(String expression, int line) {
+        return compileExpression(expression, line, DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * Compiles a single expression and measures its statistics.
+     *
+     * @param expression The infix expression.
+     * @param line The line of the expression.
+     * @param maxStates The maximum number of DFA states.
+     * @return The entry of the expression; if the expression cannot be compiled or its DFA exceeds the state
+     *         budget, the entry holds the error.
+     */
+    public static Entry compileExpression(String expression, int line, int maxStates) {
+        long start = System.nanoTime();
+        try {
+            IndexedFSM nfa = ThompsonCompiler.toNfa(ExpressionRewriter.toSimplifiedPostfix(expression));
+            CompiledFSM dfa = CompiledFSM.compile(nfa, maxStates);
+            if (dfa == null) {
+                return new Entry(line, expression, null, "DFA exceeds " + maxStates + " states",
+                        nfa.getStateCount(), 0, 0, System.nanoTime() - start);
+            }
+            CompiledFSM minimal = dfa.minimize();
+            return new Entry(line, expression, minimal, null, nfa.getStateCount(), dfa.getStateCount(),
+                    minimal.getStateCount(), System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            // Whatever goes wrong with one expression only ends up in its own entry
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return new Entry(line, expression, null, message, 0, 0, 0, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Writes the statistics of the entries as tab-separated values with a header line.
+     * The columns are the line, the status, the number of NFA states, of DFA states before and after the
+     * minimization, the compilation time in microseconds, and the expression or the error.
+     *
+     * @param entries The entries to write.
+     * @param writer The writer to write to.
+     * @throws IOException If writing fails.
+     */
+    public static void writeStatistics(List<Entry> entries, Writer writer) throws IOException {
+        writer.write("line\tstatus\tnfaStates\tdfaStates\tminimizedStates\tmicros\texpression\n");
+        for (Entry entry : entries) {
+            writer.write(entry.getLine() + "\t" + (entry.isSuccessful() ? "ok" : "error") + "\t"
+                    + entry.getNfaStateCount() + "\t" + entry.getDfaStateCount() + "\t"
+                    + entry.getMinimizedStateCount() + "\t" + entry.getNanos() / 1000 + "\t"
+                    + (entry.isSuccessful() ? entry.getExpression() : entry.getError()).replace('\t', ' ') + "\n");
+        }
+    }
+
+    /**
+     * Compiles a range of the expressions, splitting it in halves until a single expression is left.
+     */
+    private static class CompileTask extends RecursiveAction {
+        private final List<String> expressions;
+        private final int[] lineNumbers;
+        private final int maxStates;
+        private final Entry[] entries;
+        private final int from;
+        private final int to;
+
+        CompileTask(List<String> expressions, int[] lineNumbers, int maxStates, Entry[] entries, int from, int to) {
+            this.expressions = expressions;
+            this.lineNumbers = lineNumbers;
+            this.maxStates = maxStates;
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                entries[from] = compileExpression(expressions.get(from), lineNumbers[from], maxStates);
+            } else if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CompileTask(expressions, lineNumbers, maxStates, entries, from, middle),
+                        new CompileTask(expressions, lineNumbers, maxStates, entries, middle, to));
+            }
+        }
+    }
+
+    /**
+     * Holds the result of compiling one expression.
+     */
+    public static class Entry {
+        private final int line;
+        private final String expression;
+        private final CompiledFSM fsm;
+        private final String error;
+        private final int nfaStateCount;
+        private final int dfaStateCount;
+        private final int minimizedStateCount;
+        private final long nanos;
+
+        Entry(int line, String expression, CompiledFSM fsm, String error, int nfaStateCount, int dfaStateCount,
+              int minimizedStateCount, long nanos) {
+            this.line = line;
+            this.expression = expression;
+            this.fsm = fsm;
+            this.error = error;
+            this.nfaStateCount = nfaStateCount;
+            this.dfaStateCount = dfaStateCount;
+            this.minimizedStateCount = minimizedStateCount;
+            this.nanos = nanos;
+        }
+
+        public boolean isSuccessful() {
+            return fsm != null;
+        }
+
+        // Getter and setter methods
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getExpression() {
+            return expression;
+        }
+
+        /**
+         * Returns the minimized automaton of the expression.
+         *
+         * @return The automaton, or {@code null} if the expression could not be compiled.
+         */
+        public CompiledFSM getFsm() {
+            return fsm;
+        }
+
+        /**
+         * Returns the reason why the expression could not be compiled.
+         *
+         * @return The error message, or {@code null} if the expression was compiled.
+         */
+        public String getError() {
+            return error;
+        }
+
+        public int getNfaStateCount() {
+            return nfaStateCount;
+        }
+
+        /**
+         * Returns the number of states of the DFA before the minimization.
+         *
+         * @return The number of states of the subset construction.
+         */
+        public int getDfaStateCount() {
+            return dfaStateCount;
+        }
+
+        public int getMinimizedStateCount() {
+            return minimizedStateCount;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
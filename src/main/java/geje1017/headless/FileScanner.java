@@ -0,0 +1,292 @@
+package geje1017.headless;
+
+import geje1017.logic.finiteStateMachine.FSMStructure;
+import geje1017.logic.matcher.ByteFSM;
+import geje1017.logic.matcher.CompiledFSM;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongConsumer;
+
+/**
+ * Finds the lines of a file that are accepted by a compiled automaton, like {@code grep -x}.
+ * The file is memory-mapped with {@link FileChannel#map} and split into chunks that end at line breaks.
+ * The chunks are matched in parallel on a {@link ForkJoinPool}; the byte offsets of the matching lines are
+ * emitted in file order. Lines are separated by {@code \n}, a trailing {@code \r} is ignored,
+ * and the file is expected to be UTF-8 encoded.
+ * A scanner is immutable and can scan several files concurrently.
+ */
+public class FileScanner {
+
+    /**
+     * The default number of bytes per chunk.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    private static final int BOUNDARY_WINDOW = 64 * 1024;
+
+    private final ByteFSM fsm;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a scanner with the default chunk size that runs on the common fork-join pool.
+     *
+     * @param fsm The automaton the lines are matched against.
+     */
+    public FileScanner(CompiledFSM fsm) {
+        this(fsm, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a scanner for the result of an evaluation, e.g. {@code FSMStorage.getResultFsm()}.
+     *
+     * @param fsm The FSM the lines are matched against; non-deterministic FSMs are determinized first.
+     */
+    public FileScanner(FSMStructure fsm) {
+        this(CompiledFSM.compile(fsm));
+    }
+
+    /**
+     * Constructs a scanner.
+     *
+     * @param fsm The automaton the lines are matched against.
+     * @param chunkSize The number of bytes after which a chunk is ended at the next line break.
+     * @param pool The pool the chunks are matched on.
+     * @throws IllegalArgumentException If the chunk size is not positive.
+     */
+    public FileScanner(CompiledFSM fsm, int chunkSize, ForkJoinPool pool) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The chunk size must be positive: " + chunkSize);
+        }
+        this.fsm = ByteFSM.of(fsm);
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+    }
+
+    /**
+     * Scans a file and passes the byte offset of every matching line to a consumer, in ascending order.
+     * The consumer is called on the calling thread.
+     *
+     * @param file The file to scan.
+     * @param matchingLines The consumer of the offsets of the matching lines.
+     * @return The statistics of the scan.
+     * @throws IOException If the file cannot be read.
+     */
+    public ScanResult scan(Path file, LongConsumer matchingLines) throws IOException {
+        return scanLines(file, (offset, line) -> matchingLines.accept(offset));
+    }
+
+    /**
+     * Scans a file and passes the byte offset and the content of every matching line to a consumer, in ascending
+     * order. The content is a view of the mapped file, so printing the matching lines needs no further reads.
+     * The consumer is called on the calling thread.
+     *
+     * @param file The file to scan.
+     * @param matchingLines The consumer of the matching lines.
+     * @return The statistics of the scan.
+     * @throws IOException If the file cannot be read.
+     */
+    public ScanResult scanLines(Path file, LineConsumer matchingLines) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<ChunkTask> tasks = new ArrayList<>();
+            long chunkStart = 0;
+            while (chunkStart < size) {
+                long chunkEnd = findChunkEnd(channel, chunkStart, size);
+                ChunkTask task = new ChunkTask(channel.map(FileChannel.MapMode.READ_ONLY, chunkStart,
+                        chunkEnd - chunkStart), chunkStart);
+                pool.execute(task);
+                tasks.add(task);
+                chunkStart = chunkEnd;
+            }
+
+            long matchCount = 0;
+            long lineCount = 0;
+            for (ChunkTask task : tasks) {
+                // The result holds the start and the content end of every matching line within the chunk,
+                // followed by the number of lines in the chunk
+                long[] lines = task.join();
+                for (int i = 0; i < lines.length - 1; i += 2) {
+                    int lineStart = (int) lines[i];
+                    matchingLines.accept(task.offset + lineStart,
+                            task.chunk.slice(lineStart, (int) lines[i + 1] - lineStart));
+                }
+                matchCount += lines.length / 2;
+                lineCount += lines[lines.length - 1];
+            }
+            return new ScanResult(size, lineCount, matchCount, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Scans a file and collects the byte offsets of all matching lines.
+     *
+     * @param file The file to scan.
+     * @return The offsets of the matching lines in ascending order.
+     * @throws IOException If the file cannot be read.
+     */
+    public long[] findMatchingLines(Path file) throws IOException {
+        LongList offsets = new LongList();
+        scan(file, offsets::add);
+        return offsets.toArray();
+    }
+
+    /**
+     * Finds the end of the chunk that starts at the given offset: the position after the first line break
+     * at or behind {@code chunkStart + chunkSize}, or the end of the file.
+     */
+    private long findChunkEnd(FileChannel channel, long chunkStart, long size) throws IOException {
+        long position = chunkStart + chunkSize - 1;
+        while (position < size) {
+            int length = (int) Math.min(BOUNDARY_WINDOW, size - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i < length; i++) {
+                if (window.get(i) == '\n') {
+                    long end = position + i + 1;
+                    if (end - chunkStart > Integer.MAX_VALUE) {
+                        throw new IOException("Line at offset " + chunkStart + " is too long to be mapped.");
+                    }
+                    return end;
+                }
+            }
+            position += length;
+        }
+        if (size - chunkStart > Integer.MAX_VALUE) {
+            throw new IOException("Line at offset " + chunkStart + " is too long to be mapped.");
+        }
+        return size;
+    }
+
+    /**
+     * Matches all lines of one chunk. The result contains the start and the end without line break of every
+     * matching line, relative to the chunk, followed by the number of lines in the chunk.
+     */
+    private class ChunkTask extends RecursiveTask<long[]> {
+        private final MappedByteBuffer chunk;
+        private final long offset;
+
+        ChunkTask(MappedByteBuffer chunk, long offset) {
+            this.chunk = chunk;
+            this.offset = offset;
+        }
+
+        @Override
+        protected long[] compute() {
+            LongList matches = new LongList();
+            int limit = chunk.limit();
+            int lineStart = 0;
+            long lineCount = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && chunk.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                // The automaton stops at the first byte without a transition, so most lines are not read twice
+                int contentEnd = lineEnd > lineStart && chunk.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                if (fsm.matches(chunk, lineStart, contentEnd)) {
+                    matches.add(lineStart);
+                    matches.add(contentEnd);
+                }
+                lineCount++;
+                lineStart = lineEnd + 1;
+            }
+            matches.add(lineCount);
+            return matches.toArray();
+        }
+    }
+
+    /**
+     * Receives the matching lines of a scan.
+     */
+    @FunctionalInterface
+    public interface LineConsumer {
+
+        /**
+         * Receives a matching line.
+         *
+         * @param offset The byte offset of the line in the file.
+         * @param line The bytes of the line without its line break; a read-only view of the mapped file.
+         */
+        void accept(long offset, ByteBuffer line);
+    }
+
+    /**
+     * A growable list of primitive longs.
+     */
+    private static class LongList {
+        private long[] values = new long[16];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Holds the statistics of a scan.
+     */
+    public static class ScanResult {
+        private final long bytes;
+        private final long lineCount;
+        private final long matchCount;
+        private final long nanos;
+
+        ScanResult(long bytes, long lineCount, long matchCount, long nanos) {
+            this.bytes = bytes;
+            this.lineCount = lineCount;
+            this.matchCount = matchCount;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns the throughput of the scan.
+         *
+         * @return The scanned megabytes (10^6 bytes) per second.
+         */
+        public double getMegabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes * 1000.0 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d of %d lines matched, %d bytes in %.1f ms (%.1f MB/s)",
+                    matchCount, lineCount, bytes, nanos / 1e6, getMegabytesPerSecond());
+        }
+
+        // Getter and setter methods
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getLineCount() {
+            return lineCount;
+        }
+
+        public long getMatchCount() {
+            return matchCount;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package geje1017.headless;
+
+import geje1017.logic.matcher.CompiledFSM;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * The {@code Grep} class is the command line entry point for scanning files without the GUI.
+ * It prints every line of a file that is accepted as a whole by a regular expression, prefixed with its byte offset,
+ * and reports the throughput on the error stream.
+ * Usage: {@code java -cp <classpath> geje1017.headless.Grep [-c] <expression> <file>}; with {@code -c}
+ * only the statistics are printed.
+ */
+public class Grep {
+
+    /**
+     * The main method that scans the file given on the command line.
+     *
+     * @param args The optional {@code -c} flag, the expression and the file.
+     */
+    public static void main(String[] args) {
+        boolean countOnly = args.length > 0 && args[0].equals("-c");
+        int first = countOnly ? 1 : 0;
+        if (args.length - first != 2) {
+            System.err.println("Usage: Grep [-c] <expression> <file>");
+            System.exit(2);
+        }
+
+        try {
+            CompiledFSM fsm = CompiledFSM.compile(args[first]);
+            Path file = Path.of(args[first + 1]);
+            FileScanner scanner = new FileScanner(fsm);
+            FileScanner.ScanResult result;
+            if (countOnly) {
+                result = scanner.scan(file, offset -> { });
+            } else {
+                PrintStream out = new PrintStream(System.out, false, StandardCharsets.UTF_8);
+                result = scanner.scanLines(file, (offset, line) ->
+                        out.println(offset + ":" + StandardCharsets.UTF_8.decode(line)));
+                out.flush();
+            }
+            System.err.println(result);
+            System.exit(result.getMatchCount() > 0 ? 0 : 1);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+}
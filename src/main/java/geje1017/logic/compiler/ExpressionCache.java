@@ -0,0 +1,216 @@
+package geje1017.logic.compiler;
+
+import geje1017.logic.postfix.ExpressionConverter;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Caches the results of compiling regular expressions, keyed by the normalized (postfix) form of the expression,
+ * so that equivalent spellings such as {@code a b} and {@code ab} share one entry.
+ * The cache is bounded by the number of entries and by the total weight of the entries (e.g. their state count)
+ * and evicts the least recently used entries first. Concurrent requests for the same uncached expression
+ * are deduplicated: only one thread compiles, the others wait for its result.
+ * The cache is thread-safe.
+ *
+ * @param <V> The type of the compiled result.
+ */
+public class ExpressionCache<V> {
+
+    private final int maximumSize;
+    private final long maximumWeight;
+    private final ToIntFunction<V> weigher;
+
+    // Access-ordered, so the eldest entry is the least recently used one
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private long totalWeight = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a cache with the given bounds.
+     *
+     * @param maximumSize The maximum number of cached expressions.
+     * @param maximumWeight The maximum total weight of all cached results.
+     * @param weigher Computes the weight of a result, e.g. the number of states of the automaton.
+     * @throws IllegalArgumentException If a bound is not positive.
+     */
+    public ExpressionCache(int maximumSize, long maximumWeight, ToIntFunction<V> weigher) {
+        if (maximumSize <= 0 || maximumWeight <= 0) {
+            throw new IllegalArgumentException("The cache bounds must be positive.");
+        }
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Normalizes an infix expression into the form used as cache key.
+     *
+     * @param expression The infix expression.
+     * @return The postfix form of the expression.
+     */
+    public static String normalize(String expression) {
+        return ExpressionConverter.convertInfixToPostfix(expression);
+    }
+
+    /**
+     * Returns the cached result for an expression or compiles it.
+     * If another thread is already compiling the same expression, this call waits for that result instead.
+     * Exceptions thrown by the compiler are passed on to all waiting callers and nothing is cached.
+     *
+     * @param expression The infix expression.
+     * @param compiler Compiles the normalized (postfix) expression.
+     * @return The compiled result.
+     */
+    public V get(String expression, Function<String, V> compiler) {
+        return getNormalized(normalize(expression), compiler);
+    }
+
+    /**
+     * Returns the cached result for an expression that the caller has already normalized, e.g. the postfix form
+     * of a syntax tree it parsed anyway, or compiles it. Otherwise like {@link #get(String, Function)}.
+     *
+     * @param key The normalized expression.
+     * @param compiler Compiles the normalized expression.
+     * @return The compiled result.
+     */
+    public V getNormalized(String key, Function<String, V> compiler) {
+        V cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            hits.increment();
+            return await(running);
+        }
+
+        try {
+            // Another thread may have finished the same expression in the meantime
+            cached = lookup(key);
+            if (cached == null) {
+                misses.increment();
+                cached = compiler.apply(key);
+                store(key, cached);
+            } else {
+                hits.increment();
+            }
+            future.complete(cached);
+            return cached;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private synchronized V lookup(String key) {
+        Entry<V> entry = entries.get(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Stores a result and evicts the least recently used entries until the bounds hold again.
+     * A result that alone exceeds the weight bound is not cached.
+     */
+    private synchronized void store(String key, V value) {
+        int weight = weigher.applyAsInt(value);
+        if (weight > maximumWeight) {
+            return;
+        }
+        Entry<V> previous = entries.put(key, new Entry<>(value, weight));
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        totalWeight += weight;
+
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (entries.size() > maximumSize || totalWeight > maximumWeight) {
+            Entry<V> evicted = eldest.next();
+            totalWeight -= evicted.weight;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Removes all cached results. The counters are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    // Getter and setter methods
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Returns the number of requests that were answered without compiling, including requests
+     * that waited for a compilation started by another thread.
+     *
+     * @return The number of cache hits.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of requests that had to compile their expression.
+     *
+     * @return The number of cache misses.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Holds a cached result together with its weight.
+     */
+    private static class Entry<V> {
+        private final V value;
+        private final int weight;
+
+        Entry(V value, int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
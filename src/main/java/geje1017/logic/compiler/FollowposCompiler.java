@@ -0,0 +1,288 @@
+package geje1017.logic.compiler;
+
+import geje1017.logic.finiteStateMachine.Alphabet;
+import geje1017.logic.finiteStateMachine.IndexedFSM;
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.parser.ExpressionRewriter;
+import geje1017.logic.postfix.ExpressionConverter;
+import geje1017.logic.postfix.InputManager;
+
+import java.util.Arrays;
+
+/**
+ * Builds the position automaton (Glushkov automaton) of a postfix expression with the direct method of
+ * Aho, Sethi and Ullman. Every occurrence of an input symbol in the expression is a position; one pass over
+ * the postfix expression computes nullable, firstpos and lastpos of every subexpression and the followpos
+ * set of every position. The automaton has one state per position plus a start state and no ε-transitions,
+ * so a single subset construction turns it into a DFA.
+ * <p>
+ * Because the positions of two subexpressions are disjoint, the union of two position sets is stored as a node
+ * joining both sets instead of copying them, and followpos only stores references to such sets. The sets are
+ * expanded once when the transitions of the automaton are created.
+ */
+public class FollowposCompiler {
+
+    private static final int EMPTY = -1;
+    private static final int LEAF = -2;
+
+    // Input symbol of every position, position 0 is the start state
+    private char[] symbols = new char[16];
+    private int positionCount = 1;
+
+    // Position sets: a leaf holds a position in setLeft, an inner node joins the sets setLeft and setRight
+    private int[] setLeft = new int[16];
+    private int[] setRight = new int[16];
+    private int setCount = 0;
+
+    // followpos of every position as a linked list of position sets
+    private int[] followHead = new int[16];
+    private int[] followSet = new int[16];
+    private int[] followNext = new int[16];
+    private int followCount = 0;
+
+    // Stack of the subexpressions: nullable, firstpos and lastpos
+    private boolean[] nullable = new boolean[16];
+    private int[] firstpos = new int[16];
+    private int[] lastpos = new int[16];
+    private int stackSize = 0;
+
+    private int[] expansion = new int[16];
+    private int[] pending = new int[16];
+
+    private FollowposCompiler() {
+        followHead[0] = EMPTY;
+    }
+
+    /**
+     * Compiles an infix regular expression into a minimal DFA via its position automaton.
+     * The expression is simplified by the {@link ExpressionRewriter} first, which reduces the number of positions.
+     *
+     * @param expression The infix regular expression.
+     * @return The compiled, minimal automaton.
+     */
+    public static CompiledFSM compile(String expression) {
+        return CompiledFSM.compile(toNfa(ExpressionRewriter.toSimplifiedPostfix(expression))).minimize();
+    }
+
+    /**
+     * Builds the position automaton of a postfix expression as produced by the
+     * {@link ExpressionConverter}. State {@code 0} is the start state, state {@code i} is the i-th position.
+     *
+     * @param postfixExpression The postfix expression, operands and operators separated by spaces.
+     * @return The indexed NFA without ε-transitions.
+     * @throws IllegalArgumentException If the expression is empty or not a valid postfix expression.
+     */
+    public static IndexedFSM toNfa(String postfixExpression) {
+        FollowposCompiler compiler = new FollowposCompiler();
+        for (int i = 0; i < postfixExpression.length(); i++) {
+            compiler.process(postfixExpression.charAt(i));
+        }
+        if (compiler.stackSize != 1) {
+            throw new IllegalArgumentException("Invalid postfix expression: " + postfixExpression);
+        }
+        return compiler.toIndexedFsm();
+    }
+
+    private void process(char c) {
+        if (InputManager.isOperand(c)) {
+            if (c == InputManager.getEmptySymbol()) {
+                push(true, EMPTY, EMPTY);
+            } else if (c == InputManager.getEmptySet()) {
+                push(false, EMPTY, EMPTY);
+            } else {
+                int position = addPosition(c);
+                int set = addSet(position, LEAF);
+                push(false, set, set);
+            }
+        } else if (c == InputManager.OperatorType.CONCATENATION.getSymbol()) {
+            int right = pop();
+            int left = pop();
+            addFollow(lastpos[left], firstpos[right]);
+            int first = nullable[left] ? union(firstpos[left], firstpos[right]) : firstpos[left];
+            int last = nullable[right] ? union(lastpos[left], lastpos[right]) : lastpos[right];
+            push(nullable[left] && nullable[right], first, last);
+        } else if (c == InputManager.OperatorType.ALTERNATION.getSymbol()) {
+            int right = pop();
+            int left = pop();
+            push(nullable[left] || nullable[right], union(firstpos[left], firstpos[right]), union(lastpos[left], lastpos[right]));
+        } else if (InputManager.isUnaryOperator(c)) {
+            int inner = pop();
+            addFollow(lastpos[inner], firstpos[inner]);
+            boolean isNullable = nullable[inner] || c == InputManager.OperatorType.KLEENE_CLOSURE.getSymbol();
+            push(isNullable, firstpos[inner], lastpos[inner]);
+        } else if (!Character.isWhitespace(c)) {
+            throw new IllegalArgumentException("Invalid symbol in postfix expression: " + c);
+        }
+    }
+
+    private int addPosition(char symbol) {
+        if (positionCount == symbols.length) {
+            symbols = Arrays.copyOf(symbols, positionCount * 2);
+            followHead = Arrays.copyOf(followHead, positionCount * 2);
+        }
+        symbols[positionCount] = symbol;
+        followHead[positionCount] = EMPTY;
+        return positionCount++;
+    }
+
+    private int addSet(int left, int right) {
+        if (setCount == setLeft.length) {
+            setLeft = Arrays.copyOf(setLeft, setCount * 2);
+            setRight = Arrays.copyOf(setRight, setCount * 2);
+        }
+        setLeft[setCount] = left;
+        setRight[setCount] = right;
+        return setCount++;
+    }
+
+    private int union(int set1, int set2) {
+        if (set1 == EMPTY) {
+            return set2;
+        }
+        if (set2 == EMPTY) {
+            return set1;
+        }
+        return addSet(set1, set2);
+    }
+
+    /**
+     * Adds the positions of {@code followers} to the followpos set of every position in {@code positions}.
+     */
+    private void addFollow(int positions, int followers) {
+        if (positions == EMPTY || followers == EMPTY) {
+            return;
+        }
+        int count = expand(positions);
+        for (int i = 0; i < count; i++) {
+            int position = expansion[i];
+            if (followCount == followSet.length) {
+                followSet = Arrays.copyOf(followSet, followCount * 2);
+                followNext = Arrays.copyOf(followNext, followCount * 2);
+            }
+            followSet[followCount] = followers;
+            followNext[followCount] = followHead[position];
+            followHead[position] = followCount++;
+        }
+    }
+
+    /**
+     * Writes the positions of a set into {@code expansion}.
+     *
+     * @return The number of positions.
+     */
+    private int expand(int set) {
+        int count = 0;
+        int pendingSize = 0;
+        pending[pendingSize++] = set;
+        while (pendingSize > 0) {
+            int current = pending[--pendingSize];
+            if (setRight[current] == LEAF) {
+                if (count == expansion.length) {
+                    expansion = Arrays.copyOf(expansion, count * 2);
+                }
+                expansion[count++] = setLeft[current];
+            } else {
+                if (pendingSize + 2 > pending.length) {
+                    pending = Arrays.copyOf(pending, pending.length * 2);
+                }
+                pending[pendingSize++] = setRight[current];
+                pending[pendingSize++] = setLeft[current];
+            }
+        }
+        return count;
+    }
+
+    private void push(boolean isNullable, int first, int last) {
+        if (stackSize == nullable.length) {
+            nullable = Arrays.copyOf(nullable, stackSize * 2);
+            firstpos = Arrays.copyOf(firstpos, stackSize * 2);
+            lastpos = Arrays.copyOf(lastpos, stackSize * 2);
+        }
+        nullable[stackSize] = isNullable;
+        firstpos[stackSize] = first;
+        lastpos[stackSize] = last;
+        stackSize++;
+    }
+
+    private int pop() {
+        if (stackSize == 0) {
+            throw new IllegalArgumentException("Missing operand in postfix expression.");
+        }
+        return --stackSize;
+    }
+
+    private IndexedFSM toIndexedFsm() {
+        // The start state is followed by the first positions of the whole expression
+        if (firstpos[0] != EMPTY) {
+            addFollowOfStart(firstpos[0]);
+        }
+
+        Alphabet alphabet = new Alphabet(Arrays.copyOfRange(symbols, 1, positionCount));
+        int symbolCount = alphabet.size();
+        int[] symbolIndex = new int[positionCount];
+        for (int position = 1; position < positionCount; position++) {
+            symbolIndex[position] = alphabet.indexOf(symbols[position]);
+        }
+
+        int[][] targets = new int[positionCount * symbolCount][];
+        int[] noTargets = new int[0];
+        Arrays.fill(targets, noTargets);
+        int[] seen = new int[positionCount];
+        int[] followers = new int[positionCount];
+        int[] bucketCounts = new int[symbolCount];
+        for (int state = 0; state < positionCount; state++) {
+            // Collect the distinct followers of the state
+            int followerCount = 0;
+            for (int entry = followHead[state]; entry != EMPTY; entry = followNext[entry]) {
+                int count = expand(followSet[entry]);
+                for (int i = 0; i < count; i++) {
+                    int follower = expansion[i];
+                    if (seen[follower] != state + 1) {
+                        seen[follower] = state + 1;
+                        followers[followerCount++] = follower;
+                    }
+                }
+            }
+            if (followerCount == 0) {
+                continue;
+            }
+
+            // Sort the followers by symbol
+            Arrays.sort(followers, 0, followerCount);
+            Arrays.fill(bucketCounts, 0);
+            for (int i = 0; i < followerCount; i++) {
+                bucketCounts[symbolIndex[followers[i]]]++;
+            }
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                if (bucketCounts[symbol] > 0) {
+                    targets[state * symbolCount + symbol] = new int[bucketCounts[symbol]];
+                    bucketCounts[symbol] = 0;
+                }
+            }
+            for (int i = 0; i < followerCount; i++) {
+                int symbol = symbolIndex[followers[i]];
+                targets[state * symbolCount + symbol][bucketCounts[symbol]++] = followers[i];
+            }
+        }
+
+        boolean[] finalStates = new boolean[positionCount];
+        finalStates[0] = nullable[0];
+        if (lastpos[0] != EMPTY) {
+            int count = expand(lastpos[0]);
+            for (int i = 0; i < count; i++) {
+                finalStates[expansion[i]] = true;
+            }
+        }
+        return new IndexedFSM(alphabet, targets, null, new int[]{0}, finalStates);
+    }
+
+    private void addFollowOfStart(int followers) {
+        if (followCount == followSet.length) {
+            followSet = Arrays.copyOf(followSet, followCount * 2);
+            followNext = Arrays.copyOf(followNext, followCount * 2);
+        }
+        followSet[followCount] = followers;
+        followNext[followCount] = EMPTY;
+        followHead[0] = followCount++;
+    }
+}
@@ -0,0 +1,174 @@
+package geje1017.logic.compiler;
+
+import geje1017.logic.finiteStateMachine.Alphabet;
+import geje1017.logic.finiteStateMachine.IndexedFSM;
+import geje1017.logic.postfix.InputManager;
+
+import java.util.Arrays;
+
+/**
+ * Builds one non-deterministic finite state machine (NFA) with ε-transitions for a whole postfix expression
+ * using Thompson's construction. In contrast to the evaluation pipeline, which creates, copies, determinizes
+ * and minimizes an FSM after every operator, every operator here only adds at most two states and four
+ * ε-transitions to int arrays, so the NFA is built in linear time and memory.
+ * Every state has either one symbol transition or at most two ε-transitions.
+ */
+public class ThompsonCompiler {
+
+    private static final int NO_SYMBOL = -1;
+    private static final int NO_TARGET = -1;
+
+    private int stateCount = 0;
+    private char[] symbols = new char[16];
+    private int[] symbolTargets = new int[16];
+    private int[] epsilonTargets1 = new int[16];
+    private int[] epsilonTargets2 = new int[16];
+
+    // Fragments on the stack are stored as pairs of start and end state
+    private int[] fragments = new int[16];
+    private int fragmentCount = 0;
+
+    private ThompsonCompiler() {
+    }
+
+    /**
+     * Builds the NFA of a postfix expression as produced by the
+     * {@link geje1017.logic.postfix.ExpressionConverter}.
+     *
+     * @param postfixExpression The postfix expression, operands and operators separated by spaces.
+     * @return The indexed NFA with a single start state and a single final state.
+     * @throws IllegalArgumentException If the expression is empty or not a valid postfix expression.
+     */
+    public static IndexedFSM toNfa(String postfixExpression) {
+        ThompsonCompiler compiler = new ThompsonCompiler();
+        for (int i = 0; i < postfixExpression.length(); i++) {
+            compiler.process(postfixExpression.charAt(i));
+        }
+        if (compiler.fragmentCount != 1) {
+            throw new IllegalArgumentException("Invalid postfix expression: " + postfixExpression);
+        }
+        return compiler.toIndexedFsm();
+    }
+
+    private void process(char c) {
+        if (InputManager.isOperand(c)) {
+            int start = addState();
+            int end = addState();
+            if (c == InputManager.getEmptySymbol()) {
+                addEpsilon(start, end);
+            } else if (c != InputManager.getEmptySet()) {
+                symbols[start] = c;
+                symbolTargets[start] = end;
+            }
+            push(start, end);
+        } else if (c == InputManager.OperatorType.CONCATENATION.getSymbol()) {
+            int start2 = pop();
+            int end2 = fragments[fragmentCount * 2 + 1];
+            int start1 = pop();
+            int end1 = fragments[fragmentCount * 2 + 1];
+            addEpsilon(end1, start2);
+            push(start1, end2);
+        } else if (c == InputManager.OperatorType.ALTERNATION.getSymbol()) {
+            int start2 = pop();
+            int end2 = fragments[fragmentCount * 2 + 1];
+            int start1 = pop();
+            int end1 = fragments[fragmentCount * 2 + 1];
+            int start = addState();
+            int end = addState();
+            addEpsilon(start, start1);
+            addEpsilon(start, start2);
+            addEpsilon(end1, end);
+            addEpsilon(end2, end);
+            push(start, end);
+        } else if (InputManager.isUnaryOperator(c)) {
+            int innerStart = pop();
+            int innerEnd = fragments[fragmentCount * 2 + 1];
+            int start = addState();
+            int end = addState();
+            addEpsilon(start, innerStart);
+            if (c == InputManager.OperatorType.KLEENE_CLOSURE.getSymbol()) {
+                addEpsilon(start, end);
+            }
+            addEpsilon(innerEnd, innerStart);
+            addEpsilon(innerEnd, end);
+            push(start, end);
+        } else if (!Character.isWhitespace(c)) {
+            throw new IllegalArgumentException("Invalid symbol in postfix expression: " + c);
+        }
+    }
+
+    private int addState() {
+        if (stateCount == symbols.length) {
+            int capacity = stateCount * 2;
+            symbols = Arrays.copyOf(symbols, capacity);
+            symbolTargets = Arrays.copyOf(symbolTargets, capacity);
+            epsilonTargets1 = Arrays.copyOf(epsilonTargets1, capacity);
+            epsilonTargets2 = Arrays.copyOf(epsilonTargets2, capacity);
+        }
+        symbolTargets[stateCount] = NO_SYMBOL;
+        epsilonTargets1[stateCount] = NO_TARGET;
+        epsilonTargets2[stateCount] = NO_TARGET;
+        return stateCount++;
+    }
+
+    private void addEpsilon(int source, int target) {
+        if (epsilonTargets1[source] == NO_TARGET) {
+            epsilonTargets1[source] = target;
+        } else {
+            epsilonTargets2[source] = target;
+        }
+    }
+
+    private void push(int start, int end) {
+        if (fragmentCount * 2 == fragments.length) {
+            fragments = Arrays.copyOf(fragments, fragments.length * 2);
+        }
+        fragments[fragmentCount * 2] = start;
+        fragments[fragmentCount * 2 + 1] = end;
+        fragmentCount++;
+    }
+
+    /**
+     * Removes the topmost fragment. Its end state stays readable at {@code fragments[fragmentCount * 2 + 1]}.
+     *
+     * @return The start state of the removed fragment.
+     */
+    private int pop() {
+        if (fragmentCount == 0) {
+            throw new IllegalArgumentException("Missing operand in postfix expression.");
+        }
+        fragmentCount--;
+        return fragments[fragmentCount * 2];
+    }
+
+    private IndexedFSM toIndexedFsm() {
+        StringBuilder usedSymbols = new StringBuilder();
+        for (int state = 0; state < stateCount; state++) {
+            if (symbolTargets[state] != NO_SYMBOL) {
+                usedSymbols.append(symbols[state]);
+            }
+        }
+        Alphabet alphabet = new Alphabet(usedSymbols.toString().toCharArray());
+        int symbolCount = alphabet.size();
+
+        int[][] targets = new int[stateCount * symbolCount][];
+        int[][] epsilonTargets = new int[stateCount][];
+        boolean[] finalStates = new boolean[stateCount];
+        int[] noTargets = new int[0];
+        Arrays.fill(targets, noTargets);
+        for (int state = 0; state < stateCount; state++) {
+            if (symbolTargets[state] != NO_SYMBOL) {
+                targets[state * symbolCount + alphabet.indexOf(symbols[state])] = new int[]{symbolTargets[state]};
+            }
+            if (epsilonTargets1[state] == NO_TARGET) {
+                epsilonTargets[state] = noTargets;
+            } else if (epsilonTargets2[state] == NO_TARGET) {
+                epsilonTargets[state] = new int[]{epsilonTargets1[state]};
+            } else {
+                epsilonTargets[state] = new int[]{epsilonTargets1[state], epsilonTargets2[state]};
+            }
+        }
+        finalStates[fragments[1]] = true;
+        return new IndexedFSM(alphabet, targets, epsilonTargets, new int[]{fragments[0]}, finalStates);
+    }
+}
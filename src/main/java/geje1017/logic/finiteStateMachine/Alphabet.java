@@ -0,0 +1,98 @@
+package geje1017.logic.finiteStateMachine;
+
+import java.util.Arrays;
+
+/**
+ * Represents the input alphabet of a finite state machine (FSM) as a sorted array of characters.
+ * Every symbol is assigned a dense index (its position in the sorted array), so that transition tables
+ * can be stored as plain int arrays. Lookups for ASCII characters use a direct table, all other characters
+ * are found by binary search. Instances are immutable and can be shared between threads.
+ */
+public final class Alphabet {
+
+    private static final int ASCII_SIZE = 128;
+
+    private final char[] symbols;
+    private final int[] asciiIndex;
+
+    /**
+     * Constructs an alphabet from the given symbols. Duplicates are removed and the symbols are sorted.
+     *
+     * @param symbols The symbols of the alphabet.
+     */
+    public Alphabet(char[] symbols) {
+        char[] sorted = symbols.clone();
+        Arrays.sort(sorted);
+
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        this.symbols = Arrays.copyOf(sorted, distinct);
+
+        this.asciiIndex = new int[ASCII_SIZE];
+        Arrays.fill(asciiIndex, -1);
+        for (int i = 0; i < this.symbols.length && this.symbols[i] < ASCII_SIZE; i++) {
+            asciiIndex[this.symbols[i]] = i;
+        }
+    }
+
+    /**
+     * Returns the dense index of a symbol.
+     *
+     * @param c The symbol to look up.
+     * @return The index of the symbol, or {@code -1} if it is not part of the alphabet.
+     */
+    public int indexOf(char c) {
+        if (c < ASCII_SIZE) {
+            return asciiIndex[c];
+        }
+        int index = Arrays.binarySearch(symbols, c);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Builds the union of this alphabet and another one.
+     *
+     * @param other The other alphabet.
+     * @return A new alphabet containing the symbols of both alphabets.
+     */
+    public Alphabet union(Alphabet other) {
+        char[] combined = Arrays.copyOf(symbols, symbols.length + other.symbols.length);
+        System.arraycopy(other.symbols, 0, combined, symbols.length, other.symbols.length);
+        return new Alphabet(combined);
+    }
+
+    // Getter and setter methods
+
+    public int size() {
+        return symbols.length;
+    }
+
+    public char getSymbol(int index) {
+        return symbols[index];
+    }
+
+    public char[] getSymbols() {
+        return symbols.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Alphabet alphabet)) return false;
+        return Arrays.equals(symbols, alphabet.symbols);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(symbols);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(symbols);
+    }
+}
@@ -0,0 +1,27 @@
+package geje1017.logic.finiteStateMachine;
+
+/**
+ * Holds the state that belongs to the compilation of one expression, most importantly the allocation
+ * of state identifiers. Every compilation uses its own context, so that several expressions can be
+ * compiled concurrently without affecting each other's state names.
+ * A context itself is meant to be used by one compilation at a time and is not thread-safe.
+ */
+public class CompilationContext {
+
+    private int nextStateId = 0;
+
+    /**
+     * Allocates the next unused state identifier.
+     *
+     * @return A state identifier that is unique within this compilation.
+     */
+    public int allocateStateId() {
+        return nextStateId++;
+    }
+
+    // Getter and setter methods
+
+    public int getAllocatedStateIds() {
+        return nextStateId;
+    }
+}
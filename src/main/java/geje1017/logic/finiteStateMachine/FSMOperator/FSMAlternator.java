@@ -45,7 +45,7 @@ public class FSMAlternator {
             return fsm2;
         }
         if (fsm2.getExpression().equals(String.valueOf(InputManager.getEmptySet()))) {
-            return fsm2;
+            return fsm1;
         }
         return null;
     }
@@ -1,5 +1,6 @@
 package geje1017.logic.finiteStateMachine.FSMOperator;
 
+import geje1017.logic.finiteStateMachine.CompilationContext;
 import geje1017.logic.finiteStateMachine.FSMStructure;
 import geje1017.logic.finiteStateMachine.State;
 
@@ -44,15 +45,16 @@ public class FSMClosureApplier{
      * effectively including the option to accept the empty string.
      *
      * @param fsm The deterministic FSM to apply Kleene closure to.
+     * @param context The compilation context that allocates the identifier of the added state.
      * @return A new FSM instance representing the original FSM with Kleene closure applied.
      */
-    public static FSMStructure applyKleeneClosure(FSMStructure fsm) {
+    public static FSMStructure applyKleeneClosure(FSMStructure fsm, CompilationContext context) {
 
         String temp = "(" + fsm.getExpression() + ")*";
 
         FSMStructure kleeneClosureFsm = applyPositiveClosure(fsm);
 
-        convertEmptyString(kleeneClosureFsm);
+        convertEmptyString(kleeneClosureFsm, context);
 
         kleeneClosureFsm.setExplanation("Repeating the DFSM zero or more times.\n");
         kleeneClosureFsm.setExpression(temp);
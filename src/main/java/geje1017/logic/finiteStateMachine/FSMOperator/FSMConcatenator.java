@@ -64,6 +64,8 @@ public class FSMConcatenator {
     /**
      * Performs the actual concatenation of two FSMs, linking the final states of the first FSM
      * with the start state of the second FSM. It also merges transitions between the two FSMs.
+     * The final states of the first FSM take over the outgoing transitions of the start state of the second FSM.
+     * The start state itself is only kept if it can be reached again from within the second FSM.
      *
      * @param fsm1 The first FSM.
      * @param fsm2 The second FSM.
@@ -80,34 +82,50 @@ public class FSMConcatenator {
 
         State fsm2StartState = fsm2.getStartState();
         Set<State> fsm1FinalStates = fsm1.getFinalStates();
+        boolean keepStartState = hasIncomingTransitions(fsm2, fsm2StartState);
 
-        concatenatedFsm.addAllTransitions(fsm1.getTransitions());
-
-        // Add transitions for FSM2, connecting start states and final states
-        fsm2.getTransitions().forEach((sourceState, transitions) -> transitions.forEach((targetState, symbols) -> {
-
-            if (sourceState.isStartState() || targetState.isStartState()) {
-                for (State currentFinalState : fsm1FinalStates) {
-                    State newSource = sourceState.isStartState() ? currentFinalState : sourceState;
-                    State newTarget = targetState.isStartState() ? currentFinalState : targetState;
-                    concatenatedFsm.addTransition(newSource, symbols, newTarget);
-                }
-            }
-            else {
-                concatenatedFsm.addTransition(sourceState, symbols, targetState);
-            }
-        }));
-
-        // Handle case where the start state of fsm2 is not a final state
+        // Adjust the states before they are added, as their names and flags determine their order in the FSM
         if (!fsm2StartState.isFinalState) {
             for (State currentState : fsm1FinalStates) {
-                currentState.fuseStateName(fsm2StartState);
+                if (!keepStartState) {
+                    currentState.fuseStateName(fsm2StartState);
+                }
                 currentState.resetFinalState();
             }
         }
-
         fsm2StartState.resetStartState();
+
+        concatenatedFsm.addAllTransitions(fsm1.getTransitions());
+
+        // Add transitions for FSM2, connecting the final states of FSM1 with the successors of the start state
+        fsm2.getTransitions().forEach((sourceState, transitions) -> {
+            if (sourceState != fsm2StartState || keepStartState) {
+                concatenatedFsm.addState(sourceState);
+            }
+            transitions.forEach((targetState, symbols) -> {
+                if (sourceState == fsm2StartState) {
+                    for (State currentFinalState : fsm1FinalStates) {
+                        concatenatedFsm.addTransition(currentFinalState, symbols, targetState);
+                    }
+                }
+                if (sourceState != fsm2StartState || keepStartState) {
+                    concatenatedFsm.addTransition(sourceState, symbols, targetState);
+                }
+            });
+        });
+
         return concatenatedFsm;
     }
 
+    /**
+     * Checks whether a state is the target of at least one transition.
+     *
+     * @param fsm The FSM containing the state.
+     * @param state The state to check.
+     * @return {@code true} if a transition leads into the state, otherwise {@code false}.
+     */
+    private static boolean hasIncomingTransitions(FSMStructure fsm, State state) {
+        return fsm.getTransitions().values().stream().anyMatch(targets -> targets.containsKey(state));
+    }
+
 }
@@ -1,12 +1,11 @@
 package geje1017.logic.finiteStateMachine.FSMOperator;
 
 import geje1017.logic.finiteStateMachine.FSMStructure;
+import geje1017.logic.finiteStateMachine.IndexedFSM;
 import geje1017.logic.finiteStateMachine.State;
 
 import java.util.*;
 
-import static geje1017.logic.finiteStateMachine.FSMOperator.FSMCopier.copyFsm;
-
 /**
  * Converts a non-deterministic finite automaton (NFA) into a deterministic finite automaton (DFA)
  * using the subset construction method.
@@ -17,57 +16,74 @@ public class FSMDeterminizer {
      * Converts a non-deterministic finite automaton (NFA) to a deterministic finite automaton (DFA)
      * using the subset construction method.
      * The conversion involves creating new states in the DFA that correspond to sets of states from the NFA.
-     * Transitions between these sets of states are determined by analyzing the transitions in the NFA.
+     * The construction itself runs on dense state ids with bitset subsets (see {@link FSMSubsetConstructor});
+     * the states of the DFA are only created once all subsets are known.
      *
      * @param fsm The NFA to be converted.
      * @return A new DFA that represents the deterministic version of the input NFA.
+     * @throws IllegalArgumentException If the NFA has no start state.
      */
     public static FSMStructure toDeterministicFsm(FSMStructure fsm) {
 
-        FSMStructure copyFsm = copyFsm(fsm);
+        IndexedFSM nfa = IndexedFSM.of(fsm);
+        FSMSubsetConstructor.Result subsets = FSMSubsetConstructor.construct(nfa);
+
         FSMStructure deterministicFsm = new FSMStructure();
         deterministicFsm.setExplanation("Transforming the FSM into a deterministic version.\n");
 
-        // Map from sets of NFA states to DFA states.
-        Map<Set<State>, State> stateMap = new HashMap<>();
-        // Queue to manage sets of NFA states for processing.
-        Queue<Set<State>> queue = new LinkedList<>();
-
-        // Create the start state for the DFA.
-        Set<State> startSet = copyFsm.getStartStates();
-        State dfaStartState = State.fuseState(startSet);
-        stateMap.put(startSet, dfaStartState);
-        queue.add(startSet);
-        // deterministicFsm.transitions.put(dfaStartState, new HashMap<>());
-        deterministicFsm.addState(dfaStartState);
-
-        // Process all sets of states.
-        while (!queue.isEmpty()) {
-            Set<State> currentSet = queue.poll();
-            State currentState = stateMap.get(currentSet);
-            // Map to track transitions for the current set based on input symbols.
-            Map<String, Set<State>> transitionMap = new HashMap<>();
-            for (State state : currentSet) {
-                copyFsm.transitions.getOrDefault(state, new HashMap<>()).forEach((target, symbols) -> symbols.forEach(symbol -> transitionMap.computeIfAbsent(symbol, k -> new HashSet<>()).add(target)));
-            }
+        // Create one state per subset, the start subset always has id 0.
+        State[] dfaStates = new State[subsets.getSubsetCount()];
+        for (int subset = 0; subset < dfaStates.length; subset++) {
+            dfaStates[subset] = createState(nfa, subsets.getMembers(subset), subset == 0, subsets.isFinal(subset));
+            deterministicFsm.addState(dfaStates[subset]);
+        }
 
-            // Create new transitions and states in the DFA.
-            transitionMap.forEach((symbol, targetSet) -> {
-                if (!stateMap.containsKey(targetSet)) {
-                    State newState;
-                    newState = State.fuseState(targetSet);
-                    newState.resetStartState();
-                    stateMap.put(targetSet, newState);
-                    queue.add(targetSet);
-                    deterministicFsm.transitions.put(newState, new HashMap<>());
+        // Create the transitions between the subsets.
+        int symbolCount = nfa.getAlphabet().size();
+        int[] transitions = subsets.getTransitions();
+        for (int subset = 0; subset < dfaStates.length; subset++) {
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                int target = transitions[subset * symbolCount + symbol];
+                if (target >= 0) {
+                    String inputSymbol = String.valueOf(nfa.getAlphabet().getSymbol(symbol));
+                    deterministicFsm.addTransition(dfaStates[subset], Collections.singleton(inputSymbol), dfaStates[target]);
                 }
-                State targetState = stateMap.get(targetSet);
-                deterministicFsm.transitions.get(currentState).computeIfAbsent(targetState, k -> new HashSet<>()).add(symbol);
-            });
+            }
         }
 
-        deterministicFsm.setExpression(copyFsm.getExpression());
+        deterministicFsm.setExpression(fsm.getExpression());
         return deterministicFsm;
     }
 
+    /**
+     * Creates the DFA state for a subset of NFA states. A subset with a single member keeps the name of that member,
+     * larger subsets are named after all of their members.
+     *
+     * @param nfa The indexed NFA.
+     * @param members The ids of the NFA states in the subset.
+     * @param isStart Indicates if the subset is the start subset.
+     * @param isFinal Indicates if the subset contains a final state.
+     * @return The new DFA state.
+     */
+    private static State createState(IndexedFSM nfa, int[] members, boolean isStart, boolean isFinal) {
+        if (members.length == 1) {
+            State state = new State(nfa.getState(members[0]));
+            state.setStartState(isStart);
+            return state;
+        }
+
+        int length = 0;
+        for (int member : members) {
+            length += nfa.getState(member).getNumbers().size();
+        }
+        int[] numbers = new int[length];
+        int index = 0;
+        for (int member : members) {
+            for (int number : nfa.getState(member).getNumbers()) {
+                numbers[index++] = number;
+            }
+        }
+        return State.fuseNumbers(numbers, isStart, isFinal);
+    }
+
 }
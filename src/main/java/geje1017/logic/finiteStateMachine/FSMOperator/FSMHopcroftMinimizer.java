@@ -0,0 +1,300 @@
+package geje1017.logic.finiteStateMachine.FSMOperator;
+
+import geje1017.logic.finiteStateMachine.FSMStructure;
+import geje1017.logic.finiteStateMachine.IndexedFSM;
+import geje1017.logic.finiteStateMachine.State;
+
+import java.util.*;
+
+/**
+ * Minimizes a deterministic finite state machine (FSM) with Hopcroft's partition refinement algorithm.
+ * In contrast to {@link FSMMinimizer}, which recomputes a signature for every state in every round,
+ * this algorithm works on int state ids and block arrays and only revisits the predecessors of a splitter block,
+ * which gives a running time of O(k * n * log n) for n states and k input symbols.
+ * Missing transitions are treated as transitions into an implicit dead state, so partial automata
+ * can be minimized without completing them first.
+ */
+public class FSMHopcroftMinimizer {
+
+    /**
+     * The block id assigned to states that are equivalent to the implicit dead state.
+     */
+    public static final int DEAD_BLOCK = -1;
+
+    /**
+     * Minimizes a deterministic FSM by merging equivalent states.
+     * States that cannot reach a final state are removed, unless the start state is one of them.
+     *
+     * @param fsm The deterministic FSM to be minimized.
+     * @return A new minimized FSM with the same language.
+     * @throws IllegalArgumentException If the FSM is not deterministic.
+     */
+    public static FSMStructure minimize(FSMStructure fsm) {
+        fsm = FSMCopier.copyFsm(fsm);
+        IndexedFSM indexedFsm = IndexedFSM.of(fsm);
+        int stateCount = indexedFsm.getStateCount();
+        if (stateCount == 0) {
+            return fsm;
+        }
+        if (!indexedFsm.isDeterministic()) {
+            throw new IllegalArgumentException("Only deterministic FSMs can be minimized with Hopcroft's algorithm.");
+        }
+
+        int symbolCount = indexedFsm.getAlphabet().size();
+        int[] transitions = new int[stateCount * symbolCount];
+        int[] initialBlocks = new int[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            initialBlocks[state] = indexedFsm.isFinalState(state) ? 1 : 0;
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                int[] targets = indexedFsm.getTargets(state, symbol);
+                transitions[state * symbolCount + symbol] = targets.length == 0 ? -1 : targets[0];
+            }
+        }
+
+        int[] blocks = refine(stateCount, symbolCount, transitions, initialBlocks);
+
+        // A dead start state is kept as a block of its own, so that the automaton keeps a start state
+        int startState = indexedFsm.getStartStates()[0];
+        if (blocks[startState] == DEAD_BLOCK) {
+            int deadBlock = Arrays.stream(blocks).max().getAsInt() + 1;
+            for (int state = 0; state < stateCount; state++) {
+                if (blocks[state] == DEAD_BLOCK) {
+                    blocks[state] = deadBlock;
+                }
+            }
+        }
+        return buildMinimizedFsm(indexedFsm, blocks, transitions, fsm.getExpression());
+    }
+
+    /**
+     * Computes the coarsest partition of the states of a deterministic automaton that is compatible
+     * with the given initial partition and stable under all transitions.
+     *
+     * @param stateCount The number of states.
+     * @param symbolCount The number of input symbols.
+     * @param transitions The transition table, indexed by {@code state * symbolCount + symbol},
+     *                    containing a negative value for missing transitions.
+     * @param initialBlocks The initial block label of every state. States with label {@code 0}
+     *                      are considered equivalent to the implicit dead state unless shown otherwise.
+     * @return The block id of every state, numbered densely in order of the first state of each block,
+     *         or {@link #DEAD_BLOCK} for states that are equivalent to the dead state.
+     */
+    public static int[] refine(int stateCount, int symbolCount, int[] transitions, int[] initialBlocks) {
+        int total = stateCount + 1;
+        int sink = stateCount;
+
+        // Inverse transitions in compressed form: sources of (target, symbol) are stored at
+        // inverseSources[inverseStart[target * symbolCount + symbol] .. inverseStart[... + 1])
+        int[] inverseStart = new int[total * symbolCount + 1];
+        for (int state = 0; state < total; state++) {
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                inverseStart[target(transitions, state, symbol, symbolCount, sink) * symbolCount + symbol + 1]++;
+            }
+        }
+        for (int i = 1; i < inverseStart.length; i++) {
+            inverseStart[i] += inverseStart[i - 1];
+        }
+        int[] inverseSources = new int[total * symbolCount];
+        int[] fill = Arrays.copyOf(inverseStart, inverseStart.length - 1);
+        for (int state = 0; state < total; state++) {
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                int cell = target(transitions, state, symbol, symbolCount, sink) * symbolCount + symbol;
+                inverseSources[fill[cell]++] = state;
+            }
+        }
+
+        // Partition: the elements of block b are stored at elements[blockStart[b] .. blockEnd[b])
+        int[] elements = new int[total];
+        int[] location = new int[total];
+        int[] blockOf = new int[total];
+        int[] blockStart = new int[total];
+        int[] blockEnd = new int[total];
+        int[] markedCount = new int[total];
+        int blockCount = initializePartition(initialBlocks, sink, elements, location, blockOf, blockStart, blockEnd);
+
+        // All initial blocks except the largest one are splitters
+        int[] worklist = new int[total];
+        boolean[] inWorklist = new boolean[total];
+        int worklistSize = 0;
+        int largest = 0;
+        for (int b = 1; b < blockCount; b++) {
+            if (blockEnd[b] - blockStart[b] > blockEnd[largest] - blockStart[largest]) {
+                largest = b;
+            }
+        }
+        for (int b = 0; b < blockCount; b++) {
+            if (b != largest) {
+                worklist[worklistSize++] = b;
+                inWorklist[b] = true;
+            }
+        }
+
+        int[] splitter = new int[total];
+        int[] touched = new int[total];
+        while (worklistSize > 0) {
+            int splitterBlock = worklist[--worklistSize];
+            inWorklist[splitterBlock] = false;
+            int splitterSize = blockEnd[splitterBlock] - blockStart[splitterBlock];
+            System.arraycopy(elements, blockStart[splitterBlock], splitter, 0, splitterSize);
+
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                // Move all predecessors to the front of their blocks
+                int touchedCount = 0;
+                for (int i = 0; i < splitterSize; i++) {
+                    int cell = splitter[i] * symbolCount + symbol;
+                    for (int j = inverseStart[cell]; j < inverseStart[cell + 1]; j++) {
+                        int predecessor = inverseSources[j];
+                        int block = blockOf[predecessor];
+                        int markPosition = blockStart[block] + markedCount[block];
+                        int position = location[predecessor];
+                        if (position < markPosition) {
+                            continue;
+                        }
+                        if (markedCount[block] == 0) {
+                            touched[touchedCount++] = block;
+                        }
+                        int other = elements[markPosition];
+                        elements[markPosition] = predecessor;
+                        location[predecessor] = markPosition;
+                        elements[position] = other;
+                        location[other] = position;
+                        markedCount[block]++;
+                    }
+                }
+
+                // Split every block that is only partially marked
+                for (int t = 0; t < touchedCount; t++) {
+                    int block = touched[t];
+                    int marked = markedCount[block];
+                    markedCount[block] = 0;
+                    if (marked == blockEnd[block] - blockStart[block]) {
+                        continue;
+                    }
+                    int newBlock = blockCount++;
+                    blockStart[newBlock] = blockStart[block];
+                    blockEnd[newBlock] = blockStart[block] + marked;
+                    blockStart[block] = blockEnd[newBlock];
+                    for (int position = blockStart[newBlock]; position < blockEnd[newBlock]; position++) {
+                        blockOf[elements[position]] = newBlock;
+                    }
+
+                    // If the old block is still a splitter, both halves must be; otherwise the smaller half suffices
+                    int added = newBlock;
+                    if (!inWorklist[block] && blockEnd[block] - blockStart[block] < marked) {
+                        added = block;
+                    }
+                    worklist[worklistSize++] = added;
+                    inWorklist[added] = true;
+                }
+            }
+        }
+
+        // Number the blocks densely, the block of the sink becomes the dead block
+        int[] blockIds = new int[blockCount];
+        Arrays.fill(blockIds, -2);
+        blockIds[blockOf[sink]] = DEAD_BLOCK;
+        int[] result = new int[stateCount];
+        int nextId = 0;
+        for (int state = 0; state < stateCount; state++) {
+            int block = blockOf[state];
+            if (blockIds[block] == -2) {
+                blockIds[block] = nextId++;
+            }
+            result[state] = blockIds[block];
+        }
+        return result;
+    }
+
+    private static int target(int[] transitions, int state, int symbol, int symbolCount, int sink) {
+        if (state == sink) {
+            return sink;
+        }
+        int target = transitions[state * symbolCount + symbol];
+        return target < 0 ? sink : target;
+    }
+
+    /**
+     * Fills the partition arrays with the initial blocks. The sink joins the states with label {@code 0}.
+     *
+     * @return The number of initial blocks.
+     */
+    private static int initializePartition(int[] initialBlocks, int sink, int[] elements, int[] location,
+                                           int[] blockOf, int[] blockStart, int[] blockEnd) {
+        int[] labels = Arrays.copyOf(initialBlocks, sink + 1);
+        labels[sink] = 0;
+        int[] distinct = Arrays.stream(labels).distinct().sorted().toArray();
+
+        int[] sizes = new int[distinct.length];
+        for (int state = 0; state <= sink; state++) {
+            blockOf[state] = Arrays.binarySearch(distinct, labels[state]);
+            sizes[blockOf[state]]++;
+        }
+        int start = 0;
+        for (int b = 0; b < distinct.length; b++) {
+            blockStart[b] = start;
+            blockEnd[b] = start;
+            start += sizes[b];
+        }
+        for (int state = 0; state <= sink; state++) {
+            int block = blockOf[state];
+            elements[blockEnd[block]] = state;
+            location[state] = blockEnd[block]++;
+        }
+        return distinct.length;
+    }
+
+    /**
+     * Builds the minimized FSM from the computed blocks. Every block is represented by one state
+     * whose name combines the names of the merged states.
+     *
+     * @param indexedFsm The indexed view of the original FSM.
+     * @param blocks The block id of every state, or {@link #DEAD_BLOCK}.
+     * @param transitions The transition table of the original FSM.
+     * @param expression The expression of the original FSM.
+     * @return The minimized FSM.
+     */
+    private static FSMStructure buildMinimizedFsm(IndexedFSM indexedFsm, int[] blocks, int[] transitions, String expression) {
+        FSMStructure minimizedFsm = new FSMStructure();
+        minimizedFsm.setExpression(expression);
+        minimizedFsm.setExplanation("Reducing the number of states by merging equivalent ones (Hopcroft's algorithm).");
+
+        int stateCount = indexedFsm.getStateCount();
+        int symbolCount = indexedFsm.getAlphabet().size();
+        int blockCount = Arrays.stream(blocks).max().orElse(-1) + 1;
+
+        // Create a representative state for each block
+        List<Set<State>> members = new ArrayList<>(blockCount);
+        int[] firstMember = new int[blockCount];
+        for (int b = 0; b < blockCount; b++) {
+            members.add(new LinkedHashSet<>());
+        }
+        for (int state = stateCount - 1; state >= 0; state--) {
+            if (blocks[state] != DEAD_BLOCK) {
+                firstMember[blocks[state]] = state;
+            }
+        }
+        for (int state = 0; state < stateCount; state++) {
+            if (blocks[state] != DEAD_BLOCK) {
+                members.get(blocks[state]).add(indexedFsm.getState(state));
+            }
+        }
+        State[] representatives = new State[blockCount];
+        for (int b = 0; b < blockCount; b++) {
+            representatives[b] = State.fuseState(members.get(b));
+            minimizedFsm.addState(representatives[b]);
+        }
+
+        // Add transitions between the representatives
+        for (int b = 0; b < blockCount; b++) {
+            int state = firstMember[b];
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                int target = transitions[state * symbolCount + symbol];
+                if (target >= 0 && blocks[target] != DEAD_BLOCK) {
+                    String inputSymbol = String.valueOf(indexedFsm.getAlphabet().getSymbol(symbol));
+                    minimizedFsm.addTransition(representatives[b], Collections.singleton(inputSymbol), representatives[blocks[target]]);
+                }
+            }
+        }
+        return minimizedFsm;
+    }
+}
@@ -12,6 +12,34 @@ import java.util.*;
  */
 public class FSMMinimizer {
 
+    /**
+     * Enumerates the available minimization algorithms.
+     */
+    public enum Algorithm {
+        /**
+         * Moore-style rounds that refine all partitions at once. Used for the step-by-step presentation.
+         */
+        MOORE,
+        /**
+         * Hopcroft's partition refinement on int state ids, suited for large automata.
+         */
+        HOPCROFT
+    }
+
+    /**
+     * Minimizes a deterministic finite state machine (FSM) with the selected algorithm.
+     *
+     * @param fsm The FSM to be minimized.
+     * @param algorithm The minimization algorithm to use.
+     * @return A new minimized FSM with the same language but fewer states.
+     */
+    public static FSMStructure minimize(FSMStructure fsm, Algorithm algorithm) {
+        if (algorithm == Algorithm.HOPCROFT) {
+            return FSMHopcroftMinimizer.minimize(fsm);
+        }
+        return minimize(fsm);
+    }
+
     /**
      * Minimizes a deterministic finite state machine (FSM) by reducing the number of states.
      * The algorithm merges states that are equivalent, meaning they have the same behavior
@@ -1,5 +1,6 @@
 package geje1017.logic.finiteStateMachine.FSMOperator;
 
+import geje1017.logic.finiteStateMachine.CompilationContext;
 import geje1017.logic.finiteStateMachine.FSMStructure;
 import geje1017.logic.finiteStateMachine.State;
 
@@ -17,15 +18,16 @@ public class FSMSimplifier {
      * while preserving the structure and transitions of the original automaton.
      *
      * @param fsm The FSM to be simplified.
+     * @param context The compilation context that allocates the new state identifiers.
      * @return A new FSM structure with simplified state names.
      */
-    public static FSMStructure simplify(FSMStructure fsm) {
+    public static FSMStructure simplify(FSMStructure fsm, CompilationContext context) {
 
         FSMStructure simplifiedFSM = copyFsm(fsm);
         simplifiedFSM.setExplanation("Renaming states to make the automaton more readable.\n");
 
         for (State currstate : simplifiedFSM.getStates()) {
-            currstate.simplifyName();
+            currstate.simplifyName(context);
         }
         return simplifiedFSM;
     }
@@ -0,0 +1,290 @@
+package geje1017.logic.finiteStateMachine.FSMOperator;
+
+import geje1017.logic.finiteStateMachine.IndexedFSM;
+
+import java.util.Arrays;
+
+/**
+ * Performs the subset construction on the dense view of a non-deterministic finite automaton (NFA).
+ * Sets of NFA states are stored as {@code long[]} bitsets in one shared pool and are found again through
+ * an open-addressing hash table, so that no collections or boxed values are created per subset.
+ * If the NFA contains ε-transitions, every subset is closed over them before it is looked up.
+ * The result is a transition table over subset ids; turning the subsets into {@code State} objects
+ * is left to the caller.
+ */
+public class FSMSubsetConstructor {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Runs the subset construction starting from the set of start states of the NFA.
+     *
+     * @param nfa The indexed NFA.
+     * @return The reachable subsets and the transitions between them. Subset {@code 0} is the start subset.
+     */
+    public static Result construct(IndexedFSM nfa) {
+        return new Builder(nfa, Integer.MAX_VALUE).run();
+    }
+
+    /**
+     * Runs the subset construction, but gives up as soon as more than the given number of subsets is reached.
+     * This bounds the cost of NFAs whose DFA grows exponentially.
+     *
+     * @param nfa The indexed NFA.
+     * @param maxSubsets The maximum number of subsets.
+     * @return The reachable subsets and the transitions between them, or {@code null} if there are more than
+     * {@code maxSubsets} subsets.
+     */
+    public static Result construct(IndexedFSM nfa, int maxSubsets) {
+        return new Builder(nfa, maxSubsets).run();
+    }
+
+    /**
+     * Holds the result of the subset construction: the deterministic transition table over subset ids
+     * and the NFA states contained in every subset.
+     */
+    public static class Result {
+        private final IndexedFSM nfa;
+        private final int subsetCount;
+        private final int words;
+        private final long[] subsets;
+        private final int[] transitions;
+
+        private Result(IndexedFSM nfa, int subsetCount, int words, long[] subsets, int[] transitions) {
+            this.nfa = nfa;
+            this.subsetCount = subsetCount;
+            this.words = words;
+            this.subsets = subsets;
+            this.transitions = transitions;
+        }
+
+        /**
+         * Returns the NFA states of a subset in ascending order.
+         *
+         * @param subset The id of the subset.
+         * @return The ids of the contained NFA states.
+         */
+        public int[] getMembers(int subset) {
+            int offset = subset * words;
+            int count = 0;
+            for (int w = 0; w < words; w++) {
+                count += Long.bitCount(subsets[offset + w]);
+            }
+            int[] members = new int[count];
+            int index = 0;
+            for (int w = 0; w < words; w++) {
+                long word = subsets[offset + w];
+                while (word != 0) {
+                    members[index++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            return members;
+        }
+
+        /**
+         * Checks whether a subset contains at least one final state of the NFA.
+         *
+         * @param subset The id of the subset.
+         * @return {@code true} if the subset is accepting, otherwise {@code false}.
+         */
+        public boolean isFinal(int subset) {
+            int offset = subset * words;
+            for (int w = 0; w < words; w++) {
+                long word = subsets[offset + w];
+                while (word != 0) {
+                    if (nfa.isFinalState((w << 6) + Long.numberOfTrailingZeros(word))) {
+                        return true;
+                    }
+                    word &= word - 1;
+                }
+            }
+            return false;
+        }
+
+        // Getter and setter methods
+
+        public IndexedFSM getNfa() {
+            return nfa;
+        }
+
+        public int getSubsetCount() {
+            return subsetCount;
+        }
+
+        /**
+         * Returns the transition table over subset ids, indexed by {@code subset * symbolCount + symbol}
+         * and containing {@code -1} where the subset has no successor.
+         *
+         * @return The transition table. The array must not be modified.
+         */
+        public int[] getTransitions() {
+            return transitions;
+        }
+    }
+
+    /**
+     * Holds the working state of one subset construction.
+     */
+    private static class Builder {
+        private final IndexedFSM nfa;
+        private final int maxSubsets;
+        private final int symbolCount;
+        private final int words;
+        private final boolean hasEpsilonTransitions;
+        private final int[] closureStack;
+
+        private long[] pool;
+        private int[] hashes;
+        private int count;
+        private int[] table;
+        private int[] transitions;
+
+        Builder(IndexedFSM nfa, int maxSubsets) {
+            this.nfa = nfa;
+            this.maxSubsets = maxSubsets;
+            this.symbolCount = nfa.getAlphabet().size();
+            this.words = Math.max(1, (nfa.getStateCount() + 63) >>> 6);
+            this.hasEpsilonTransitions = nfa.hasEpsilonTransitions();
+            this.closureStack = hasEpsilonTransitions ? new int[nfa.getStateCount()] : null;
+            this.pool = new long[INITIAL_CAPACITY * words];
+            this.hashes = new int[INITIAL_CAPACITY];
+            this.table = new int[INITIAL_CAPACITY * 2];
+            this.transitions = new int[INITIAL_CAPACITY * symbolCount];
+        }
+
+        Result run() {
+            int[] startStates = nfa.getStartStates();
+            if (startStates.length == 0) {
+                throw new IllegalArgumentException("The FSM has no start state.");
+            }
+            long[] scratch = new long[symbolCount * words];
+            long[] startSet = new long[words];
+            for (int state : startStates) {
+                startSet[state >>> 6] |= 1L << state;
+            }
+            closeOverEpsilon(startSet, 0);
+            addSubset(startSet, 0);
+
+            for (int current = 0; current < count; current++) {
+                // Collect the successors of all members for every symbol at once
+                int offset = current * words;
+                for (int w = 0; w < words; w++) {
+                    long word = pool[offset + w];
+                    while (word != 0) {
+                        int state = (w << 6) + Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                        for (int symbol = 0; symbol < symbolCount; symbol++) {
+                            for (int target : nfa.getTargets(state, symbol)) {
+                                scratch[symbol * words + (target >>> 6)] |= 1L << target;
+                            }
+                        }
+                    }
+                }
+
+                for (int symbol = 0; symbol < symbolCount; symbol++) {
+                    int scratchOffset = symbol * words;
+                    closeOverEpsilon(scratch, scratchOffset);
+                    int target = isEmpty(scratch, scratchOffset) ? -1 : findOrAdd(scratch, scratchOffset);
+                    transitions[current * symbolCount + symbol] = target;
+                    Arrays.fill(scratch, scratchOffset, scratchOffset + words, 0L);
+                }
+                if (count > maxSubsets) {
+                    return null;
+                }
+            }
+
+            return new Result(nfa, count, words, Arrays.copyOf(pool, count * words),
+                    Arrays.copyOf(transitions, count * symbolCount));
+        }
+
+        /**
+         * Adds all states that are reachable from the set via ε-transitions to the set.
+         */
+        private void closeOverEpsilon(long[] set, int offset) {
+            if (!hasEpsilonTransitions) {
+                return;
+            }
+            int size = 0;
+            for (int w = 0; w < words; w++) {
+                long word = set[offset + w];
+                while (word != 0) {
+                    closureStack[size++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            while (size > 0) {
+                for (int target : nfa.getEpsilonTargets(closureStack[--size])) {
+                    long bit = 1L << target;
+                    if ((set[offset + (target >>> 6)] & bit) == 0) {
+                        set[offset + (target >>> 6)] |= bit;
+                        closureStack[size++] = target;
+                    }
+                }
+            }
+        }
+
+        private boolean isEmpty(long[] set, int offset) {
+            for (int w = 0; w < words; w++) {
+                if (set[offset + w] != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int findOrAdd(long[] set, int offset) {
+            int hash = hash(set, offset);
+            int mask = table.length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int entry = table[slot];
+                if (entry == 0) {
+                    return addSubset(set, offset);
+                }
+                int subset = entry - 1;
+                if (hashes[subset] == hash && Arrays.equals(pool, subset * words, subset * words + words, set, offset, offset + words)) {
+                    return subset;
+                }
+            }
+        }
+
+        private int addSubset(long[] set, int offset) {
+            if (count == hashes.length) {
+                grow();
+            }
+            int subset = count++;
+            System.arraycopy(set, offset, pool, subset * words, words);
+            hashes[subset] = hash(set, offset);
+            insert(subset);
+            return subset;
+        }
+
+        private void insert(int subset) {
+            int mask = table.length - 1;
+            int slot = hashes[subset] & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = subset + 1;
+        }
+
+        private void grow() {
+            int capacity = hashes.length * 2;
+            pool = Arrays.copyOf(pool, capacity * words);
+            hashes = Arrays.copyOf(hashes, capacity);
+            transitions = Arrays.copyOf(transitions, capacity * symbolCount);
+            table = new int[capacity * 2];
+            for (int subset = 0; subset < count; subset++) {
+                insert(subset);
+            }
+        }
+
+        private int hash(long[] set, int offset) {
+            long hash = 1;
+            for (int w = 0; w < words; w++) {
+                hash = hash * 0x9E3779B97F4A7C15L + set[offset + w];
+            }
+            return (int) (hash ^ (hash >>> 29) ^ (hash >>> 43));
+        }
+    }
+}
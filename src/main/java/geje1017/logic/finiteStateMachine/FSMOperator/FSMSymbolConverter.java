@@ -1,5 +1,6 @@
 package geje1017.logic.finiteStateMachine.FSMOperator;
 
+import geje1017.logic.finiteStateMachine.CompilationContext;
 import geje1017.logic.finiteStateMachine.FSMStructure;
 import geje1017.logic.finiteStateMachine.State;
 import geje1017.logic.postfix.InputManager;
@@ -18,10 +19,11 @@ public class FSMSymbolConverter{
          * If the input symbol is a valid operand, it creates an FSM that represents the symbol.
          *
          * @param inputSymbol The input symbol to be converted.
+         * @param context The compilation context that allocates the state identifiers.
          * @return A new FSM representing the input symbol.
          * @throws IllegalArgumentException If the input symbol is not a valid operand.
          */
-        public static FSMStructure convertInputCharacter(char inputSymbol) {
+        public static FSMStructure convertInputCharacter(char inputSymbol, CompilationContext context) {
             FSMStructure convertedFSM = new FSMStructure();
 
             // Validate the input symbol using InputManager
@@ -30,14 +32,14 @@ public class FSMSymbolConverter{
             }
             // Handle special cases for empty string and empty set
             if (inputSymbol == InputManager.getEmptySymbol()) {
-                convertEmptyString(convertedFSM);
+                convertEmptyString(convertedFSM, context);
             }
             else if (inputSymbol == InputManager.getEmptySet()) {
-                convertEmptySet(convertedFSM);
+                convertEmptySet(convertedFSM, context);
             }
             // Handle regular input symbols
             else {
-                convertRegularSymbol(convertedFSM, inputSymbol);
+                convertRegularSymbol(convertedFSM, inputSymbol, context);
             }
             return convertedFSM;
         }
@@ -47,9 +49,10 @@ public class FSMSymbolConverter{
      * In this case, the FSM consists of a single state that is both a start state and a final state.
      *
      * @param fsm The FSM to be modified.
+     * @param context The compilation context that allocates the state identifiers.
      */
-    protected static void convertEmptyString(FSMStructure fsm) {
-        State startEndState = new State(true, true);
+    protected static void convertEmptyString(FSMStructure fsm, CompilationContext context) {
+        State startEndState = new State(context, true, true);
         fsm.addState(startEndState);
         fsm.setExpression(fsm.getExpression().isEmpty() ? String.valueOf(InputManager.getEmptySymbol()) : fsm.getExpression());
     }
@@ -59,9 +62,10 @@ public class FSMSymbolConverter{
      * The FSM will consist of a start state with no transitions to any other states.
      *
      * @param fsm The FSM to be modified.
+     * @param context The compilation context that allocates the state identifiers.
      */
-    private static void convertEmptySet(FSMStructure fsm) {
-        State startState = new State(true, false);
+    private static void convertEmptySet(FSMStructure fsm, CompilationContext context) {
+        State startState = new State(context, true, false);
         fsm.addState(startState);
         fsm.setExpression(fsm.getExpression().isEmpty() ? String.valueOf(InputManager.getEmptySet()) : fsm.getExpression());
     }
@@ -72,10 +76,11 @@ public class FSMSymbolConverter{
      *
      * @param fsm The FSM to be modified.
      * @param inputSymbol The input symbol that the FSM should recognize.
+     * @param context The compilation context that allocates the state identifiers.
      */
-    private static void convertRegularSymbol(FSMStructure fsm, char inputSymbol) {
-        State startState = new State(true, false);
-        State finalState = new State(false, true);
+    private static void convertRegularSymbol(FSMStructure fsm, char inputSymbol, CompilationContext context) {
+        State startState = new State(context, true, false);
+        State finalState = new State(context, false, true);
         fsm.addTransition(startState, new HashSet<>(Collections.singletonList(String.valueOf(inputSymbol))), finalState);
         fsm.setExpression(String.valueOf(inputSymbol));
     }
@@ -112,13 +112,15 @@ public class FSMStructure {
 
 
     /**
-     * Adds all transitions from another FSM to this FSM.
+     * Adds all states and transitions from another FSM to this FSM.
      * Transitions are added from the provided transition map to this FSM's transitions.
+     * States without any transitions are added as well.
      *
      * @param transitionsToAdd A map of transitions to add to this FSM.
      */
     public void addAllTransitions(Map<State, Map<State, Set<String>>> transitionsToAdd) {
         transitionsToAdd.forEach((sourceState, transitionMap) -> {
+            addState(sourceState);
             transitionMap.forEach((targetState, inputSymbol) -> {
                 addTransition(sourceState, inputSymbol, targetState);
             });
@@ -0,0 +1,214 @@
+package geje1017.logic.finiteStateMachine;
+
+import java.util.*;
+
+/**
+ * Provides a dense, index-based view of a finite state machine (FSM).
+ * States are numbered from {@code 0} to {@code n - 1} and input symbols are numbered by their position
+ * in the {@link Alphabet}, so that algorithms can work on int arrays instead of walking the
+ * {@link State} objects and symbol strings of an {@link FSMStructure}.
+ */
+public class IndexedFSM {
+
+    private static final int[] NO_TARGETS = new int[0];
+
+    private final State[] states;
+    private final Alphabet alphabet;
+    // Sorted target state ids, indexed by state * alphabet.size() + symbol
+    private final int[][] targets;
+    private final int[] startStates;
+    private final boolean[] finalStates;
+    // Targets of the ε-transitions per state, or null if the FSM has none
+    private final int[][] epsilonTargets;
+
+    private IndexedFSM(State[] states, Alphabet alphabet, int[][] targets, int[] startStates, boolean[] finalStates,
+                       int[][] epsilonTargets) {
+        this.states = states;
+        this.alphabet = alphabet;
+        this.targets = targets;
+        this.startStates = startStates;
+        this.finalStates = finalStates;
+        this.epsilonTargets = epsilonTargets;
+    }
+
+    /**
+     * Constructs an indexed FSM directly from its tables, without {@link State} objects.
+     * Such an FSM may contain ε-transitions, which the subset construction follows automatically.
+     * The arrays are taken over without copying and must not be modified afterwards.
+     *
+     * @param alphabet The input alphabet.
+     * @param targets The sorted target state ids, indexed by {@code state * alphabet.size() + symbol}.
+     * @param epsilonTargets The targets of the ε-transitions per state, or {@code null} if there are none.
+     * @param startStates The ids of the start states.
+     * @param finalStates The final flag of each state.
+     * @throws IllegalArgumentException If the table sizes do not fit together.
+     */
+    public IndexedFSM(Alphabet alphabet, int[][] targets, int[][] epsilonTargets, int[] startStates, boolean[] finalStates) {
+        this(null, alphabet, targets, startStates, finalStates, epsilonTargets);
+        if (targets.length != finalStates.length * alphabet.size()
+                || (epsilonTargets != null && epsilonTargets.length != finalStates.length)) {
+            throw new IllegalArgumentException("The transition table does not match the number of states and symbols.");
+        }
+    }
+
+    /**
+     * Creates the indexed view of an FSM. States are numbered in the iteration order of the FSM.
+     *
+     * @param fsm The FSM to index.
+     * @return The indexed view of the FSM.
+     * @throws IllegalArgumentException If a transition symbol is not exactly one character long.
+     */
+    public static IndexedFSM of(FSMStructure fsm) {
+        Map<State, Map<State, Set<String>>> transitions = fsm.getTransitions();
+
+        // Number the states and collect the alphabet.
+        // The entries are iterated instead of looked up, because state names may change after insertion.
+        State[] states = new State[transitions.size()];
+        List<Map<State, Set<String>>> outgoing = new ArrayList<>(transitions.size());
+        Map<State, Integer> ids = new HashMap<>();
+        StringBuilder symbols = new StringBuilder();
+        for (Map.Entry<State, Map<State, Set<String>>> entry : transitions.entrySet()) {
+            states[ids.size()] = entry.getKey();
+            outgoing.add(entry.getValue());
+            ids.put(entry.getKey(), ids.size());
+            for (Set<String> symbolSet : entry.getValue().values()) {
+                for (String symbol : symbolSet) {
+                    if (symbol.length() != 1) {
+                        throw new IllegalArgumentException("Invalid transition symbol: " + symbol);
+                    }
+                    symbols.append(symbol.charAt(0));
+                }
+            }
+        }
+        Alphabet alphabet = new Alphabet(symbols.toString().toCharArray());
+        int symbolCount = alphabet.size();
+
+        // Collect the targets per state and symbol
+        int[][] targets = new int[states.length * symbolCount][];
+        int[] targetCounts = new int[targets.length];
+        for (int source = 0; source < states.length; source++) {
+            for (Map.Entry<State, Set<String>> entry : outgoing.get(source).entrySet()) {
+                int target = ids.get(entry.getKey());
+                for (String symbol : entry.getValue()) {
+                    int cell = source * symbolCount + alphabet.indexOf(symbol.charAt(0));
+                    if (targets[cell] == null) {
+                        targets[cell] = new int[1];
+                    } else if (targetCounts[cell] == targets[cell].length) {
+                        targets[cell] = Arrays.copyOf(targets[cell], targetCounts[cell] * 2);
+                    }
+                    targets[cell][targetCounts[cell]++] = target;
+                }
+            }
+        }
+        for (int cell = 0; cell < targets.length; cell++) {
+            targets[cell] = targets[cell] == null ? NO_TARGETS : sortedDistinct(targets[cell], targetCounts[cell]);
+        }
+
+        int[] startStates = new int[states.length];
+        int startCount = 0;
+        boolean[] finalStates = new boolean[states.length];
+        for (int i = 0; i < states.length; i++) {
+            if (states[i].isStartState()) {
+                startStates[startCount++] = i;
+            }
+            finalStates[i] = states[i].isFinalState();
+        }
+
+        return new IndexedFSM(states, alphabet, targets, Arrays.copyOf(startStates, startCount), finalStates, null);
+    }
+
+    private static int[] sortedDistinct(int[] values, int length) {
+        int[] result = Arrays.copyOf(values, length);
+        Arrays.sort(result);
+        int distinct = 0;
+        for (int i = 0; i < result.length; i++) {
+            if (i == 0 || result[i] != result[i - 1]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return distinct == result.length ? result : Arrays.copyOf(result, distinct);
+    }
+
+    /**
+     * Checks whether the FSM is deterministic, meaning it has exactly one start state, no ε-transitions
+     * and at most one target state per state and input symbol.
+     *
+     * @return {@code true} if the FSM is deterministic, otherwise {@code false}.
+     */
+    public boolean isDeterministic() {
+        if (startStates.length != 1 || hasEpsilonTransitions()) {
+            return false;
+        }
+        for (int[] cellTargets : targets) {
+            if (cellTargets.length > 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the FSM contains at least one ε-transition.
+     *
+     * @return {@code true} if there is an ε-transition, otherwise {@code false}.
+     */
+    public boolean hasEpsilonTransitions() {
+        if (epsilonTargets != null) {
+            for (int[] stateTargets : epsilonTargets) {
+                if (stateTargets.length > 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Getter and setter methods
+
+    public int getStateCount() {
+        return finalStates.length;
+    }
+
+    /**
+     * Returns the state object of an id.
+     *
+     * @param id The id of the state.
+     * @return The state, or {@code null} if the FSM was not created from an {@link FSMStructure}.
+     */
+    public State getState(int id) {
+        return states == null ? null : states[id];
+    }
+
+    public Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    /**
+     * Returns the target states of a transition. The returned array must not be modified.
+     *
+     * @param state The id of the source state.
+     * @param symbol The index of the input symbol.
+     * @return The sorted ids of the target states, or an empty array if there is no transition.
+     */
+    public int[] getTargets(int state, int symbol) {
+        return targets[state * alphabet.size() + symbol];
+    }
+
+    /**
+     * Returns the targets of the ε-transitions of a state. The returned array must not be modified.
+     *
+     * @param state The id of the source state.
+     * @return The ids of the target states, or an empty array if there is no ε-transition.
+     */
+    public int[] getEpsilonTargets(int state) {
+        return epsilonTargets == null || epsilonTargets[state] == null ? NO_TARGETS : epsilonTargets[state];
+    }
+
+    public int[] getStartStates() {
+        return startStates.clone();
+    }
+
+    public boolean isFinalState(int id) {
+        return finalStates[id];
+    }
+}
@@ -10,21 +10,23 @@ import java.util.stream.Collectors;
  */
 public class State {
 
-    private static int uniqueName = 0;
     private List<Integer> numbers;
+    // Cached result of toString(), which is used heavily when states are ordered in an FSM
+    private String name;
 
     public boolean isFinalState;
     private boolean isStartState;
     private boolean isNew;
 
     /**
-     * Constructs a new state with a unique identifier.
+     * Constructs a new state with an identifier that is unique within the given compilation.
      *
+     * @param context The compilation context that allocates the identifier.
      * @param isStartState Indicates if this is a start state.
      * @param isFinalState Indicates if this is a final state.
      */
-    public State(boolean isStartState, boolean isFinalState) {
-        this.numbers = new ArrayList<>(Collections.singletonList(uniqueName++));
+    public State(CompilationContext context, boolean isStartState, boolean isFinalState) {
+        this.numbers = new ArrayList<>(Collections.singletonList(context.allocateStateId()));
         this.isStartState = isStartState;
         this.isFinalState = isFinalState;
         this.isNew = false;
@@ -87,6 +89,31 @@ public class State {
         return fusedState;
     }
 
+    /**
+     * Creates a fused state from the already combined identifiers of several states.
+     * The identifiers are sorted and duplicates are removed.
+     *
+     * @param numbers The identifiers of the fused states.
+     * @param isStartState Indicates if this is a start state.
+     * @param isFinalState Indicates if this is a final state.
+     * @return A new state marked as new.
+     */
+    public static State fuseNumbers(int[] numbers, boolean isStartState, boolean isFinalState) {
+        int[] sorted = numbers.clone();
+        Arrays.sort(sorted);
+
+        List<Integer> fusedNameNumbers = new ArrayList<>(sorted.length);
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                fusedNameNumbers.add(sorted[i]);
+            }
+        }
+
+        State fusedState = new State(fusedNameNumbers, isStartState, isFinalState);
+        fusedState.isNew = true;
+        return fusedState;
+    }
+
     /**
      * Fuses the current state with another state by combining their identifiers.
      *
@@ -94,6 +121,7 @@ public class State {
      */
     public void fuseStateName(State stateToFuseWith) {
         this.numbers.addAll(stateToFuseWith.getNumbers());
+        this.name = null;
         this.isNew = true;
     }
 
@@ -127,13 +155,15 @@ public class State {
         isFinalState = false;
     }
 
-    public static void resetUniqueName() {
-        uniqueName = 0;
-    }
-
-    public void simplifyName() {
+    /**
+     * Replaces a fused name by a new single identifier.
+     *
+     * @param context The compilation context that allocates the identifier.
+     */
+    public void simplifyName(CompilationContext context) {
         if (numbers.size() > 1) {
-            numbers = new ArrayList<>(Collections.singletonList(uniqueName++));
+            numbers = new ArrayList<>(Collections.singletonList(context.allocateStateId()));
+            this.name = null;
             this.isNew = true;
         }
     }
@@ -155,9 +185,12 @@ public class State {
 
     @Override
     public String toString() {
-        return numbers.stream()
-                .sorted()
-                .map(number -> "s" + number)
-                .collect(Collectors.joining(""));
+        if (name == null) {
+            name = numbers.stream()
+                    .sorted()
+                    .map(number -> "s" + number)
+                    .collect(Collectors.joining(""));
+        }
+        return name;
     }
 }
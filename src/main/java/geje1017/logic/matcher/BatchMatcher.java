@@ -0,0 +1,201 @@
+package geje1017.logic.matcher;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Matches large batches of short inputs, e.g. the values of a CSV column, against one DFA. The inputs are given
+ * either as a list or packed into one {@code char[]} with an array of offsets, and the results are returned as a
+ * {@link BitSet} in which bit i is set if input i is accepted.
+ * <p>
+ * The batch is split recursively on a {@link ForkJoinPool} into ranges of at most {@link #LEAF_SIZE} inputs.
+ * Ranges start at multiples of 64, so every range writes its results into its own words of the result bits
+ * and no synchronization is needed. Every input is matched by the loops of the {@link CompiledFSM} itself, which
+ * allocate nothing per input. The sequential methods match the same way on the calling thread and serve as the
+ * baseline for the parallel ones.
+ * A matcher is immutable and can match several batches concurrently.
+ */
+public final class BatchMatcher {
+
+    /**
+     * The maximum number of inputs a single task matches.
+     */
+    public static final int LEAF_SIZE = 4096;
+
+    private final CompiledFSM fsm;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a matcher that runs on the common fork-join pool.
+     *
+     * @param fsm The DFA the inputs are matched against.
+     */
+    public BatchMatcher(CompiledFSM fsm) {
+        this(fsm, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a matcher.
+     *
+     * @param fsm The DFA the inputs are matched against.
+     * @param pool The pool the batches are matched on.
+     */
+    public BatchMatcher(CompiledFSM fsm, ForkJoinPool pool) {
+        this.fsm = fsm;
+        this.pool = pool;
+    }
+
+    /**
+     * Matches a list of inputs in parallel.
+     *
+     * @param inputs The inputs to match; the list should allow fast random access.
+     * @return The bits of the accepted inputs.
+     */
+    public BitSet matchAll(List<? extends CharSequence> inputs) {
+        long[] words = new long[(inputs.size() + 63) >>> 6];
+        pool.invoke(new ListTask(inputs, words, 0, inputs.size()));
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Matches a list of inputs on the calling thread.
+     *
+     * @param inputs The inputs to match.
+     * @return The bits of the accepted inputs.
+     */
+    public BitSet matchAllSequential(List<? extends CharSequence> inputs) {
+        long[] words = new long[(inputs.size() + 63) >>> 6];
+        matchRange(inputs, words, 0, inputs.size());
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Matches packed inputs in parallel. Input i consists of the characters from {@code offsets[i]} (inclusive)
+     * to {@code offsets[i + 1]} (exclusive) of the data.
+     *
+     * @param data The characters of all inputs.
+     * @param offsets The start of every input followed by the end of the last one.
+     * @return The bits of the accepted inputs.
+     * @throws IllegalArgumentException If the offsets are empty, decreasing or outside the data.
+     */
+    public BitSet matchAll(char[] data, int[] offsets) {
+        checkOffsets(data, offsets);
+        int count = offsets.length - 1;
+        long[] words = new long[(count + 63) >>> 6];
+        pool.invoke(new PackedTask(data, offsets, words, 0, count));
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Matches packed inputs on the calling thread.
+     *
+     * @param data The characters of all inputs.
+     * @param offsets The start of every input followed by the end of the last one.
+     * @return The bits of the accepted inputs.
+     * @throws IllegalArgumentException If the offsets are empty, decreasing or outside the data.
+     */
+    public BitSet matchAllSequential(char[] data, int[] offsets) {
+        checkOffsets(data, offsets);
+        int count = offsets.length - 1;
+        long[] words = new long[(count + 63) >>> 6];
+        matchRange(data, offsets, words, 0, count);
+        return BitSet.valueOf(words);
+    }
+
+    private static void checkOffsets(char[] data, int[] offsets) {
+        if (offsets.length == 0) {
+            throw new IllegalArgumentException("The offsets must contain at least the end of the data.");
+        }
+        if (offsets[0] < 0 || offsets[offsets.length - 1] > data.length) {
+            throw new IllegalArgumentException("The offsets are outside the data.");
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            if (offsets[i] < offsets[i - 1]) {
+                throw new IllegalArgumentException("The offsets decrease at index " + i + ".");
+            }
+        }
+    }
+
+    private void matchRange(List<? extends CharSequence> inputs, long[] words, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (fsm.matches(inputs.get(i))) {
+                words[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    private void matchRange(char[] data, int[] offsets, long[] words, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (fsm.matches(data, offsets[i], offsets[i + 1])) {
+                words[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * Splits a range into two halves at a multiple of 64.
+     *
+     * @return The start of the second half.
+     */
+    private static int splitPoint(int from, int to) {
+        return (from + (to - from) / 2) & ~63;
+    }
+
+    /**
+     * Matches a range of a list of inputs.
+     */
+    private class ListTask extends RecursiveAction {
+        private final List<? extends CharSequence> inputs;
+        private final long[] words;
+        private final int from;
+        private final int to;
+
+        ListTask(List<? extends CharSequence> inputs, long[] words, int from, int to) {
+            this.inputs = inputs;
+            this.words = words;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                matchRange(inputs, words, from, to);
+                return;
+            }
+            int middle = splitPoint(from, to);
+            invokeAll(new ListTask(inputs, words, from, middle), new ListTask(inputs, words, middle, to));
+        }
+    }
+
+    /**
+     * Matches a range of packed inputs.
+     */
+    private class PackedTask extends RecursiveAction {
+        private final char[] data;
+        private final int[] offsets;
+        private final long[] words;
+        private final int from;
+        private final int to;
+
+        PackedTask(char[] data, int[] offsets, long[] words, int from, int to) {
+            this.data = data;
+            this.offsets = offsets;
+            this.words = words;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                matchRange(data, offsets, words, from, to);
+                return;
+            }
+            int middle = splitPoint(from, to);
+            invokeAll(new PackedTask(data, offsets, words, from, middle), new PackedTask(data, offsets, words, middle, to));
+        }
+    }
+}
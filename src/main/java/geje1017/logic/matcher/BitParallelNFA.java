@@ -0,0 +1,290 @@
+package geje1017.logic.matcher;
+
+import geje1017.logic.compiler.ThompsonCompiler;
+import geje1017.logic.finiteStateMachine.Alphabet;
+import geje1017.logic.finiteStateMachine.FSMStructure;
+import geje1017.logic.finiteStateMachine.IndexedFSM;
+import geje1017.logic.parser.ExpressionRewriter;
+
+import java.util.Arrays;
+
+/**
+ * Simulates an NFA directly, without determinizing it, by keeping the set of active states as a bitset.
+ * Matching takes {@code O(n * (m + t))} steps for an input of length n and an NFA with m states and t transitions,
+ * no matter how large the equivalent DFA would be, and the simulation needs {@code O(m + t)} memory.
+ * <p>
+ * NFAs with up to 64 states keep their state set in a single {@code long}: for every symbol, the successors of
+ * every state are precomputed as a mask that is already closed over ε-transitions, together with a mask of the
+ * states that have a transition on the symbol at all, so reading a character ORs the masks of the active states.
+ * Larger NFAs keep the transitions and ε-transitions of every state as compressed lists and the state set as a
+ * {@code long[]} with one bit per state plus a list of the active states. Reading a character follows the
+ * transitions of the active states and adds the ε-closure of every target that is not yet in the next set, so
+ * every state and transition is visited at most once per character.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class BitParallelNFA implements RegexMatcher {
+
+    private final Alphabet alphabet;
+    private final int stateCount;
+    private final int words;
+    private final long[] startSet;
+    private final long[] finalSet;
+
+    // Single word: states with at least one transition per symbol, indexed by symbol
+    private final long[] sourceMasks;
+    // Single word: closed successor set per symbol and state, indexed by symbol * stateCount + state
+    private final long[] successorMasks;
+
+    // Multiple words: the closed start set as a list
+    private final int[] startStates;
+    // Multiple words: the transitions of state s are at transitionStart[s] until transitionStart[s + 1]
+    private final int[] transitionStart;
+    private final int[] transitionSymbols;
+    private final int[] transitionTargets;
+    // Multiple words: the ε-transitions of state s are at epsilonStart[s] until epsilonStart[s + 1]
+    private final int[] epsilonStart;
+    private final int[] epsilonTargets;
+
+    /**
+     * Constructs the simulation of an NFA.
+     *
+     * @param nfa The NFA; it may have several start states and ε-transitions.
+     */
+    public BitParallelNFA(IndexedFSM nfa) {
+        this.alphabet = nfa.getAlphabet();
+        this.stateCount = nfa.getStateCount();
+        this.words = Math.max(1, (stateCount + 63) >>> 6);
+        int symbolCount = alphabet.size();
+        this.finalSet = new long[words];
+        for (int state = 0; state < stateCount; state++) {
+            if (nfa.isFinalState(state)) {
+                finalSet[state >>> 6] |= 1L << state;
+            }
+        }
+        this.startSet = new long[words];
+
+        if (words == 1) {
+            long[] closures = computeClosures(nfa);
+            for (int state : nfa.getStartStates()) {
+                startSet[0] |= closures[state];
+            }
+            this.sourceMasks = new long[symbolCount];
+            this.successorMasks = new long[symbolCount * stateCount];
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                for (int state = 0; state < stateCount; state++) {
+                    int[] targets = nfa.getTargets(state, symbol);
+                    if (targets.length > 0) {
+                        sourceMasks[symbol] |= 1L << state;
+                        for (int target : targets) {
+                            successorMasks[symbol * stateCount + state] |= closures[target];
+                        }
+                    }
+                }
+            }
+            this.startStates = null;
+            this.transitionStart = null;
+            this.transitionSymbols = null;
+            this.transitionTargets = null;
+            this.epsilonStart = null;
+            this.epsilonTargets = null;
+            return;
+        }
+
+        this.sourceMasks = null;
+        this.successorMasks = null;
+        this.transitionStart = new int[stateCount + 1];
+        this.epsilonStart = new int[stateCount + 1];
+        for (int state = 0; state < stateCount; state++) {
+            int count = 0;
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                count += nfa.getTargets(state, symbol).length;
+            }
+            transitionStart[state + 1] = transitionStart[state] + count;
+            epsilonStart[state + 1] = epsilonStart[state] + nfa.getEpsilonTargets(state).length;
+        }
+        this.transitionSymbols = new int[transitionStart[stateCount]];
+        this.transitionTargets = new int[transitionStart[stateCount]];
+        this.epsilonTargets = new int[epsilonStart[stateCount]];
+        for (int state = 0; state < stateCount; state++) {
+            int index = transitionStart[state];
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                for (int target : nfa.getTargets(state, symbol)) {
+                    transitionSymbols[index] = symbol;
+                    transitionTargets[index++] = target;
+                }
+            }
+            int[] targets = nfa.getEpsilonTargets(state);
+            System.arraycopy(targets, 0, epsilonTargets, epsilonStart[state], targets.length);
+        }
+        int[] list = new int[stateCount];
+        int[] stack = new int[stateCount];
+        int count = 0;
+        for (int state : nfa.getStartStates()) {
+            count = addClosure(state, startSet, list, count, stack);
+        }
+        this.startStates = Arrays.copyOf(list, count);
+    }
+
+    /**
+     * Compiles an infix regular expression into its Thompson NFA and simulates it.
+     *
+     * @param expression The infix regular expression.
+     * @return The simulation of the NFA of the expression.
+     */
+    public static BitParallelNFA compile(String expression) {
+        return new BitParallelNFA(ThompsonCompiler.toNfa(ExpressionRewriter.toSimplifiedPostfix(expression)));
+    }
+
+    /**
+     * Simulates an FSM as it is, e.g. the output of an operator in {@code FSMOperator}, without determinizing it.
+     *
+     * @param fsm The FSM to simulate.
+     * @return The simulation of the FSM.
+     */
+    public static BitParallelNFA of(FSMStructure fsm) {
+        return new BitParallelNFA(IndexedFSM.of(fsm));
+    }
+
+    /**
+     * Computes the ε-closure of every single state of an NFA with at most 64 states.
+     */
+    private static long[] computeClosures(IndexedFSM nfa) {
+        int stateCount = nfa.getStateCount();
+        long[] closures = new long[stateCount];
+        int[] stack = new int[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            long closure = 1L << state;
+            int size = 0;
+            stack[size++] = state;
+            while (size > 0) {
+                for (int target : nfa.getEpsilonTargets(stack[--size])) {
+                    if ((closure & 1L << target) == 0) {
+                        closure |= 1L << target;
+                        stack[size++] = target;
+                    }
+                }
+            }
+            closures[state] = closure;
+        }
+        return closures;
+    }
+
+    /**
+     * Adds a state and its ε-closure to a state set, skipping the states that are already in it.
+     *
+     * @param state The state to add.
+     * @param set The bits of the state set.
+     * @param list The states of the state set.
+     * @param count The number of states in the list.
+     * @param stack The work stack with room for every state.
+     * @return The new number of states in the list.
+     */
+    private int addClosure(int state, long[] set, int[] list, int count, int[] stack) {
+        if ((set[state >>> 6] & 1L << state) != 0) {
+            return count;
+        }
+        set[state >>> 6] |= 1L << state;
+        int size = 0;
+        stack[size++] = state;
+        while (size > 0) {
+            int current = stack[--size];
+            list[count++] = current;
+            for (int i = epsilonStart[current], end = epsilonStart[current + 1]; i < end; i++) {
+                int target = epsilonTargets[i];
+                if ((set[target >>> 6] & 1L << target) == 0) {
+                    set[target >>> 6] |= 1L << target;
+                    stack[size++] = target;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether the entire input is accepted.
+     *
+     * @param input The input to check.
+     * @return {@code true} if the input is accepted, otherwise {@code false}.
+     */
+    @Override
+    public boolean matches(CharSequence input) {
+        return words == 1 ? matchesSingleWord(input) : matchesMultiWord(input);
+    }
+
+    private boolean matchesSingleWord(CharSequence input) {
+        long active = startSet[0];
+        for (int i = 0, length = input.length(); i < length; i++) {
+            int symbol = alphabet.indexOf(input.charAt(i));
+            if (symbol < 0) {
+                return false;
+            }
+            long sources = active & sourceMasks[symbol];
+            int offset = symbol * stateCount;
+            long next = 0;
+            while (sources != 0) {
+                next |= successorMasks[offset + Long.numberOfTrailingZeros(sources)];
+                sources &= sources - 1;
+            }
+            if (next == 0) {
+                return false;
+            }
+            active = next;
+        }
+        return (active & finalSet[0]) != 0;
+    }
+
+    private boolean matchesMultiWord(CharSequence input) {
+        long[] activeSet = startSet.clone();
+        int[] active = new int[stateCount];
+        System.arraycopy(startStates, 0, active, 0, startStates.length);
+        int activeCount = startStates.length;
+        long[] nextSet = new long[words];
+        int[] next = new int[stateCount];
+        int[] stack = new int[stateCount];
+        for (int i = 0, length = input.length(); i < length; i++) {
+            int symbol = alphabet.indexOf(input.charAt(i));
+            if (symbol < 0) {
+                return false;
+            }
+            int nextCount = 0;
+            for (int a = 0; a < activeCount; a++) {
+                int state = active[a];
+                for (int t = transitionStart[state], end = transitionStart[state + 1]; t < end; t++) {
+                    if (transitionSymbols[t] == symbol) {
+                        nextCount = addClosure(transitionTargets[t], nextSet, next, nextCount, stack);
+                    }
+                }
+            }
+            if (nextCount == 0) {
+                return false;
+            }
+            // Only the bits of the old active states are cleared, so a step never touches the whole set
+            for (int a = 0; a < activeCount; a++) {
+                activeSet[active[a] >>> 6] &= ~(1L << active[a]);
+            }
+            long[] swapSet = activeSet;
+            activeSet = nextSet;
+            nextSet = swapSet;
+            int[] swap = active;
+            active = next;
+            next = swap;
+            activeCount = nextCount;
+        }
+        for (int a = 0; a < activeCount; a++) {
+            if ((finalSet[active[a] >>> 6] & 1L << active[a]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Getter and setter methods
+
+    public Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    public int getStateCount() {
+        return stateCount;
+    }
+}
@@ -0,0 +1,138 @@
+package geje1017.logic.matcher;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Represents a compiled automaton that runs directly on UTF-8 encoded bytes, so that files can be matched
+ * without decoding them into characters first. Every transition of the character automaton on a symbol
+ * that is encoded with more than one byte is replaced by a chain of intermediate states, one per byte.
+ * The transition table has 256 columns, so one array lookup per byte is needed.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class ByteFSM {
+
+    private static final int COLUMNS = 256;
+
+    private final int startState;
+    // Target state per state and byte, indexed by state * 256 + (b & 0xFF)
+    private final int[] transitions;
+    private final boolean[] acceptingStates;
+
+    private ByteFSM(int startState, int[] transitions, boolean[] acceptingStates) {
+        this.startState = startState;
+        this.transitions = transitions;
+        this.acceptingStates = acceptingStates;
+    }
+
+    /**
+     * Converts a character automaton into an automaton over its UTF-8 encoding.
+     * The states of the character automaton keep their ids.
+     *
+     * @param fsm The character automaton.
+     * @return The byte automaton, which accepts the UTF-8 encodings of the accepted words.
+     */
+    public static ByteFSM of(CompiledFSM fsm) {
+        int stateCount = fsm.getStateCount();
+        int symbolCount = fsm.getAlphabet().size();
+        int[] transitions = new int[stateCount * COLUMNS];
+        Arrays.fill(transitions, CompiledFSM.DEAD_STATE);
+        int nextState = stateCount;
+
+        for (int state = 0; state < stateCount; state++) {
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                int target = fsm.getTransition(state, symbol);
+                if (target < 0) {
+                    continue;
+                }
+                byte[] encoded = String.valueOf(fsm.getAlphabet().getSymbol(symbol)).getBytes(StandardCharsets.UTF_8);
+                // All but the last byte lead through intermediate states, which are shared by common lead bytes
+                int current = state;
+                for (int i = 0; i < encoded.length - 1; i++) {
+                    int index = current * COLUMNS + (encoded[i] & 0xFF);
+                    if (transitions[index] < 0) {
+                        if (nextState * COLUMNS >= transitions.length) {
+                            int oldLength = transitions.length;
+                            transitions = Arrays.copyOf(transitions, Math.max(oldLength * 2, COLUMNS));
+                            Arrays.fill(transitions, oldLength, transitions.length, CompiledFSM.DEAD_STATE);
+                        }
+                        transitions[index] = nextState++;
+                    }
+                    current = transitions[index];
+                }
+                transitions[current * COLUMNS + (encoded[encoded.length - 1] & 0xFF)] = target;
+            }
+        }
+
+        boolean[] acceptingStates = new boolean[nextState];
+        for (int state = 0; state < stateCount; state++) {
+            acceptingStates[state] = fsm.isAccepting(state);
+        }
+        return new ByteFSM(fsm.getStartState(), Arrays.copyOf(transitions, nextState * COLUMNS), acceptingStates);
+    }
+
+    /**
+     * Checks whether the automaton accepts the bytes of a buffer between two indices.
+     * The run stops at the first byte without a transition. The position of the buffer is not changed.
+     *
+     * @param buffer The buffer containing the input.
+     * @param from The index of the first byte (inclusive).
+     * @param to The index after the last byte (exclusive).
+     * @return {@code true} if the bytes are accepted, otherwise {@code false}.
+     */
+    public boolean matches(ByteBuffer buffer, int from, int to) {
+        int state = startState;
+        for (int i = from; i < to; i++) {
+            state = transitions[state * COLUMNS + (buffer.get(i) & 0xFF)];
+            if (state < 0) {
+                return false;
+            }
+        }
+        return acceptingStates[state];
+    }
+
+    /**
+     * Checks whether the automaton accepts a slice of a byte array.
+     *
+     * @param input The array containing the input.
+     * @param from The index of the first byte (inclusive).
+     * @param to The index after the last byte (exclusive).
+     * @return {@code true} if the bytes are accepted, otherwise {@code false}.
+     */
+    public boolean matches(byte[] input, int from, int to) {
+        int state = startState;
+        for (int i = from; i < to; i++) {
+            state = transitions[state * COLUMNS + (input[i] & 0xFF)];
+            if (state < 0) {
+                return false;
+            }
+        }
+        return acceptingStates[state];
+    }
+
+    /**
+     * Performs a single transition.
+     *
+     * @param state The current state, or {@link CompiledFSM#DEAD_STATE}.
+     * @param b The input byte.
+     * @return The next state, or {@link CompiledFSM#DEAD_STATE} if there is no transition.
+     */
+    public int step(int state, byte b) {
+        return state < 0 ? CompiledFSM.DEAD_STATE : transitions[state * COLUMNS + (b & 0xFF)];
+    }
+
+    // Getter and setter methods
+
+    public int getStartState() {
+        return startState;
+    }
+
+    public int getStateCount() {
+        return acceptingStates.length;
+    }
+
+    public boolean isAccepting(int state) {
+        return state >= 0 && acceptingStates[state];
+    }
+}
@@ -0,0 +1,193 @@
+package geje1017.logic.matcher;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodTooLargeException;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Generates a hidden class that matches the language of a {@link CompiledFSM} with straight-line code instead of
+ * a transition table. Every state becomes a block of the generated {@code matches} method: it returns whether the
+ * state is accepting if the input is exhausted, and otherwise reads the next character and dispatches on it with a
+ * {@code lookupswitch} whose cases jump directly to the blocks of the target states. Characters without a transition
+ * jump to {@code return false}. The current state is therefore never stored or dispatched on; it is the position in
+ * the generated code, which saves the table lookup and its bounds check per character.
+ * The class is defined with {@link MethodHandles.Lookup#defineHiddenClass} in this package, so it can be unloaded
+ * together with the returned matcher.
+ * <p>
+ * The size of the generated method grows with the number of states and transitions, not only with the number of
+ * states: a wide alphabet makes every {@code lookupswitch} large. {@link #codeSize(CompiledFSM)} computes an upper
+ * bound of the size before anything is generated, so that callers can keep the method small enough for the JIT.
+ */
+final class BytecodeGenerator {
+
+    private static final String CLASS_NAME = "geje1017/logic/matcher/GeneratedMatcher";
+    private static final String CHAR_SEQUENCE = Type.getInternalName(CharSequence.class);
+
+    // Local variable slots of the generated matches method
+    private static final int INPUT = 1;
+    private static final int LENGTH = 2;
+    private static final int INDEX = 3;
+
+    // Bytes of the code emitted by writeMatches: the prologue (aload_1, invokeinterface, istore_2, iconst_0,
+    // istore_3, goto), the epilogue (iconst_1, ireturn, iconst_0, ireturn), the end-of-input check of every
+    // state (iload_3, iload_2, if_icmpge), the goto of a state without transitions, the read of the next
+    // character (aload_1, iload_3, invokeinterface, iinc) and a lookupswitch with at most 3 bytes of padding
+    private static final int PROLOGUE_SIZE = 12;
+    private static final int EPILOGUE_SIZE = 4;
+    private static final int STATE_CHECK_SIZE = 5;
+    private static final int GOTO_SIZE = 3;
+    private static final int READ_SIZE = 10;
+    private static final int SWITCH_SIZE = 12;
+    private static final int SWITCH_CASE_SIZE = 8;
+
+    private BytecodeGenerator() {
+    }
+
+    /**
+     * Computes an upper bound of the size of the bytecode of the generated {@code matches} method.
+     *
+     * @param fsm The automaton to translate.
+     * @return The maximum number of bytes of the method code.
+     */
+    static long codeSize(CompiledFSM fsm) {
+        long size = PROLOGUE_SIZE + EPILOGUE_SIZE;
+        for (int state = 0; state < fsm.getStateCount(); state++) {
+            int caseCount = 0;
+            for (int symbol = 0; symbol < fsm.getAlphabet().size(); symbol++) {
+                if (fsm.getTransition(state, symbol) >= 0) {
+                    caseCount++;
+                }
+            }
+            size += STATE_CHECK_SIZE + (caseCount == 0 ? GOTO_SIZE
+                    : READ_SIZE + SWITCH_SIZE + (long) SWITCH_CASE_SIZE * caseCount);
+        }
+        return size;
+    }
+
+    /**
+     * Generates, defines and instantiates the matcher class of an automaton.
+     *
+     * @param fsm The automaton to translate.
+     * @return A new instance of the generated class, or the automaton itself if its method exceeds the
+     * 64 KB limit of the class file format.
+     * @throws IllegalStateException If the generated class cannot be defined.
+     */
+    static RegexMatcher generate(CompiledFSM fsm) {
+        byte[] classFile;
+        try {
+            classFile = generateClassFile(fsm);
+        } catch (MethodTooLargeException e) {
+            return fsm;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classFile, true);
+            return (RegexMatcher) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot define the generated matcher class.", e);
+        }
+    }
+
+    /**
+     * Writes the class file of the matcher class of an automaton.
+     *
+     * @param fsm The automaton to translate.
+     * @return The class file.
+     */
+    static byte[] generateClassFile(CompiledFSM fsm) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V11, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, CLASS_NAME, null,
+                Type.getInternalName(Object.class), new String[]{Type.getInternalName(RegexMatcher.class)});
+
+        MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, Type.getInternalName(Object.class), "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, "matches",
+                "(L" + CHAR_SEQUENCE + ";)Z", null, null);
+        method.visitCode();
+        writeMatches(method, fsm);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static void writeMatches(MethodVisitor method, CompiledFSM fsm) {
+        int stateCount = fsm.getStateCount();
+        char[] symbols = fsm.getAlphabet().getSymbols();
+        Label accept = new Label();
+        Label reject = new Label();
+        Label[] stateLabels = newLabels(stateCount);
+
+        // int length = input.length(); int index = 0;
+        method.visitVarInsn(Opcodes.ALOAD, INPUT);
+        method.visitMethodInsn(Opcodes.INVOKEINTERFACE, CHAR_SEQUENCE, "length", "()I", true);
+        method.visitVarInsn(Opcodes.ISTORE, LENGTH);
+        method.visitInsn(Opcodes.ICONST_0);
+        method.visitVarInsn(Opcodes.ISTORE, INDEX);
+        method.visitJumpInsn(Opcodes.GOTO, stateLabels[fsm.getStartState()]);
+
+        for (int state = 0; state < stateCount; state++) {
+            // if (index == length) return isAccepting(state);
+            method.visitLabel(stateLabels[state]);
+            method.visitVarInsn(Opcodes.ILOAD, INDEX);
+            method.visitVarInsn(Opcodes.ILOAD, LENGTH);
+            method.visitJumpInsn(Opcodes.IF_ICMPGE, fsm.isAccepting(state) ? accept : reject);
+
+            int caseCount = 0;
+            for (int symbol = 0; symbol < symbols.length; symbol++) {
+                if (fsm.getTransition(state, symbol) >= 0) {
+                    caseCount++;
+                }
+            }
+            if (caseCount == 0) {
+                method.visitJumpInsn(Opcodes.GOTO, reject);
+                continue;
+            }
+
+            // switch (input.charAt(index++)) { case symbol: continue in the target state }
+            int[] keys = new int[caseCount];
+            Label[] targets = new Label[caseCount];
+            int index = 0;
+            for (int symbol = 0; symbol < symbols.length; symbol++) {
+                int target = fsm.getTransition(state, symbol);
+                if (target >= 0) {
+                    // The symbols of the alphabet are sorted, as lookupswitch requires
+                    keys[index] = symbols[symbol];
+                    targets[index++] = stateLabels[target];
+                }
+            }
+            method.visitVarInsn(Opcodes.ALOAD, INPUT);
+            method.visitVarInsn(Opcodes.ILOAD, INDEX);
+            method.visitMethodInsn(Opcodes.INVOKEINTERFACE, CHAR_SEQUENCE, "charAt", "(I)C", true);
+            method.visitIincInsn(INDEX, 1);
+            method.visitLookupSwitchInsn(reject, keys, targets);
+        }
+
+        method.visitLabel(accept);
+        method.visitInsn(Opcodes.ICONST_1);
+        method.visitInsn(Opcodes.IRETURN);
+        method.visitLabel(reject);
+        method.visitInsn(Opcodes.ICONST_0);
+        method.visitInsn(Opcodes.IRETURN);
+    }
+
+    private static Label[] newLabels(int count) {
+        Label[] labels = new Label[count];
+        for (int i = 0; i < count; i++) {
+            labels[i] = new Label();
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,467 @@
+package geje1017.logic.matcher;
+
+import geje1017.logic.compiler.ThompsonCompiler;
+import geje1017.logic.finiteStateMachine.Alphabet;
+import geje1017.logic.finiteStateMachine.FSMOperator.FSMHopcroftMinimizer;
+import geje1017.logic.finiteStateMachine.FSMOperator.FSMSubsetConstructor;
+import geje1017.logic.finiteStateMachine.FSMStructure;
+import geje1017.logic.finiteStateMachine.IndexedFSM;
+import geje1017.logic.finiteStateMachine.State;
+import geje1017.logic.parser.ExpressionRewriter;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Represents a compiled deterministic finite state machine (DFA) that can be run against input.
+ * The automaton is stored as a dense transition table of size {@code states x symbols} and an accept table,
+ * so that matching needs one array lookup per character and no allocation at all.
+ * Instances are immutable and can be shared between threads; use {@link #matcher()} to obtain
+ * a matcher object for a single thread.
+ */
+public final class CompiledFSM implements RegexMatcher {
+
+    /**
+     * The state id used for missing transitions. Once the automaton is in this state, no input can be accepted.
+     */
+    public static final int DEAD_STATE = -1;
+
+    /**
+     * The default maximum size in bytes of the {@code matches} method generated by {@link #compileToBytecode()}.
+     * HotSpot does not JIT-compile methods above its {@code HugeMethodLimit} of 8000 bytes; such a method would
+     * only be interpreted and match far slower than the transition table.
+     */
+    public static final int DEFAULT_BYTECODE_MAX_CODE_SIZE = 8000;
+
+    private final Alphabet alphabet;
+    private final int symbolCount;
+    private final int stateCount;
+    private final int startState;
+    // Target state per state and symbol, indexed by state * symbolCount + symbol
+    private final int[] transitions;
+    private final boolean[] acceptingStates;
+    // States from which an accepting state can be reached, computed on first use
+    private volatile boolean[] liveStates;
+
+    /**
+     * Constructs a compiled automaton from its tables. The arrays are taken over without copying
+     * and must not be modified afterwards.
+     *
+     * @param alphabet The input alphabet.
+     * @param startState The id of the start state.
+     * @param transitions The transition table, indexed by {@code state * alphabet.size() + symbol},
+     *                    containing {@link #DEAD_STATE} for missing transitions.
+     * @param acceptingStates The accept flag of each state.
+     * @throws IllegalArgumentException If the table sizes do not fit together.
+     */
+    public CompiledFSM(Alphabet alphabet, int startState, int[] transitions, boolean[] acceptingStates) {
+        if (transitions.length != acceptingStates.length * alphabet.size()) {
+            throw new IllegalArgumentException("The transition table does not match the number of states and symbols.");
+        }
+        if (startState < 0 || startState >= acceptingStates.length) {
+            throw new IllegalArgumentException("Invalid start state: " + startState);
+        }
+        this.alphabet = alphabet;
+        this.symbolCount = alphabet.size();
+        this.stateCount = acceptingStates.length;
+        this.startState = startState;
+        this.transitions = transitions;
+        this.acceptingStates = acceptingStates;
+    }
+
+    /**
+     * Compiles a regular expression in fast mode: the expression is simplified by the {@link ExpressionRewriter}
+     * and turned into one NFA by the {@link ThompsonCompiler}, which is determinized and minimized once.
+     * No intermediate automata are kept.
+     *
+     * @param expression The infix regular expression.
+     * @return The compiled, minimal automaton.
+     */
+    public static CompiledFSM compile(String expression) {
+        return compile(ThompsonCompiler.toNfa(ExpressionRewriter.toSimplifiedPostfix(expression))).minimize();
+    }
+
+    /**
+     * Compiles an FSM into its table representation. If the FSM is not deterministic,
+     * the subset construction is applied first.
+     *
+     * @param fsm The FSM to compile.
+     * @return The compiled automaton.
+     */
+    public static CompiledFSM compile(FSMStructure fsm) {
+        return compile(IndexedFSM.of(fsm));
+    }
+
+    /**
+     * Compiles an indexed FSM into its table representation. If the FSM is not deterministic,
+     * the subset construction is applied first.
+     *
+     * @param indexedFsm The FSM to compile, possibly with ε-transitions.
+     * @return The compiled automaton.
+     */
+    public static CompiledFSM compile(IndexedFSM indexedFsm) {
+        return compile(indexedFsm, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Compiles an indexed FSM into its table representation, unless the automaton needs more than the given
+     * number of states. If the FSM is not deterministic, the subset construction is stopped as soon as it
+     * exceeds the limit, so that NFAs with an exponentially large DFA are detected cheaply.
+     *
+     * @param indexedFsm The FSM to compile, possibly with ε-transitions.
+     * @param maxStates The maximum number of states of the compiled automaton.
+     * @return The compiled automaton, or {@code null} if it would have more than {@code maxStates} states.
+     */
+    public static CompiledFSM compile(IndexedFSM indexedFsm, int maxStates) {
+        if (indexedFsm.getStateCount() == 0) {
+            return new CompiledFSM(new Alphabet(new char[0]), 0, new int[0], new boolean[1]);
+        }
+        Alphabet alphabet = indexedFsm.getAlphabet();
+        if (!indexedFsm.isDeterministic()) {
+            FSMSubsetConstructor.Result subsets = FSMSubsetConstructor.construct(indexedFsm, maxStates);
+            if (subsets == null) {
+                return null;
+            }
+            boolean[] acceptingStates = new boolean[subsets.getSubsetCount()];
+            for (int subset = 0; subset < acceptingStates.length; subset++) {
+                acceptingStates[subset] = subsets.isFinal(subset);
+            }
+            return new CompiledFSM(alphabet, 0, subsets.getTransitions().clone(), acceptingStates);
+        }
+
+        int stateCount = indexedFsm.getStateCount();
+        if (stateCount > maxStates) {
+            return null;
+        }
+        int[] transitions = new int[stateCount * alphabet.size()];
+        boolean[] acceptingStates = new boolean[stateCount];
+
+        for (int state = 0; state < stateCount; state++) {
+            acceptingStates[state] = indexedFsm.isFinalState(state);
+            for (int symbol = 0; symbol < alphabet.size(); symbol++) {
+                int[] targets = indexedFsm.getTargets(state, symbol);
+                transitions[state * alphabet.size() + symbol] = targets.length == 0 ? DEAD_STATE : targets[0];
+            }
+        }
+        return new CompiledFSM(alphabet, indexedFsm.getStartStates()[0], transitions, acceptingStates);
+    }
+
+    /**
+     * Creates a new matcher for this automaton. Matchers are cheap, reusable and not thread-safe,
+     * so each thread should use its own matcher.
+     *
+     * @return A new matcher.
+     */
+    public FSMMatcher matcher() {
+        return new FSMMatcher(this);
+    }
+
+    /**
+     * Translates this automaton into a generated class, if its {@code matches} method has at most
+     * {@link #DEFAULT_BYTECODE_MAX_CODE_SIZE} bytes.
+     *
+     * @return The generated matcher, or this automaton if the method would be too large.
+     * @see #compileToBytecode(int)
+     */
+    public RegexMatcher compileToBytecode() {
+        return compileToBytecode(DEFAULT_BYTECODE_MAX_CODE_SIZE);
+    }
+
+    /**
+     * Translates this automaton into a hidden class whose {@code matches} method encodes every state as a
+     * {@code switch} on the input character that jumps to the code of the target state, so that no transition
+     * table is read while matching.
+     * The size of the method is bounded before it is generated, from the number of states and of transitions
+     * per state. Automata whose method would be larger are not translated, because the JIT does not compile
+     * huge methods; matching then falls back to the transition table of this automaton, as it also does if the
+     * method exceeds the limits of the class file format. The automaton should be minimized first.
+     *
+     * @param maxCodeSize The maximum size of the generated method in bytes.
+     * @return The generated matcher, or this automaton if its method would be larger than {@code maxCodeSize}.
+     */
+    public RegexMatcher compileToBytecode(int maxCodeSize) {
+        return BytecodeGenerator.codeSize(this) > maxCodeSize ? this : BytecodeGenerator.generate(this);
+    }
+
+    /**
+     * Creates a new streaming matcher for this automaton that decodes byte input as UTF-8.
+     *
+     * @return A new streaming matcher in the start state.
+     */
+    public StreamingMatcher streamingMatcher() {
+        return new StreamingMatcher(this, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a new streaming matcher for this automaton.
+     *
+     * @param charset The charset used to decode byte input.
+     * @return A new streaming matcher in the start state.
+     */
+    public StreamingMatcher streamingMatcher(Charset charset) {
+        return new StreamingMatcher(this, charset);
+    }
+
+    /**
+     * Checks whether the automaton accepts the entire input.
+     *
+     * @param input The input to check.
+     * @return {@code true} if the input is accepted, otherwise {@code false}.
+     */
+    @Override
+    public boolean matches(CharSequence input) {
+        int state = startState;
+        for (int i = 0, length = input.length(); i < length; i++) {
+            int symbol = alphabet.indexOf(input.charAt(i));
+            if (symbol < 0) {
+                return false;
+            }
+            state = transitions[state * symbolCount + symbol];
+            if (state < 0) {
+                return false;
+            }
+        }
+        return acceptingStates[state];
+    }
+
+    /**
+     * Checks whether the automaton accepts a range of a character array, e.g. one input of a packed batch.
+     *
+     * @param data The characters.
+     * @param from The start of the input (inclusive).
+     * @param to The end of the input (exclusive).
+     * @return {@code true} if the input is accepted, otherwise {@code false}.
+     */
+    boolean matches(char[] data, int from, int to) {
+        int state = startState;
+        for (int i = from; i < to; i++) {
+            int symbol = alphabet.indexOf(data[i]);
+            if (symbol < 0) {
+                return false;
+            }
+            state = transitions[state * symbolCount + symbol];
+            if (state < 0) {
+                return false;
+            }
+        }
+        return acceptingStates[state];
+    }
+
+    /**
+     * Performs a single transition.
+     *
+     * @param state The current state, or {@link #DEAD_STATE}.
+     * @param c The input character.
+     * @return The next state, or {@link #DEAD_STATE} if there is no transition.
+     */
+    public int step(int state, char c) {
+        if (state < 0) {
+            return DEAD_STATE;
+        }
+        int symbol = alphabet.indexOf(c);
+        return symbol < 0 ? DEAD_STATE : transitions[state * symbolCount + symbol];
+    }
+
+    /**
+     * Minimizes the automaton with Hopcroft's algorithm. Unreachable states and states that cannot reach
+     * an accepting state are removed, unless the start state is one of them.
+     *
+     * @return A new, minimal automaton accepting the same language.
+     */
+    public CompiledFSM minimize() {
+        int[] initialBlocks = new int[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            initialBlocks[state] = acceptingStates[state] ? 1 : 0;
+        }
+        int[] blocks = FSMHopcroftMinimizer.refine(stateCount, symbolCount, transitions, initialBlocks);
+        if (blocks[startState] == FSMHopcroftMinimizer.DEAD_BLOCK) {
+            int[] noTransitions = new int[symbolCount];
+            Arrays.fill(noTransitions, DEAD_STATE);
+            return new CompiledFSM(alphabet, 0, noTransitions, new boolean[1]);
+        }
+
+        // Only blocks that contain a reachable state are kept, numbered in the order they are reached
+        int[] blockIds = new int[stateCount];
+        Arrays.fill(blockIds, DEAD_STATE);
+        int[] representatives = new int[stateCount];
+        int blockCount = 0;
+        blockIds[blocks[startState]] = blockCount;
+        representatives[blockCount++] = startState;
+        for (int next = 0; next < blockCount; next++) {
+            int state = representatives[next];
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                int target = transitions[state * symbolCount + symbol];
+                if (target >= 0 && blocks[target] != FSMHopcroftMinimizer.DEAD_BLOCK && blockIds[blocks[target]] == DEAD_STATE) {
+                    blockIds[blocks[target]] = blockCount;
+                    representatives[blockCount++] = target;
+                }
+            }
+        }
+
+        int[] minimizedTransitions = new int[blockCount * symbolCount];
+        boolean[] minimizedAccepting = new boolean[blockCount];
+        for (int block = 0; block < blockCount; block++) {
+            int state = representatives[block];
+            minimizedAccepting[block] = acceptingStates[state];
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                int target = transitions[state * symbolCount + symbol];
+                boolean isDead = target < 0 || blocks[target] == FSMHopcroftMinimizer.DEAD_BLOCK;
+                minimizedTransitions[block * symbolCount + symbol] = isDead ? DEAD_STATE : blockIds[blocks[target]];
+            }
+        }
+        return new CompiledFSM(alphabet, 0, minimizedTransitions, minimizedAccepting);
+    }
+
+    /**
+     * Checks whether this automaton accepts the same language as another one.
+     * Both automata are explored in parallel over the union of their alphabets,
+     * and the first pair of states that disagrees on acceptance proves them different.
+     *
+     * @param other The automaton to compare with.
+     * @return {@code true} if both automata accept the same language, otherwise {@code false}.
+     */
+    public boolean isEquivalentTo(CompiledFSM other) {
+        Alphabet combined = alphabet.union(other.alphabet);
+        Set<Long> visited = new HashSet<>();
+        Deque<int[]> queue = new ArrayDeque<>();
+        queue.add(new int[]{startState, other.startState});
+        visited.add(pairKey(startState, other.startState));
+
+        while (!queue.isEmpty()) {
+            int[] pair = queue.poll();
+            if (this.isAccepting(pair[0]) != other.isAccepting(pair[1])) {
+                return false;
+            }
+            for (int symbol = 0; symbol < combined.size(); symbol++) {
+                char c = combined.getSymbol(symbol);
+                int next1 = this.step(pair[0], c);
+                int next2 = other.step(pair[1], c);
+                if ((next1 >= 0 || next2 >= 0) && visited.add(pairKey(next1, next2))) {
+                    queue.add(new int[]{next1, next2});
+                }
+            }
+        }
+        return true;
+    }
+
+    private static long pairKey(int state1, int state2) {
+        return ((long) state1 << 32) | (state2 & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Converts the compiled automaton back into an FSM structure, e.g. for display.
+     * The states are named after their ids.
+     *
+     * @return A new FSM structure with the same states and transitions.
+     */
+    public FSMStructure toFsmStructure() {
+        FSMStructure fsm = new FSMStructure();
+        State[] states = new State[stateCount];
+        for (int i = 0; i < stateCount; i++) {
+            states[i] = new State(List.of(i), i == startState, acceptingStates[i]);
+            fsm.addState(states[i]);
+        }
+        for (int state = 0; state < stateCount; state++) {
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                int target = transitions[state * symbolCount + symbol];
+                if (target >= 0) {
+                    fsm.addTransition(states[state], Set.of(String.valueOf(alphabet.getSymbol(symbol))), states[target]);
+                }
+            }
+        }
+        return fsm;
+    }
+
+    // Getter and setter methods
+
+    public Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    public int getStartState() {
+        return startState;
+    }
+
+    public boolean isAccepting(int state) {
+        return state >= 0 && acceptingStates[state];
+    }
+
+    public int getTransition(int state, int symbol) {
+        return transitions[state * symbolCount + symbol];
+    }
+
+    int[] transitionTable() {
+        return transitions;
+    }
+
+    boolean[] acceptTable() {
+        return acceptingStates;
+    }
+
+    /**
+     * Checks whether an accepting state can still be reached from a state.
+     *
+     * @param state The state, or {@link #DEAD_STATE}.
+     * @return {@code true} if some input leads from the state to an accepting state.
+     */
+    public boolean canReachAcceptingState(int state) {
+        return state >= 0 && liveTable()[state];
+    }
+
+    /**
+     * Returns the states from which an accepting state can be reached. The table is computed on first use
+     * by a backward search from the accepting states; concurrent callers may compute it twice, but always get
+     * the same result.
+     */
+    boolean[] liveTable() {
+        boolean[] live = liveStates;
+        if (live != null) {
+            return live;
+        }
+
+        // Reverse edges in compressed form: the sources of the edges into state t are stored in
+        // sources[offsets[t]] to sources[offsets[t + 1] - 1]
+        int[] offsets = new int[stateCount + 1];
+        for (int target : transitions) {
+            if (target >= 0) {
+                offsets[target + 1]++;
+            }
+        }
+        for (int state = 0; state < stateCount; state++) {
+            offsets[state + 1] += offsets[state];
+        }
+        int[] sources = new int[offsets[stateCount]];
+        int[] fill = Arrays.copyOf(offsets, stateCount);
+        for (int i = 0; i < transitions.length; i++) {
+            if (transitions[i] >= 0) {
+                sources[fill[transitions[i]]++] = i / symbolCount;
+            }
+        }
+
+        live = new boolean[stateCount];
+        int[] queue = new int[stateCount];
+        int size = 0;
+        for (int state = 0; state < stateCount; state++) {
+            if (acceptingStates[state]) {
+                live[state] = true;
+                queue[size++] = state;
+            }
+        }
+        for (int next = 0; next < size; next++) {
+            int state = queue[next];
+            for (int i = offsets[state]; i < offsets[state + 1]; i++) {
+                if (!live[sources[i]]) {
+                    live[sources[i]] = true;
+                    queue[size++] = sources[i];
+                }
+            }
+        }
+        liveStates = live;
+        return live;
+    }
+}
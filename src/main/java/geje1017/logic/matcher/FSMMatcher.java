@@ -0,0 +1,92 @@
+package geje1017.logic.matcher;
+
+import geje1017.logic.finiteStateMachine.Alphabet;
+
+/**
+ * Runs input against a {@link CompiledFSM}.
+ * A matcher caches the tables of its automaton and remembers where the last run ended,
+ * so that callers can see why an input was rejected. Matching does not allocate any objects.
+ * Matchers are not thread-safe; each thread should obtain its own matcher from {@link CompiledFSM#matcher()}.
+ */
+public final class FSMMatcher {
+
+    private final CompiledFSM fsm;
+    private final Alphabet alphabet;
+    private final int symbolCount;
+    private final int startState;
+    private final int[] transitions;
+    private final boolean[] acceptingStates;
+
+    private int endState;
+    private int consumed;
+
+    /**
+     * Constructs a matcher for the given automaton.
+     *
+     * @param fsm The compiled automaton to run.
+     */
+    FSMMatcher(CompiledFSM fsm) {
+        this.fsm = fsm;
+        this.alphabet = fsm.getAlphabet();
+        this.symbolCount = alphabet.size();
+        this.startState = fsm.getStartState();
+        this.transitions = fsm.transitionTable();
+        this.acceptingStates = fsm.acceptTable();
+        this.endState = startState;
+    }
+
+    /**
+     * Checks whether the automaton accepts the entire input.
+     * The run stops at the first character for which there is no transition.
+     *
+     * @param input The input to check.
+     * @return {@code true} if the input is accepted, otherwise {@code false}.
+     */
+    public boolean matches(CharSequence input) {
+        int state = startState;
+        int length = input.length();
+        int i = 0;
+
+        while (i < length) {
+            int symbol = alphabet.indexOf(input.charAt(i));
+            if (symbol < 0) {
+                state = CompiledFSM.DEAD_STATE;
+                break;
+            }
+            state = transitions[state * symbolCount + symbol];
+            if (state < 0) {
+                break;
+            }
+            i++;
+        }
+
+        this.endState = state;
+        this.consumed = i;
+        return state >= 0 && acceptingStates[state];
+    }
+
+    // Getter and setter methods
+
+    public CompiledFSM getFsm() {
+        return fsm;
+    }
+
+    /**
+     * Returns the state in which the last run ended.
+     *
+     * @return The end state, or {@link CompiledFSM#DEAD_STATE} if the run got stuck.
+     */
+    public int getEndState() {
+        return endState;
+    }
+
+    /**
+     * Returns the number of characters the last run consumed successfully.
+     * For a rejected input this is the position of the first character without a transition.
+     *
+     * @return The number of consumed characters.
+     */
+    public int getConsumed() {
+        return consumed;
+    }
+}
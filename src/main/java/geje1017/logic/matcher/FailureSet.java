@@ -0,0 +1,119 @@
+package geje1017.logic.matcher;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the pairs of DFA state and input position from which no accepting state follows anymore, so that
+ * longest-match scans that start at different positions of the same input do not read the same dead end twice
+ * (Reps, "Maximal-Munch" Tokenization in Linear Time, 1998).
+ * A scan reports every pair it visits with {@link #visit(int, int)} and calls {@link #clearVisits()} whenever it
+ * reaches an accepting state. When the scan ends, {@link #failVisits()} adds the pairs visited since the last
+ * accepting state to the set: the automaton is deterministic, so every later scan that reaches one of these pairs
+ * would find no further accepting state either. The pairs are stored as longs in an open-addressing hash table.
+ */
+final class FailureSet {
+
+    private final long positionCount;
+    private long[] keys = new long[64];
+    private int size;
+    // The pairs visited since the last accepting state
+    private int[] visitedStates = new int[16];
+    private int[] visitedPositions = new int[16];
+    private int visitedCount;
+
+    /**
+     * Constructs an empty set.
+     *
+     * @param length The length of the input, i.e. the largest position.
+     */
+    FailureSet(int length) {
+        this.positionCount = length + 1L;
+        Arrays.fill(keys, -1);
+    }
+
+    /**
+     * Checks whether no accepting state follows behind a pair of state and position.
+     *
+     * @param state The state.
+     * @param position The position in the input.
+     * @return {@code true} if the pair is a known failure.
+     */
+    boolean contains(int state, int position) {
+        long key = state * positionCount + position;
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; keys[slot] != -1; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records a pair visited by the current scan.
+     *
+     * @param state The state.
+     * @param position The position in the input.
+     */
+    void visit(int state, int position) {
+        if (visitedCount == visitedStates.length) {
+            visitedStates = Arrays.copyOf(visitedStates, visitedCount * 2);
+            visitedPositions = Arrays.copyOf(visitedPositions, visitedCount * 2);
+        }
+        visitedStates[visitedCount] = state;
+        visitedPositions[visitedCount++] = position;
+    }
+
+    /**
+     * Forgets the pairs visited so far, because an accepting state follows behind them.
+     */
+    void clearVisits() {
+        visitedCount = 0;
+    }
+
+    /**
+     * Ends the current scan and adds the pairs visited since the last accepting state as failures.
+     * A single pair is not added, because a scan that ends right behind it costs only one step to repeat.
+     */
+    void failVisits() {
+        if (visitedCount > 1) {
+            for (int i = 0; i < visitedCount; i++) {
+                add(visitedStates[i], visitedPositions[i]);
+            }
+        }
+        visitedCount = 0;
+    }
+
+    private void add(int state, int position) {
+        if (2 * (size + 1) > keys.length) {
+            long[] old = keys;
+            keys = new long[old.length * 2];
+            Arrays.fill(keys, -1);
+            size = 0;
+            for (long key : old) {
+                if (key != -1) {
+                    insert(key);
+                }
+            }
+        }
+        insert(state * positionCount + position);
+    }
+
+    private void insert(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != -1) {
+            if (keys[slot] == key) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        size++;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,163 @@
+package geje1017.logic.matcher;
+
+import geje1017.logic.compiler.FollowposCompiler;
+import geje1017.logic.finiteStateMachine.Alphabet;
+import geje1017.logic.finiteStateMachine.IndexedFSM;
+import geje1017.logic.parser.ExpressionRewriter;
+
+/**
+ * Simulates the position automaton (Glushkov automaton) of an expression with at most 64 positions in one
+ * {@code long}, in the style of the Shift-And algorithm. Bit {@code i - 1} stands for position i, i.e. the i-th
+ * occurrence of an input symbol in the expression. Because all transitions into a position read the symbol of that
+ * position, one step is {@code D = follow(D) & symbolMask[c]}: {@code symbolMask[c]} holds the positions of the
+ * symbol c, and {@code follow(D)} is the union of the followpos sets of the positions in D. The union is looked up
+ * byte by byte in tables of 256 precomputed unions, so a step needs at most eight lookups and a few bitwise
+ * operations, and no DFA is ever built.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class GlushkovMatcher implements RegexMatcher {
+
+    /**
+     * The maximum number of positions an expression may have.
+     */
+    public static final int MAX_POSITIONS = 64;
+
+    private static final int ASCII_SIZE = 128;
+
+    private final Alphabet alphabet;
+    private final int positionCount;
+    private final boolean isNullable;
+    private final long firstMask;
+    private final long lastMask;
+    // Positions of every symbol, by alphabet index and directly by character for ASCII
+    private final long[] symbolMasks;
+    private final long[] asciiMasks;
+    // followpos unions per byte of the position set, indexed by chunk * 256 + byte value
+    private final long[] followTables;
+
+    private GlushkovMatcher(IndexedFSM nfa) {
+        this.alphabet = nfa.getAlphabet();
+        this.positionCount = nfa.getStateCount() - 1;
+        if (positionCount > MAX_POSITIONS) {
+            throw new IllegalArgumentException("The expression has " + positionCount + " positions, at most "
+                    + MAX_POSITIONS + " are supported.");
+        }
+        int symbolCount = alphabet.size();
+
+        // State 0 of the position automaton is the start state, state i is position i
+        long[] follow = new long[positionCount + 1];
+        this.symbolMasks = new long[symbolCount];
+        long last = 0;
+        for (int state = 0; state <= positionCount; state++) {
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                for (int target : nfa.getTargets(state, symbol)) {
+                    long bit = 1L << (target - 1);
+                    follow[state] |= bit;
+                    symbolMasks[symbol] |= bit;
+                }
+            }
+            if (state > 0 && nfa.isFinalState(state)) {
+                last |= 1L << (state - 1);
+            }
+        }
+        this.isNullable = nfa.isFinalState(0);
+        this.firstMask = follow[0];
+        this.lastMask = last;
+
+        this.asciiMasks = new long[ASCII_SIZE];
+        for (char c = 0; c < ASCII_SIZE; c++) {
+            int symbol = alphabet.indexOf(c);
+            asciiMasks[c] = symbol < 0 ? 0 : symbolMasks[symbol];
+        }
+
+        int chunkCount = (positionCount + 7) >>> 3;
+        this.followTables = new long[chunkCount << 8];
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int base = chunk << 8;
+            for (int value = 1; value < 256; value++) {
+                // Extend the union of the value without its lowest bit by the followpos of that bit
+                int lowest = Integer.numberOfTrailingZeros(value);
+                int position = (chunk << 3) + lowest + 1;
+                long followers = position <= positionCount ? follow[position] : 0;
+                followTables[base + value] = followTables[base + (value & (value - 1))] | followers;
+            }
+        }
+    }
+
+    /**
+     * Compiles an infix regular expression. The expression is simplified by the {@link ExpressionRewriter} first,
+     * which can reduce the number of positions.
+     *
+     * @param expression The infix regular expression.
+     * @return The matcher for the expression.
+     * @throws IllegalArgumentException If the expression is not valid or has more than {@link #MAX_POSITIONS}
+     *                                  positions.
+     */
+    public static GlushkovMatcher compile(String expression) {
+        return fromPostfix(ExpressionRewriter.toSimplifiedPostfix(expression));
+    }
+
+    /**
+     * Builds the position masks directly from a postfix expression as produced by
+     * {@code ExpressionConverter.convertInfixToPostfix}.
+     *
+     * @param postfixExpression The postfix expression, operands and operators separated by spaces.
+     * @return The matcher for the expression.
+     * @throws IllegalArgumentException If the expression is not valid or has more than {@link #MAX_POSITIONS}
+     *                                  positions.
+     */
+    public static GlushkovMatcher fromPostfix(String postfixExpression) {
+        return of(FollowposCompiler.toNfa(postfixExpression));
+    }
+
+    /**
+     * Builds the position masks from a position automaton as produced by {@link FollowposCompiler#toNfa(String)}.
+     *
+     * @param positionAutomaton The position automaton; state 0 is its start state.
+     * @return The matcher for the automaton.
+     * @throws IllegalArgumentException If the automaton has more than {@link #MAX_POSITIONS} positions.
+     */
+    static GlushkovMatcher of(IndexedFSM positionAutomaton) {
+        return new GlushkovMatcher(positionAutomaton);
+    }
+
+    @Override
+    public boolean matches(CharSequence input) {
+        int length = input.length();
+        if (length == 0) {
+            return isNullable;
+        }
+        long active = firstMask & symbolMask(input.charAt(0));
+        for (int i = 1; i < length && active != 0; i++) {
+            active = follow(active) & symbolMask(input.charAt(i));
+        }
+        return (active & lastMask) != 0;
+    }
+
+    private long symbolMask(char c) {
+        if (c < ASCII_SIZE) {
+            return asciiMasks[c];
+        }
+        int symbol = alphabet.indexOf(c);
+        return symbol < 0 ? 0 : symbolMasks[symbol];
+    }
+
+    private long follow(long active) {
+        // The loop ends as soon as the remaining bytes of the position set are empty
+        long followers = 0;
+        for (int base = 0; active != 0; active >>>= 8, base += 256) {
+            followers |= followTables[base | (int) (active & 0xFF)];
+        }
+        return followers;
+    }
+
+    // Getter and setter methods
+
+    public Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    public int getPositionCount() {
+        return positionCount;
+    }
+}
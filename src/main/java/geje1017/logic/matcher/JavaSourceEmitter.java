@@ -0,0 +1,237 @@
+package geje1017.logic.matcher;
+
+import geje1017.logic.finiteStateMachine.FSMStructure;
+
+import javax.lang.model.SourceVersion;
+
+/**
+ * Emits the source code of a standalone Java class that matches the language of a DFA, so that fixed validators
+ * can be compiled into other projects without depending on this one. The class has a single public method
+ * {@code static boolean matches(CharSequence)} and only uses {@code java.util.Arrays}.
+ * <p>
+ * The tables are packed into {@code static final char[]} fields: every transition is stored as target state + 1,
+ * with {@code 0} for a missing transition, and the accept flags are stored as 16 bits per {@code char}.
+ * Small tables are written as array initializers. Array initializers are compiled into the static initializer,
+ * whose bytecode may not exceed 64 KB, so tables with more entries than the inline limit are written as
+ * string literals instead, split into parts that each fit into a constant pool entry and joined at class
+ * initialization. Automata with more than 65534 states store every transition in two {@code char}s.
+ * The output only depends on the automaton and the class name, so it can be checked into version control.
+ */
+public final class JavaSourceEmitter {
+
+    /**
+     * The default maximum number of table entries written as array initializers.
+     */
+    public static final int DEFAULT_INLINE_LIMIT = 2048;
+
+    // At most 3 bytes per char in the modified UTF-8 of the class file, whose constants are limited to 65535 bytes
+    private static final int LITERAL_PART_LENGTH = 20_000;
+    private static final int VALUES_PER_LINE = 16;
+    private static final String INDENT = "    ";
+
+    private JavaSourceEmitter() {
+    }
+
+    /**
+     * Emits the matcher class of an FSM, e.g. {@code FSMStorage.getResultFsm()}. The FSM is compiled and minimized
+     * first.
+     *
+     * @param fsm The FSM to emit.
+     * @param qualifiedClassName The fully qualified name of the generated class, e.g. {@code com.example.IdValidator}.
+     * @return The Java source code of the class.
+     * @throws IllegalArgumentException If the class name is not a valid qualified name.
+     */
+    public static String emit(FSMStructure fsm, String qualifiedClassName) {
+        return emit(CompiledFSM.compile(fsm).minimize(), qualifiedClassName, DEFAULT_INLINE_LIMIT);
+    }
+
+    /**
+     * Emits the matcher class of a compiled automaton with the default inline limit.
+     *
+     * @param fsm The automaton to emit; it should be minimized.
+     * @param qualifiedClassName The fully qualified name of the generated class.
+     * @return The Java source code of the class.
+     * @throws IllegalArgumentException If the class name is not a valid qualified name.
+     */
+    public static String emit(CompiledFSM fsm, String qualifiedClassName) {
+        return emit(fsm, qualifiedClassName, DEFAULT_INLINE_LIMIT);
+    }
+
+    /**
+     * Emits the matcher class of a compiled automaton.
+     *
+     * @param fsm The automaton to emit; it should be minimized.
+     * @param qualifiedClassName The fully qualified name of the generated class.
+     * @param inlineLimit The maximum number of {@code char}s per table that are written as an array initializer.
+     * @return The Java source code of the class.
+     * @throws IllegalArgumentException If the class name is not a valid qualified name.
+     */
+    public static String emit(CompiledFSM fsm, String qualifiedClassName, int inlineLimit) {
+        if (!SourceVersion.isName(qualifiedClassName)) {
+            throw new IllegalArgumentException("Invalid class name: " + qualifiedClassName);
+        }
+        int separator = qualifiedClassName.lastIndexOf('.');
+        String packageName = separator < 0 ? null : qualifiedClassName.substring(0, separator);
+        String className = qualifiedClassName.substring(separator + 1);
+
+        int stateCount = fsm.getStateCount();
+        char[] symbols = fsm.getAlphabet().getSymbols();
+        int symbolCount = symbols.length;
+        boolean isWide = stateCount >= Character.MAX_VALUE;
+        char[] transitions = packTransitions(fsm, isWide);
+        char[] accepting = packAcceptFlags(fsm);
+
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by geje1017.logic.matcher.JavaSourceEmitter. Do not edit.\n");
+        out.append("// ").append(stateCount).append(" states, ").append(symbolCount).append(" symbols.\n");
+        if (packageName != null) {
+            out.append("package ").append(packageName).append(";\n");
+        }
+        out.append("\nimport java.util.Arrays;\n\n");
+        out.append("public final class ").append(className).append(" {\n\n");
+
+        out.append(INDENT).append("private static final int SYMBOL_COUNT = ").append(symbolCount).append(";\n");
+        out.append(INDENT).append("private static final int START_STATE = ").append(fsm.getStartState()).append(";\n");
+        out.append(INDENT).append("// The sorted input symbols\n");
+        appendTable(out, "char[]", "SYMBOLS", symbols, inlineLimit);
+        out.append(INDENT).append("// Index of every ASCII symbol, or -1\n");
+        out.append(INDENT).append("private static final int[] ASCII_INDEX = new int[128];\n");
+        out.append(INDENT).append("// Target state + 1 per state and symbol").append(isWide ? " in two chars" : "")
+                .append(", 0 for no transition\n");
+        appendTable(out, isWide ? "int[]" : "char[]", "TRANSITIONS", transitions, inlineLimit);
+        out.append(INDENT).append("// Accept flags, 16 states per char\n");
+        appendTable(out, "char[]", "ACCEPTING", accepting, inlineLimit);
+
+        out.append("\n").append(INDENT).append("static {\n");
+        out.append(INDENT).append(INDENT).append("Arrays.fill(ASCII_INDEX, -1);\n");
+        out.append(INDENT).append(INDENT).append("for (int i = 0; i < SYMBOLS.length && SYMBOLS[i] < 128; i++) {\n");
+        out.append(INDENT).append(INDENT).append(INDENT).append("ASCII_INDEX[SYMBOLS[i]] = i;\n");
+        out.append(INDENT).append(INDENT).append("}\n");
+        out.append(INDENT).append("}\n\n");
+
+        out.append(INDENT).append("private ").append(className).append("() {\n");
+        out.append(INDENT).append("}\n\n");
+
+        out.append(INDENT).append("/**\n");
+        out.append(INDENT).append(" * Checks whether the entire input is accepted.\n");
+        out.append(INDENT).append(" *\n");
+        out.append(INDENT).append(" * @param input The input to check.\n");
+        out.append(INDENT).append(" * @return {@code true} if the input is accepted, otherwise {@code false}.\n");
+        out.append(INDENT).append(" */\n");
+        out.append(INDENT).append("public static boolean matches(CharSequence input) {\n");
+        out.append(INDENT).append(INDENT).append("int state = START_STATE;\n");
+        out.append(INDENT).append(INDENT).append("for (int i = 0, length = input.length(); i < length; i++) {\n");
+        out.append(INDENT).append(INDENT).append(INDENT).append("char c = input.charAt(i);\n");
+        out.append(INDENT).append(INDENT).append(INDENT)
+                .append("int symbol = c < 128 ? ASCII_INDEX[c] : Arrays.binarySearch(SYMBOLS, c);\n");
+        out.append(INDENT).append(INDENT).append(INDENT).append("if (symbol < 0) {\n");
+        out.append(INDENT).append(INDENT).append(INDENT).append(INDENT).append("return false;\n");
+        out.append(INDENT).append(INDENT).append(INDENT).append("}\n");
+        out.append(INDENT).append(INDENT).append(INDENT)
+                .append("state = TRANSITIONS[state * SYMBOL_COUNT + symbol] - 1;\n");
+        out.append(INDENT).append(INDENT).append(INDENT).append("if (state < 0) {\n");
+        out.append(INDENT).append(INDENT).append(INDENT).append(INDENT).append("return false;\n");
+        out.append(INDENT).append(INDENT).append(INDENT).append("}\n");
+        out.append(INDENT).append(INDENT).append("}\n");
+        out.append(INDENT).append(INDENT).append("return (ACCEPTING[state >>> 4] >>> (state & 15) & 1) != 0;\n");
+        out.append(INDENT).append("}\n");
+
+        if (isWide || transitions.length > inlineLimit || accepting.length > inlineLimit || symbols.length > inlineLimit) {
+            appendUnpackMethods(out, isWide);
+        }
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private static char[] packTransitions(CompiledFSM fsm, boolean isWide) {
+        int stateCount = fsm.getStateCount();
+        int symbolCount = fsm.getAlphabet().size();
+        char[] packed = new char[stateCount * symbolCount * (isWide ? 2 : 1)];
+        int index = 0;
+        for (int state = 0; state < stateCount; state++) {
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                int value = fsm.getTransition(state, symbol) + 1;
+                if (isWide) {
+                    packed[index++] = (char) (value >>> 16);
+                }
+                packed[index++] = (char) value;
+            }
+        }
+        return packed;
+    }
+
+    private static char[] packAcceptFlags(CompiledFSM fsm) {
+        int stateCount = fsm.getStateCount();
+        char[] packed = new char[(stateCount + 15) >>> 4];
+        for (int state = 0; state < stateCount; state++) {
+            if (fsm.isAccepting(state)) {
+                packed[state >>> 4] |= (char) (1 << (state & 15));
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Appends a table field, either with an array initializer or decoded from string literals.
+     * Wide tables hold two chars per value and are decoded into an {@code int[]}.
+     */
+    private static void appendTable(StringBuilder out, String type, String name, char[] values, int inlineLimit) {
+        boolean isWide = type.equals("int[]");
+        out.append(INDENT).append("private static final ").append(type).append(' ').append(name).append(" = ");
+        if (values.length <= inlineLimit && !isWide) {
+            out.append('{');
+            for (int i = 0; i < values.length; i++) {
+                out.append(i % VALUES_PER_LINE == 0 ? "\n" + INDENT + INDENT + INDENT : " ");
+                out.append((int) values[i]).append(i < values.length - 1 ? "," : "");
+            }
+            out.append(values.length > 0 ? "\n" + INDENT + "};\n" : "};\n");
+            return;
+        }
+        out.append(isWide ? "unpackInts(" : "unpack(");
+        for (int start = 0; start < values.length; start += LITERAL_PART_LENGTH) {
+            out.append(start > 0 ? "," : "").append('\n').append(INDENT).append(INDENT).append(INDENT);
+            appendLiteral(out, values, start, Math.min(values.length, start + LITERAL_PART_LENGTH));
+        }
+        out.append(values.length == 0 ? "\"\");\n" : ");\n");
+    }
+
+    /**
+     * Appends a string literal. Only escapes that javac does not translate before parsing are used:
+     * a Unicode escape of a line break or quote would end the literal, so all characters below 256 that are not
+     * printable ASCII are written as octal escapes.
+     */
+    private static void appendLiteral(StringBuilder out, char[] values, int start, int end) {
+        out.append('"');
+        for (int i = start; i < end; i++) {
+            char c = values[i];
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c >= 0x20 && c < 0x7F) {
+                out.append(c);
+            } else if (c < 0x100) {
+                out.append('\\').append((char) ('0' + (c >>> 6))).append((char) ('0' + ((c >>> 3) & 7)))
+                        .append((char) ('0' + (c & 7)));
+            } else {
+                out.append(String.format("\\u%04x", (int) c));
+            }
+        }
+        out.append('"');
+    }
+
+    private static void appendUnpackMethods(StringBuilder out, boolean isWide) {
+        out.append('\n').append(INDENT).append("private static char[] unpack(String... parts) {\n");
+        out.append(INDENT).append(INDENT).append("return String.join(\"\", parts).toCharArray();\n");
+        out.append(INDENT).append("}\n");
+        if (isWide) {
+            out.append('\n').append(INDENT).append("private static int[] unpackInts(String... parts) {\n");
+            out.append(INDENT).append(INDENT).append("char[] chars = unpack(parts);\n");
+            out.append(INDENT).append(INDENT).append("int[] values = new int[chars.length / 2];\n");
+            out.append(INDENT).append(INDENT).append("for (int i = 0; i < values.length; i++) {\n");
+            out.append(INDENT).append(INDENT).append(INDENT)
+                    .append("values[i] = chars[2 * i] << 16 | chars[2 * i + 1];\n");
+            out.append(INDENT).append(INDENT).append("}\n");
+            out.append(INDENT).append(INDENT).append("return values;\n");
+            out.append(INDENT).append("}\n");
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package geje1017.logic.matcher;
+
+import geje1017.logic.compiler.ThompsonCompiler;
+import geje1017.logic.finiteStateMachine.Alphabet;
+import geje1017.logic.finiteStateMachine.FSMStructure;
+import geje1017.logic.finiteStateMachine.IndexedFSM;
+import geje1017.logic.parser.ExpressionRewriter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Matches inputs against an NFA by building the states of the equivalent DFA only when an input reaches them.
+ * A DFA state is a set of NFA states, closed over ε-transitions; its successors are computed on the first use
+ * and then looked up directly. This avoids the exponential blow-up of the full subset construction for
+ * expressions like {@code (a|b)*a(a|b)(a|b)...}, because an input of length n visits at most n + 1 DFA states.
+ * <p>
+ * The built states are kept in a cache that holds at most a fixed number of states and is shared by all threads
+ * matching with the same instance. New states are published without locks: they are inserted into a fixed-size
+ * open-addressing table and linked to their predecessor with compare-and-set, so concurrent matchers that build
+ * the same state agree on one instance. When the cache is full it is flushed: a new, empty cache generation
+ * replaces the old one, and matchers that still hold states of the old generation continue in the new one
+ * with the next state they build. The old generation is garbage collected once no matcher uses it anymore.
+ */
+public final class LazyDFA implements RegexMatcher {
+
+    /**
+     * The default maximum number of cached DFA states.
+     */
+    public static final int DEFAULT_MAX_STATES = 10_000;
+
+    // Successor of every state on a symbol that no NFA state can read
+    private static final DState DEAD = new DState(new long[0], 0, false, 0, null);
+
+    private final IndexedFSM nfa;
+    private final Alphabet alphabet;
+    private final int symbolCount;
+    private final int words;
+    private final int maxStates;
+    private final long[] startSet;
+    private final AtomicReference<Cache> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong flushes = new AtomicLong();
+
+    /**
+     * Constructs a lazy DFA for an NFA.
+     *
+     * @param nfa The NFA; it may have several start states and ε-transitions.
+     * @param maxStates The maximum number of DFA states in the cache.
+     * @throws IllegalArgumentException If fewer than two states may be cached or the NFA has no start state.
+     */
+    public LazyDFA(IndexedFSM nfa, int maxStates) {
+        if (maxStates < 2) {
+            throw new IllegalArgumentException("At least two states must fit into the cache: " + maxStates);
+        }
+        if (nfa.getStartStates().length == 0) {
+            throw new IllegalArgumentException("The FSM has no start state.");
+        }
+        this.nfa = nfa;
+        this.alphabet = nfa.getAlphabet();
+        this.symbolCount = alphabet.size();
+        this.words = Math.max(1, (nfa.getStateCount() + 63) >>> 6);
+        this.maxStates = maxStates;
+
+        this.startSet = new long[words];
+        for (int state : nfa.getStartStates()) {
+            startSet[state >>> 6] |= 1L << state;
+        }
+        closeOverEpsilon(startSet, new int[nfa.getStateCount()]);
+        this.cache = new AtomicReference<>(new Cache());
+    }
+
+    /**
+     * Compiles an infix regular expression into its Thompson NFA and matches lazily against it.
+     *
+     * @param expression The infix regular expression.
+     * @return The lazy DFA with the default cache size.
+     */
+    public static LazyDFA compile(String expression) {
+        return new LazyDFA(ThompsonCompiler.toNfa(ExpressionRewriter.toSimplifiedPostfix(expression)), DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * Matches lazily against an FSM, e.g. the result of {@code FSMGroup.getOperationFSM()} before determinization.
+     *
+     * @param fsm The FSM to match against.
+     * @return The lazy DFA with the default cache size.
+     */
+    public static LazyDFA of(FSMStructure fsm) {
+        return new LazyDFA(IndexedFSM.of(fsm), DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * Checks whether the entire input is accepted.
+     *
+     * @param input The input to check.
+     * @return {@code true} if the input is accepted, otherwise {@code false}.
+     */
+    @Override
+    public boolean matches(CharSequence input) {
+        DState state = cache.get().start;
+        int[] closureStack = null;
+        long hitCount = 0;
+        long missCount = 0;
+        try {
+            for (int i = 0, length = input.length(); i < length; i++) {
+                int symbol = alphabet.indexOf(input.charAt(i));
+                if (symbol < 0) {
+                    return false;
+                }
+                DState next = state.next.get(symbol);
+                if (next == null) {
+                    if (closureStack == null) {
+                        closureStack = new int[nfa.getStateCount()];
+                    }
+                    next = computeNext(state, symbol, closureStack);
+                    missCount++;
+                } else {
+                    hitCount++;
+                }
+                if (next == DEAD) {
+                    return false;
+                }
+                state = next;
+            }
+            return state.accepting;
+        } finally {
+            // The shared counters are updated once per input, not once per character
+            hits.add(hitCount);
+            misses.add(missCount);
+        }
+    }
+
+    /**
+     * Builds the successor of a state, finds its cached instance and links it to the state.
+     */
+    private DState computeNext(DState state, int symbol, int[] closureStack) {
+        long[] set = new long[words];
+        boolean isEmpty = true;
+        for (int w = 0; w < words; w++) {
+            long word = state.set[w];
+            while (word != 0) {
+                int member = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                for (int target : nfa.getTargets(member, symbol)) {
+                    set[target >>> 6] |= 1L << target;
+                    isEmpty = false;
+                }
+            }
+        }
+        if (isEmpty) {
+            state.next.set(symbol, DEAD);
+            return DEAD;
+        }
+        closeOverEpsilon(set, closureStack);
+
+        int hash = Arrays.hashCode(set);
+        while (true) {
+            Cache current = cache.get();
+            DState target = current.intern(set, hash);
+            if (target != null) {
+                // States of a flushed generation are not linked to the new one, so that it can be collected
+                if (state.cache == current) {
+                    state.next.compareAndSet(symbol, null, target);
+                }
+                return target;
+            }
+            if (cache.compareAndSet(current, new Cache())) {
+                flushes.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Adds all states that are reachable from the set via ε-transitions to the set.
+     */
+    private void closeOverEpsilon(long[] set, int[] stack) {
+        if (!nfa.hasEpsilonTransitions()) {
+            return;
+        }
+        int size = 0;
+        for (int w = 0; w < words; w++) {
+            long word = set[w];
+            while (word != 0) {
+                stack[size++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        while (size > 0) {
+            for (int target : nfa.getEpsilonTargets(stack[--size])) {
+                long bit = 1L << target;
+                if ((set[target >>> 6] & bit) == 0) {
+                    set[target >>> 6] |= bit;
+                    stack[size++] = target;
+                }
+            }
+        }
+    }
+
+    private boolean isAccepting(long[] set) {
+        for (int w = 0; w < words; w++) {
+            long word = set[w];
+            while (word != 0) {
+                if (nfa.isFinalState((w << 6) + Long.numberOfTrailingZeros(word))) {
+                    return true;
+                }
+                word &= word - 1;
+            }
+        }
+        return false;
+    }
+
+    // Getter and setter methods
+
+    /**
+     * Returns the share of transitions that were found in the cache instead of being computed.
+     *
+     * @return The hit rate between {@code 0} and {@code 1}, or {@code 0} if nothing was matched yet.
+     */
+    public double getCacheHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public long getCacheHits() {
+        return hits.sum();
+    }
+
+    public long getCacheMisses() {
+        return misses.sum();
+    }
+
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    /**
+     * Returns the number of DFA states in the current cache generation.
+     *
+     * @return The number of cached states.
+     */
+    public int getCachedStateCount() {
+        return cache.get().size.get();
+    }
+
+    public int getMaxStates() {
+        return maxStates;
+    }
+
+    public IndexedFSM getNfa() {
+        return nfa;
+    }
+
+    /**
+     * Represents one DFA state, i.e. a set of NFA states, and its successors built so far.
+     */
+    private static final class DState {
+        private final long[] set;
+        private final int hash;
+        private final boolean accepting;
+        private final AtomicReferenceArray<DState> next;
+        private final Cache cache;
+
+        DState(long[] set, int hash, boolean accepting, int symbolCount, Cache cache) {
+            this.set = set;
+            this.hash = hash;
+            this.accepting = accepting;
+            this.next = new AtomicReferenceArray<>(symbolCount);
+            this.cache = cache;
+        }
+    }
+
+    /**
+     * Holds one generation of cached states in an open-addressing table whose slots are only ever
+     * filled with compare-and-set, so that lookups and insertions never block.
+     */
+    private final class Cache {
+        private final AtomicReferenceArray<DState> table;
+        private final AtomicInteger size = new AtomicInteger();
+        private final DState start;
+
+        Cache() {
+            // At most half of the slots are used, so that probe sequences stay short
+            this.table = new AtomicReferenceArray<>(Integer.highestOneBit(maxStates) * 4);
+            this.start = intern(startSet, Arrays.hashCode(startSet));
+        }
+
+        /**
+         * Returns the cached state for a set of NFA states, adding it if it is not cached yet.
+         *
+         * @return The cached state, or {@code null} if the cache is full.
+         */
+        DState intern(long[] set, int hash) {
+            int mask = table.length() - 1;
+            DState created = null;
+            for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+                DState entry = table.get(slot);
+                while (entry == null) {
+                    if (created == null) {
+                        if (size.incrementAndGet() > maxStates) {
+                            size.decrementAndGet();
+                            return null;
+                        }
+                        created = new DState(set, hash, isAccepting(set), symbolCount, this);
+                    }
+                    if (table.compareAndSet(slot, null, created)) {
+                        return created;
+                    }
+                    entry = table.get(slot);
+                }
+                if (entry.hash == hash && Arrays.equals(entry.set, set)) {
+                    if (created != null) {
+                        // Another thread published the same state first
+                        size.decrementAndGet();
+                    }
+                    return entry;
+                }
+            }
+        }
+
+        private int mix(int hash) {
+            return hash ^ (hash >>> 16) ^ (hash >>> 7);
+        }
+    }
+}
@@ -0,0 +1,457 @@
+package geje1017.logic.matcher;
+
+import geje1017.logic.finiteStateMachine.Alphabet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32C;
+
+/**
+ * Stores compiled automata in a compact, versioned binary format and matches directly on the stored bytes,
+ * so that a service can start with a file produced at build time instead of compiling its expressions again.
+ * A file is loaded with {@link FileChannel#map} and used in place: there is no deserialization step, only the
+ * header is read and the checksum is verified. All values are little-endian and every section starts at a
+ * multiple of 8 bytes:
+ * <pre>
+ * header       magic "RDFA", format version, header length, state count, symbol count, start state,
+ *              pattern count, the offsets of the sections, total length, CRC-32C checksum and the id of the
+ *              compiler that wrote the file
+ * symbols      the sorted symbols of the alphabet, one {@code char} each
+ * ascii index  the symbol index of every ASCII character, or -1, one {@code short} each
+ * transitions  the target state per state and symbol, or -1, one {@code int} each, row by row
+ * accept flags one bit per state
+ * patterns     the start of the accepting pattern ids of every state and the end of the last one,
+ *              followed by all pattern ids
+ * </pre>
+ * The checksum covers the whole file except the checksum field itself. A {@link CompiledFSM} is stored
+ * with the single pattern id 0 for its accepting states; a {@link MultiPatternFSM} with its pattern sets.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class MappedFSM implements RegexMatcher {
+
+    /**
+     * The version of the format written by this class.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    /**
+     * The id of the compiler recorded in the files written by this class.
+     */
+    public static final String COMPILER_ID = "geje1017.RegexToDFSM 1.0";
+
+    private static final int MAGIC = 'R' | 'D' << 8 | 'F' << 16 | 'A' << 24;
+    private static final int ASCII_SIZE = 128;
+
+    // Byte offsets of the header fields
+    private static final int VERSION = 4;
+    private static final int HEADER_LENGTH = 6;
+    private static final int STATE_COUNT = 8;
+    private static final int SYMBOL_COUNT = 12;
+    private static final int START_STATE = 16;
+    private static final int PATTERN_COUNT = 20;
+    private static final int SECTION_OFFSETS = 24;
+    private static final int TOTAL_LENGTH = 48;
+    private static final int CHECKSUM = 52;
+    private static final int COMPILER_ID_LENGTH = 56;
+    private static final int COMPILER_ID_BYTES = 58;
+
+    // Indices of the sections in the offset table
+    private static final int SYMBOLS = 0;
+    private static final int ASCII_INDEX = 1;
+    private static final int TRANSITIONS = 2;
+    private static final int ACCEPT_FLAGS = 3;
+    private static final int PATTERN_STARTS = 4;
+    private static final int PATTERN_IDS = 5;
+    private static final int SECTION_COUNT = 6;
+
+    private final ByteBuffer buffer;
+    private final int stateCount;
+    private final int symbolCount;
+    private final int startState;
+    private final int patternCount;
+    private final int symbolsOffset;
+    private final int asciiIndexOffset;
+    private final int transitionsOffset;
+    private final int acceptFlagsOffset;
+    private final int patternStartsOffset;
+    private final int patternIdsOffset;
+    private final String compilerId;
+
+    private MappedFSM(ByteBuffer buffer) {
+        this.buffer = buffer;
+        int length = buffer.capacity();
+        if (length < COMPILER_ID_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("The data is not a compiled automaton.");
+        }
+        if (buffer.getShort(VERSION) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported format version: " + buffer.getShort(VERSION));
+        }
+        if (buffer.getInt(TOTAL_LENGTH) != length) {
+            throw new IllegalArgumentException("The data is truncated: " + length + " of "
+                    + buffer.getInt(TOTAL_LENGTH) + " bytes.");
+        }
+        if (buffer.getInt(CHECKSUM) != checksum(buffer)) {
+            throw new IllegalArgumentException("The checksum does not match, the data is corrupted.");
+        }
+        this.stateCount = buffer.getInt(STATE_COUNT);
+        this.symbolCount = buffer.getInt(SYMBOL_COUNT);
+        this.startState = buffer.getInt(START_STATE);
+        this.patternCount = buffer.getInt(PATTERN_COUNT);
+        this.symbolsOffset = buffer.getInt(SECTION_OFFSETS + 4 * SYMBOLS);
+        this.asciiIndexOffset = buffer.getInt(SECTION_OFFSETS + 4 * ASCII_INDEX);
+        this.transitionsOffset = buffer.getInt(SECTION_OFFSETS + 4 * TRANSITIONS);
+        this.acceptFlagsOffset = buffer.getInt(SECTION_OFFSETS + 4 * ACCEPT_FLAGS);
+        this.patternStartsOffset = buffer.getInt(SECTION_OFFSETS + 4 * PATTERN_STARTS);
+        this.patternIdsOffset = buffer.getInt(SECTION_OFFSETS + 4 * PATTERN_IDS);
+
+        // The sections must lie behind each other in the order of the format
+        if (stateCount <= 0 || symbolCount < 0 || startState < 0 || startState >= stateCount || patternCount < 0
+                || symbolsOffset != buffer.getShort(HEADER_LENGTH)
+                || symbolsOffset < COMPILER_ID_BYTES + buffer.getShort(COMPILER_ID_LENGTH)
+                || asciiIndexOffset < symbolsOffset + 2L * symbolCount
+                || transitionsOffset < asciiIndexOffset + 2L * ASCII_SIZE
+                || acceptFlagsOffset < transitionsOffset + 4L * stateCount * symbolCount
+                || patternStartsOffset < acceptFlagsOffset + (stateCount + 7) / 8
+                || patternIdsOffset < patternStartsOffset + 4L * (stateCount + 1)
+                || patternIdsOffset > length
+                || length < patternIdsOffset + 4L * buffer.getInt(patternStartsOffset + 4 * stateCount)) {
+            throw new IllegalArgumentException("The sections of the data are inconsistent.");
+        }
+        checkContents();
+        byte[] id = new byte[buffer.getShort(COMPILER_ID_LENGTH)];
+        buffer.get(COMPILER_ID_BYTES, id);
+        this.compilerId = new String(id, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks every value that is later used as an index, so that a file from a faulty writer is rejected while it
+     * is loaded instead of failing while it is matched. The checksum only proves that the data was not changed
+     * after it was written.
+     */
+    private void checkContents() {
+        for (int c = 0; c < ASCII_SIZE; c++) {
+            int symbol = buffer.getShort(asciiIndexOffset + 2 * c);
+            if (symbol < -1 || symbol >= symbolCount
+                    || symbol >= 0 && buffer.getChar(symbolsOffset + 2 * symbol) != c) {
+                throw new IllegalArgumentException("Invalid symbol index " + symbol + " of the character " + c + ".");
+            }
+        }
+        for (int symbol = 1; symbol < symbolCount; symbol++) {
+            if (buffer.getChar(symbolsOffset + 2 * symbol) <= buffer.getChar(symbolsOffset + 2 * (symbol - 1))) {
+                throw new IllegalArgumentException("The symbols are not sorted at index " + symbol + ".");
+            }
+        }
+        for (int i = 0; i < stateCount * symbolCount; i++) {
+            int target = buffer.getInt(transitionsOffset + 4 * i);
+            if (target < CompiledFSM.DEAD_STATE || target >= stateCount) {
+                throw new IllegalArgumentException("Invalid target state " + target + " of state "
+                        + i / symbolCount + " and symbol " + i % symbolCount + ".");
+            }
+        }
+        int previous = 0;
+        for (int state = 0; state <= stateCount; state++) {
+            int start = buffer.getInt(patternStartsOffset + 4 * state);
+            if (start < previous) {
+                throw new IllegalArgumentException("The pattern starts decrease at state " + state + ".");
+            }
+            previous = start;
+        }
+        for (int i = 0; i < previous; i++) {
+            int pattern = buffer.getInt(patternIdsOffset + 4 * i);
+            if (pattern < 0 || pattern >= patternCount) {
+                throw new IllegalArgumentException("Invalid pattern id " + pattern + " at index " + i + ".");
+            }
+        }
+    }
+
+    /**
+     * Maps a file written by {@link #write(CompiledFSM, Path)} or {@link #write(MultiPatternFSM, Path)} into
+     * memory. The file is read lazily by the operating system; only the checksum pass touches all of it.
+     *
+     * @param file The file to map.
+     * @return The automaton stored in the file.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If the file is not a valid automaton of a supported version.
+     */
+    public static MappedFSM map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The file is too large: " + channel.size() + " bytes.");
+            }
+            return wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Uses the bytes between the position and the limit of a buffer as a stored automaton, without copying them.
+     * The buffer must not be modified afterwards.
+     *
+     * @param buffer The buffer holding the automaton.
+     * @return The automaton stored in the buffer.
+     * @throws IllegalArgumentException If the data is not a valid automaton of a supported version.
+     */
+    public static MappedFSM wrap(ByteBuffer buffer) {
+        return new MappedFSM(buffer.slice().order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    /**
+     * Encodes a compiled automaton; its accepting states accept pattern 0.
+     *
+     * @param fsm The automaton to encode.
+     * @return A buffer holding the encoded automaton, ready to be read.
+     * @throws IllegalArgumentException If the automaton is too large for the format.
+     */
+    public static ByteBuffer encode(CompiledFSM fsm) {
+        int[] acceptingPattern = {0};
+        int[] noPattern = new int[0];
+        return encode(fsm.getAlphabet(), fsm.getStateCount(), fsm.getStartState(), 1, fsm.transitionTable(),
+                state -> fsm.isAccepting(state) ? acceptingPattern : noPattern);
+    }
+
+    /**
+     * Encodes a multi-pattern automaton together with the pattern ids of its states.
+     *
+     * @param fsm The automaton to encode.
+     * @return A buffer holding the encoded automaton, ready to be read.
+     * @throws IllegalArgumentException If the automaton is too large for the format.
+     */
+    public static ByteBuffer encode(MultiPatternFSM fsm) {
+        int stateCount = fsm.getStateCount();
+        int symbolCount = fsm.getAlphabet().size();
+        int[] transitions = new int[stateCount * symbolCount];
+        for (int state = 0; state < stateCount; state++) {
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                transitions[state * symbolCount + symbol] = fsm.getTransition(state, symbol);
+            }
+        }
+        return encode(fsm.getAlphabet(), stateCount, fsm.getStartState(), fsm.getPatternCount(), transitions,
+                fsm::getPatterns);
+    }
+
+    /**
+     * Writes a compiled automaton to a file.
+     *
+     * @param fsm The automaton to write.
+     * @param file The file to write; an existing file is replaced.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(CompiledFSM fsm, Path file) throws IOException {
+        write(encode(fsm), file);
+    }
+
+    /**
+     * Writes a multi-pattern automaton to a file.
+     *
+     * @param fsm The automaton to write.
+     * @param file The file to write; an existing file is replaced.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(MultiPatternFSM fsm, Path file) throws IOException {
+        write(encode(fsm), file);
+    }
+
+    private static void write(ByteBuffer data, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+    }
+
+    private static ByteBuffer encode(Alphabet alphabet, int stateCount, int startState, int patternCount,
+                                     int[] transitions, IntFunction<int[]> patterns) {
+        int symbolCount = alphabet.size();
+        byte[] id = COMPILER_ID.getBytes(StandardCharsets.UTF_8);
+        long patternIdCount = 0;
+        for (int state = 0; state < stateCount; state++) {
+            patternIdCount += patterns.apply(state).length;
+        }
+
+        long[] offsets = new long[SECTION_COUNT];
+        offsets[SYMBOLS] = align(COMPILER_ID_BYTES + id.length);
+        offsets[ASCII_INDEX] = align(offsets[SYMBOLS] + 2L * symbolCount);
+        offsets[TRANSITIONS] = align(offsets[ASCII_INDEX] + 2L * ASCII_SIZE);
+        offsets[ACCEPT_FLAGS] = align(offsets[TRANSITIONS] + 4L * stateCount * symbolCount);
+        offsets[PATTERN_STARTS] = align(offsets[ACCEPT_FLAGS] + (stateCount + 7) / 8);
+        offsets[PATTERN_IDS] = align(offsets[PATTERN_STARTS] + 4L * (stateCount + 1));
+        long length = offsets[PATTERN_IDS] + 4 * patternIdCount;
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The automaton is too large to be stored: " + length + " bytes.");
+        }
+
+        ByteBuffer data = ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(0, MAGIC);
+        data.putShort(VERSION, (short) FORMAT_VERSION);
+        data.putShort(HEADER_LENGTH, (short) offsets[SYMBOLS]);
+        data.putInt(STATE_COUNT, stateCount);
+        data.putInt(SYMBOL_COUNT, symbolCount);
+        data.putInt(START_STATE, startState);
+        data.putInt(PATTERN_COUNT, patternCount);
+        for (int section = 0; section < SECTION_COUNT; section++) {
+            data.putInt(SECTION_OFFSETS + 4 * section, (int) offsets[section]);
+        }
+        data.putInt(TOTAL_LENGTH, (int) length);
+        data.putShort(COMPILER_ID_LENGTH, (short) id.length);
+        data.put(COMPILER_ID_BYTES, id);
+
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            data.putChar((int) offsets[SYMBOLS] + 2 * symbol, alphabet.getSymbol(symbol));
+        }
+        for (char c = 0; c < ASCII_SIZE; c++) {
+            data.putShort((int) offsets[ASCII_INDEX] + 2 * c, (short) alphabet.indexOf(c));
+        }
+        for (int i = 0; i < stateCount * symbolCount; i++) {
+            data.putInt((int) offsets[TRANSITIONS] + 4 * i, transitions[i]);
+        }
+        int patternIndex = 0;
+        for (int state = 0; state < stateCount; state++) {
+            int[] statePatterns = patterns.apply(state);
+            if (statePatterns.length > 0) {
+                int flags = (int) offsets[ACCEPT_FLAGS] + (state >>> 3);
+                data.put(flags, (byte) (data.get(flags) | 1 << (state & 7)));
+            }
+            data.putInt((int) offsets[PATTERN_STARTS] + 4 * state, patternIndex);
+            for (int pattern : statePatterns) {
+                data.putInt((int) offsets[PATTERN_IDS] + 4 * patternIndex++, pattern);
+            }
+        }
+        data.putInt((int) offsets[PATTERN_STARTS] + 4 * stateCount, patternIndex);
+        data.putInt(CHECKSUM, checksum(data));
+        return data;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    /**
+     * Computes the CRC-32C of the data without the checksum field.
+     */
+    private static int checksum(ByteBuffer data) {
+        CRC32C crc = new CRC32C();
+        crc.update(data.duplicate().position(0).limit(CHECKSUM));
+        crc.update(data.duplicate().position(CHECKSUM + 4).limit(data.capacity()));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Checks whether the entire input is accepted by any pattern.
+     *
+     * @param input The input to check.
+     * @return {@code true} if the input is accepted, otherwise {@code false}.
+     */
+    @Override
+    public boolean matches(CharSequence input) {
+        return isAccepting(run(input));
+    }
+
+    /**
+     * Runs the input through the automaton and returns the state in which it ends.
+     *
+     * @param input The input to run.
+     * @return The end state, or {@link CompiledFSM#DEAD_STATE}.
+     */
+    public int run(CharSequence input) {
+        int state = startState;
+        for (int i = 0, length = input.length(); i < length && state >= 0; i++) {
+            state = step(state, input.charAt(i));
+        }
+        return state;
+    }
+
+    /**
+     * Performs a single transition.
+     *
+     * @param state The current state, or {@link CompiledFSM#DEAD_STATE}.
+     * @param c The input character.
+     * @return The next state, or {@link CompiledFSM#DEAD_STATE} if there is no transition.
+     */
+    public int step(int state, char c) {
+        if (state < 0) {
+            return CompiledFSM.DEAD_STATE;
+        }
+        int symbol = indexOf(c);
+        return symbol < 0 ? CompiledFSM.DEAD_STATE
+                : buffer.getInt(transitionsOffset + ((state * symbolCount + symbol) << 2));
+    }
+
+    /**
+     * Looks up the index of a symbol in the stored alphabet: directly for ASCII characters, otherwise with a
+     * binary search over the sorted symbols.
+     */
+    private int indexOf(char c) {
+        if (c < ASCII_SIZE) {
+            return buffer.getShort(asciiIndexOffset + (c << 1));
+        }
+        int low = 0;
+        int high = symbolCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char symbol = buffer.getChar(symbolsOffset + (middle << 1));
+            if (symbol < c) {
+                low = middle + 1;
+            } else if (symbol > c) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    // Getter and setter methods
+
+    public boolean isAccepting(int state) {
+        return state >= 0 && (buffer.get(acceptFlagsOffset + (state >>> 3)) >>> (state & 7) & 1) != 0;
+    }
+
+    /**
+     * Returns the patterns that accept in a state.
+     *
+     * @param state The state, or {@link CompiledFSM#DEAD_STATE}.
+     * @return A new array with the ids of the accepting patterns in ascending order.
+     */
+    public int[] getPatterns(int state) {
+        if (state < 0) {
+            return new int[0];
+        }
+        int from = buffer.getInt(patternStartsOffset + 4 * state);
+        int[] patterns = new int[buffer.getInt(patternStartsOffset + 4 * (state + 1)) - from];
+        for (int i = 0; i < patterns.length; i++) {
+            patterns[i] = buffer.getInt(patternIdsOffset + 4 * (from + i));
+        }
+        return patterns;
+    }
+
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    public int getSymbolCount() {
+        return symbolCount;
+    }
+
+    public int getStartState() {
+        return startState;
+    }
+
+    public int getPatternCount() {
+        return patternCount;
+    }
+
+    /**
+     * Returns the id of the compiler that wrote the data, e.g. {@link #COMPILER_ID}.
+     *
+     * @return The compiler id from the header.
+     */
+    public String getCompilerId() {
+        return compilerId;
+    }
+}
@@ -0,0 +1,304 @@
+package geje1017.logic.matcher;
+
+import geje1017.logic.finiteStateMachine.Alphabet;
+import geje1017.logic.finiteStateMachine.FSMOperator.FSMHopcroftMinimizer;
+import geje1017.logic.finiteStateMachine.FSMOperator.FSMSubsetConstructor;
+import geje1017.logic.finiteStateMachine.IndexedFSM;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents one deterministic automaton for a whole list of patterns, so that an input is matched against all
+ * patterns in a single pass. The patterns are combined by an n-ary alternation: a new start state has an
+ * ε-transition to the start state of the minimal DFA of every pattern. The result is determinized once and
+ * minimized with Hopcroft's algorithm, starting from a partition in which only states accepting the same
+ * patterns are equivalent.
+ * Every accepting state carries the set of patterns it accepts, stored as a sorted array of pattern ids;
+ * a pattern id is the index of the pattern in the compiled list, and a smaller id means a higher priority.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class MultiPatternFSM {
+
+    /**
+     * The pattern id reported if no pattern accepts the input.
+     */
+    public static final int NO_PATTERN = -1;
+
+    private static final int[] NO_PATTERNS = new int[0];
+
+    private final Alphabet alphabet;
+    private final int symbolCount;
+    private final int patternCount;
+    private final int startState;
+    // Target state per state and symbol, indexed by state * symbolCount + symbol
+    private final int[] transitions;
+    // Index into acceptSets per state; 0 stands for the empty set
+    private final int[] acceptClasses;
+    private final int[][] acceptSets;
+
+    private MultiPatternFSM(Alphabet alphabet, int patternCount, int startState, int[] transitions,
+                            int[] acceptClasses, int[][] acceptSets) {
+        this.alphabet = alphabet;
+        this.symbolCount = alphabet.size();
+        this.patternCount = patternCount;
+        this.startState = startState;
+        this.transitions = transitions;
+        this.acceptClasses = acceptClasses;
+        this.acceptSets = acceptSets;
+    }
+
+    /**
+     * Compiles a list of infix regular expressions into one automaton.
+     *
+     * @param expressions The expressions; the index of an expression is its pattern id.
+     * @return The combined automaton.
+     * @throws IllegalArgumentException If one of the expressions is not valid.
+     */
+    public static MultiPatternFSM compile(List<String> expressions) {
+        List<CompiledFSM> patterns = new ArrayList<>(expressions.size());
+        for (int i = 0; i < expressions.size(); i++) {
+            try {
+                patterns.add(CompiledFSM.compile(expressions.get(i)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid pattern " + i + ": " + e.getMessage(), e);
+            }
+        }
+        return of(patterns);
+    }
+
+    /**
+     * Combines a list of compiled automata into one automaton.
+     *
+     * @param patterns The automata; the index of an automaton is its pattern id.
+     * @return The combined automaton.
+     */
+    public static MultiPatternFSM of(List<CompiledFSM> patterns) {
+        // The combined alphabet is the union of all pattern alphabets
+        Alphabet alphabet = new Alphabet(new char[0]);
+        for (CompiledFSM pattern : patterns) {
+            alphabet = alphabet.union(pattern.getAlphabet());
+        }
+        int symbolCount = alphabet.size();
+
+        // State 0 is the new start state, the states of pattern p follow at offsets[p]
+        int[] offsets = new int[patterns.size() + 1];
+        offsets[0] = 1;
+        for (int p = 0; p < patterns.size(); p++) {
+            offsets[p + 1] = offsets[p] + patterns.get(p).getStateCount();
+        }
+        int stateCount = offsets[patterns.size()];
+        int[][] targets = new int[stateCount * symbolCount][];
+        int[][] epsilonTargets = new int[stateCount][];
+        int[] patternOf = new int[stateCount];
+        boolean[] finalStates = new boolean[stateCount];
+        int[] noTargets = new int[0];
+        Arrays.fill(targets, noTargets);
+        Arrays.fill(epsilonTargets, noTargets);
+        patternOf[0] = NO_PATTERN;
+
+        epsilonTargets[0] = new int[patterns.size()];
+        for (int p = 0; p < patterns.size(); p++) {
+            CompiledFSM pattern = patterns.get(p);
+            epsilonTargets[0][p] = offsets[p] + pattern.getStartState();
+            for (int state = 0; state < pattern.getStateCount(); state++) {
+                int id = offsets[p] + state;
+                patternOf[id] = p;
+                finalStates[id] = pattern.isAccepting(state);
+                for (int symbol = 0; symbol < pattern.getAlphabet().size(); symbol++) {
+                    int target = pattern.getTransition(state, symbol);
+                    if (target >= 0) {
+                        int combinedSymbol = alphabet.indexOf(pattern.getAlphabet().getSymbol(symbol));
+                        targets[id * symbolCount + combinedSymbol] = new int[]{offsets[p] + target};
+                    }
+                }
+            }
+        }
+
+        IndexedFSM nfa = new IndexedFSM(alphabet, targets, epsilonTargets, new int[]{0}, finalStates);
+        FSMSubsetConstructor.Result subsets = FSMSubsetConstructor.construct(nfa);
+        return minimize(alphabet, patterns.size(), subsets, patternOf);
+    }
+
+    /**
+     * Labels every subset with the set of patterns it accepts and merges equivalent subsets.
+     */
+    private static MultiPatternFSM minimize(Alphabet alphabet, int patternCount, FSMSubsetConstructor.Result subsets,
+                                            int[] patternOf) {
+        int subsetCount = subsets.getSubsetCount();
+        int symbolCount = alphabet.size();
+        int[] transitions = subsets.getTransitions();
+
+        // Equal pattern sets share one label, label 0 is the empty set
+        Map<IntBuffer, Integer> labels = new HashMap<>();
+        List<int[]> acceptSets = new ArrayList<>();
+        acceptSets.add(NO_PATTERNS);
+        labels.put(IntBuffer.wrap(NO_PATTERNS), 0);
+        int[] subsetLabels = new int[subsetCount];
+        for (int subset = 0; subset < subsetCount; subset++) {
+            int[] members = subsets.getMembers(subset);
+            int[] accepted = new int[members.length];
+            int count = 0;
+            for (int member : members) {
+                if (subsets.getNfa().isFinalState(member)) {
+                    accepted[count++] = patternOf[member];
+                }
+            }
+            // The members are sorted by state id, and the states of a pattern are numbered consecutively
+            int[] patterns = Arrays.stream(accepted, 0, count).distinct().toArray();
+            Integer label = labels.get(IntBuffer.wrap(patterns));
+            if (label == null) {
+                label = acceptSets.size();
+                labels.put(IntBuffer.wrap(patterns), label);
+                acceptSets.add(patterns);
+            }
+            subsetLabels[subset] = label;
+        }
+
+        int[] blocks = FSMHopcroftMinimizer.refine(subsetCount, symbolCount, transitions, subsetLabels);
+        if (blocks[0] == FSMHopcroftMinimizer.DEAD_BLOCK) {
+            int[] noTransitions = new int[symbolCount];
+            Arrays.fill(noTransitions, CompiledFSM.DEAD_STATE);
+            return new MultiPatternFSM(alphabet, patternCount, 0, noTransitions, new int[1], acceptSets.toArray(new int[0][]));
+        }
+
+        // Only blocks that are reachable from the start are kept, numbered in the order they are reached
+        int[] blockIds = new int[subsetCount];
+        Arrays.fill(blockIds, CompiledFSM.DEAD_STATE);
+        int[] representatives = new int[subsetCount];
+        int blockCount = 0;
+        blockIds[blocks[0]] = blockCount;
+        representatives[blockCount++] = 0;
+        for (int next = 0; next < blockCount; next++) {
+            int subset = representatives[next];
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                int target = transitions[subset * symbolCount + symbol];
+                if (target >= 0 && blocks[target] != FSMHopcroftMinimizer.DEAD_BLOCK && blockIds[blocks[target]] < 0) {
+                    blockIds[blocks[target]] = blockCount;
+                    representatives[blockCount++] = target;
+                }
+            }
+        }
+
+        int[] minimizedTransitions = new int[blockCount * symbolCount];
+        int[] acceptClasses = new int[blockCount];
+        for (int block = 0; block < blockCount; block++) {
+            int subset = representatives[block];
+            acceptClasses[block] = subsetLabels[subset];
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                int target = transitions[subset * symbolCount + symbol];
+                boolean isDead = target < 0 || blocks[target] == FSMHopcroftMinimizer.DEAD_BLOCK;
+                minimizedTransitions[block * symbolCount + symbol] = isDead ? CompiledFSM.DEAD_STATE : blockIds[blocks[target]];
+            }
+        }
+        return new MultiPatternFSM(alphabet, patternCount, 0, minimizedTransitions, acceptClasses,
+                acceptSets.toArray(new int[0][]));
+    }
+
+    /**
+     * Runs the input through the automaton and returns the state in which it ends.
+     *
+     * @param input The input to run.
+     * @return The end state, or {@link CompiledFSM#DEAD_STATE} if no pattern can accept the input.
+     */
+    public int run(CharSequence input) {
+        int state = startState;
+        for (int i = 0, length = input.length(); i < length; i++) {
+            int symbol = alphabet.indexOf(input.charAt(i));
+            if (symbol < 0) {
+                return CompiledFSM.DEAD_STATE;
+            }
+            state = transitions[state * symbolCount + symbol];
+            if (state < 0) {
+                return CompiledFSM.DEAD_STATE;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Returns all patterns that accept the entire input.
+     *
+     * @param input The input to check.
+     * @return The ids of the accepting patterns in ascending order. The array must not be modified.
+     */
+    public int[] match(CharSequence input) {
+        return getPatterns(run(input));
+    }
+
+    /**
+     * Returns the pattern with the highest priority, i.e. the smallest id, that accepts the entire input.
+     *
+     * @param input The input to check.
+     * @return The id of the pattern, or {@link #NO_PATTERN} if no pattern accepts the input.
+     */
+    public int matchFirst(CharSequence input) {
+        return getFirstPattern(run(input));
+    }
+
+    /**
+     * Performs a single transition.
+     *
+     * @param state The current state, or {@link CompiledFSM#DEAD_STATE}.
+     * @param c The input character.
+     * @return The next state, or {@link CompiledFSM#DEAD_STATE} if there is no transition.
+     */
+    public int step(int state, char c) {
+        if (state < 0) {
+            return CompiledFSM.DEAD_STATE;
+        }
+        int symbol = alphabet.indexOf(c);
+        return symbol < 0 ? CompiledFSM.DEAD_STATE : transitions[state * symbolCount + symbol];
+    }
+
+    // Getter and setter methods
+
+    /**
+     * Returns the patterns that accept in a state.
+     *
+     * @param state The state, or {@link CompiledFSM#DEAD_STATE}.
+     * @return The ids of the accepting patterns in ascending order. The array must not be modified.
+     */
+    public int[] getPatterns(int state) {
+        return state < 0 ? NO_PATTERNS : acceptSets[acceptClasses[state]];
+    }
+
+    /**
+     * Returns the pattern with the highest priority that accepts in a state.
+     *
+     * @param state The state, or {@link CompiledFSM#DEAD_STATE}.
+     * @return The smallest accepting pattern id, or {@link #NO_PATTERN}.
+     */
+    public int getFirstPattern(int state) {
+        int[] patterns = getPatterns(state);
+        return patterns.length == 0 ? NO_PATTERN : patterns[0];
+    }
+
+    public boolean isAccepting(int state) {
+        return getPatterns(state).length > 0;
+    }
+
+    public Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    public int getTransition(int state, int symbol) {
+        return transitions[state * symbolCount + symbol];
+    }
+
+    public int getPatternCount() {
+        return patternCount;
+    }
+
+    public int getStateCount() {
+        return acceptClasses.length;
+    }
+
+    public int getStartState() {
+        return startState;
+    }
+}
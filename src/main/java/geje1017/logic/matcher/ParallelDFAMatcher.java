@@ -0,0 +1,236 @@
+package geje1017.logic.matcher;
+
+import geje1017.logic.finiteStateMachine.Alphabet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Matches a single large input on several cores by running a DFA speculatively. The input is split into chunks of
+ * a fixed size. The first chunk is run from the start state; every other chunk is run from all states at once,
+ * because the state in which the chunk is entered is not known yet. The result of a chunk is its state map, the
+ * end state for every state the chunk could be entered in. Once all chunks are done, the maps are composed from
+ * left to right, which yields the end state of every chunk and thereby whether the whole input is accepted.
+ * <p>
+ * Running a chunk from all states costs at most the number of states times the work of a sequential run, but
+ * in practice the runs converge quickly: all runs that reach the same state continue as one, and runs that reach
+ * a state from which no accepting state is reachable are dropped. Once a single run is left, the chunk is read at
+ * sequential speed. The matcher therefore pays off for small minimized DFAs, e.g. those of
+ * {@link CompiledFSM#minimize()}. Inputs that fit into a single chunk are matched sequentially.
+ * States from which no accepting state is reachable are reported as {@link CompiledFSM#DEAD_STATE}.
+ * A matcher is immutable and can match several inputs concurrently.
+ */
+public final class ParallelDFAMatcher implements RegexMatcher {
+
+    /**
+     * The default number of characters per chunk.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    // Number of characters after which runs that reached the same state are merged
+    private static final int MERGE_INTERVAL = 32;
+
+    private final CompiledFSM fsm;
+    private final Alphabet alphabet;
+    private final int symbolCount;
+    private final int stateCount;
+    // The transitions of the DFA, with DEAD_STATE for every state from which no accepting state is reachable
+    private final int[] transitions;
+    private final int[] liveStates;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a matcher with the default chunk size that runs on the common fork-join pool.
+     *
+     * @param fsm The DFA to match against; it should be minimized.
+     */
+    public ParallelDFAMatcher(CompiledFSM fsm) {
+        this(fsm, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a matcher.
+     *
+     * @param fsm The DFA to match against; it should be minimized.
+     * @param chunkSize The number of characters per chunk.
+     * @param pool The pool the chunks are matched on.
+     * @throws IllegalArgumentException If the chunk size is not positive.
+     */
+    public ParallelDFAMatcher(CompiledFSM fsm, int chunkSize, ForkJoinPool pool) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The chunk size must be positive: " + chunkSize);
+        }
+        this.fsm = fsm;
+        this.alphabet = fsm.getAlphabet();
+        this.symbolCount = alphabet.size();
+        this.stateCount = fsm.getStateCount();
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+
+        boolean[] live = fsm.liveTable();
+        int[] table = fsm.transitionTable();
+        this.transitions = new int[table.length];
+        for (int i = 0; i < table.length; i++) {
+            transitions[i] = table[i] >= 0 && live[table[i]] ? table[i] : CompiledFSM.DEAD_STATE;
+        }
+        int liveCount = 0;
+        int[] states = new int[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            if (live[state]) {
+                states[liveCount++] = state;
+            }
+        }
+        this.liveStates = Arrays.copyOf(states, liveCount);
+    }
+
+    /**
+     * Checks whether the entire input is accepted.
+     *
+     * @param input The input to check.
+     * @return {@code true} if the input is accepted, otherwise {@code false}.
+     */
+    @Override
+    public boolean matches(CharSequence input) {
+        int[] endStates = run(input);
+        return fsm.isAccepting(endStates[endStates.length - 1]);
+    }
+
+    /**
+     * Runs the DFA over the input and returns the state after every chunk.
+     *
+     * @param input The input to read.
+     * @return The end state of every chunk, at least one; the last element is the state after the whole input.
+     */
+    public int[] run(CharSequence input) {
+        int length = input.length();
+        int start = fsm.canReachAcceptingState(fsm.getStartState()) ? fsm.getStartState() : CompiledFSM.DEAD_STATE;
+        if (length <= chunkSize) {
+            return new int[]{runSingle(input, start, 0, length)};
+        }
+        int chunkCount = (int) (((long) length + chunkSize - 1) / chunkSize);
+        List<ForkJoinTask<int[]>> tasks = new ArrayList<>(chunkCount - 1);
+        for (int chunk = 1; chunk < chunkCount; chunk++) {
+            int from = chunk * chunkSize;
+            tasks.add(pool.submit(new ChunkTask(input, from, Math.min(length, from + chunkSize))));
+        }
+        int[] endStates = new int[chunkCount];
+        // The first chunk is only run from the start state, on the calling thread
+        endStates[0] = runSingle(input, start, 0, chunkSize);
+        for (int chunk = 1; chunk < chunkCount; chunk++) {
+            int[] stateMap = tasks.get(chunk - 1).join();
+            int state = endStates[chunk - 1];
+            endStates[chunk] = state < 0 ? CompiledFSM.DEAD_STATE : stateMap[state];
+        }
+        return endStates;
+    }
+
+    /**
+     * Runs the DFA from a single state over a part of the input.
+     *
+     * @return The end state, or {@link CompiledFSM#DEAD_STATE}.
+     */
+    private int runSingle(CharSequence input, int state, int from, int to) {
+        for (int i = from; i < to && state >= 0; i++) {
+            int symbol = alphabet.indexOf(input.charAt(i));
+            state = symbol < 0 ? CompiledFSM.DEAD_STATE : transitions[state * symbolCount + symbol];
+        }
+        return state;
+    }
+
+    /**
+     * Runs the DFA from all live states over a part of the input.
+     *
+     * @return The state map: the end state for every state the part is entered in.
+     */
+    private int[] runAll(CharSequence input, int from, int to) {
+        // Every run is one of the paths; runOf maps every state the part can be entered in to its path
+        int[] paths = liveStates.clone();
+        int pathCount = paths.length;
+        int[] runOf = new int[stateCount];
+        Arrays.fill(runOf, -1);
+        for (int path = 0; path < pathCount; path++) {
+            runOf[paths[path]] = path;
+        }
+        int[] pathOfState = new int[stateCount];
+        int[] renumbering = new int[pathCount];
+
+        int i = from;
+        while (i < to && pathCount > 1) {
+            for (int end = Math.min(to, i + MERGE_INTERVAL); i < end; i++) {
+                int symbol = alphabet.indexOf(input.charAt(i));
+                for (int path = 0; path < pathCount; path++) {
+                    int state = paths[path];
+                    paths[path] = symbol < 0 || state < 0 ? CompiledFSM.DEAD_STATE
+                            : transitions[state * symbolCount + symbol];
+                }
+            }
+            // Merge the paths that reached the same state and drop the dead ones
+            Arrays.fill(pathOfState, -1);
+            int merged = 0;
+            for (int path = 0; path < pathCount; path++) {
+                int state = paths[path];
+                if (state < 0) {
+                    renumbering[path] = -1;
+                } else {
+                    if (pathOfState[state] < 0) {
+                        pathOfState[state] = merged;
+                        paths[merged++] = state;
+                    }
+                    renumbering[path] = pathOfState[state];
+                }
+            }
+            if (merged < pathCount) {
+                for (int state = 0; state < stateCount; state++) {
+                    if (runOf[state] >= 0) {
+                        runOf[state] = renumbering[runOf[state]];
+                    }
+                }
+                pathCount = merged;
+            }
+        }
+        if (pathCount == 1) {
+            paths[0] = runSingle(input, paths[0], i, to);
+        }
+
+        int[] stateMap = new int[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            stateMap[state] = runOf[state] < 0 ? CompiledFSM.DEAD_STATE : paths[runOf[state]];
+        }
+        return stateMap;
+    }
+
+    // Getter and setter methods
+
+    public CompiledFSM getFsm() {
+        return fsm;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Computes the state map of one chunk.
+     */
+    private class ChunkTask extends RecursiveTask<int[]> {
+        private final CharSequence input;
+        private final int from;
+        private final int to;
+
+        ChunkTask(CharSequence input, int from, int to) {
+            this.input = input;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            return runAll(input, from, to);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package geje1017.logic.matcher;
+
+import geje1017.logic.compiler.FollowposCompiler;
+import geje1017.logic.finiteStateMachine.IndexedFSM;
+import geje1017.logic.parser.ExpressionRewriter;
+
+/**
+ * Checks whether entire inputs belong to a regular language. The engines of this package implement this interface,
+ * so that callers can choose an engine without changing the code that matches.
+ * Implementations are immutable and can be shared between threads.
+ */
+public interface RegexMatcher {
+
+    /**
+     * The maximum number of DFA states that {@link #compile(String)} builds before it switches to the
+     * bit-parallel {@link GlushkovMatcher}.
+     */
+    int DFA_STATE_BUDGET = 1024;
+
+    /**
+     * Compiles an infix regular expression with the engine that suits it best. A table-driven DFA matches
+     * fastest, because a step is a single lookup, so the minimal {@link CompiledFSM} is the default.
+     * Only if its construction is expensive, i.e. the subset construction exceeds {@link #DFA_STATE_BUDGET}
+     * states, and the expression has at most {@link GlushkovMatcher#MAX_POSITIONS} symbol occurrences, is the
+     * construction abandoned and the position automaton simulated bit-parallel by a {@link GlushkovMatcher},
+     * which is built in time linear in the number of positions. Larger expressions are always compiled into a DFA.
+     *
+     * @param expression The infix regular expression.
+     * @return The matcher for the expression.
+     * @throws IllegalArgumentException If the expression is not valid.
+     */
+    static RegexMatcher compile(String expression) {
+        IndexedFSM positionAutomaton = FollowposCompiler.toNfa(ExpressionRewriter.toSimplifiedPostfix(expression));
+        if (positionAutomaton.getStateCount() - 1 <= GlushkovMatcher.MAX_POSITIONS) {
+            CompiledFSM dfa = CompiledFSM.compile(positionAutomaton, DFA_STATE_BUDGET);
+            return dfa != null ? dfa.minimize() : GlushkovMatcher.of(positionAutomaton);
+        }
+        return CompiledFSM.compile(positionAutomaton).minimize();
+    }
+
+    /**
+     * Checks whether the entire input is accepted.
+     *
+     * @param input The input to check.
+     * @return {@code true} if the input is accepted, otherwise {@code false}.
+     */
+    boolean matches(CharSequence input);
+}
@@ -0,0 +1,486 @@
+package geje1017.logic.matcher;
+
+import geje1017.logic.finiteStateMachine.Alphabet;
+import geje1017.logic.finiteStateMachine.FSMStructure;
+import geje1017.logic.finiteStateMachine.IndexedFSM;
+import geje1017.logic.parser.RequiredLiterals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Searches for the words of a regular language inside longer inputs, instead of matching the whole input.
+ * Three automata are derived from the minimal DFA of the language L:
+ * <ul>
+ *     <li>a forward search DFA for {@code Σ*L}, which finds out in one pass whether and where the first match ends,</li>
+ *     <li>a reverse search DFA for {@code Σ*L^R}, built by reversing the transitions of the minimal DFA, which is
+ *     run from the end of the input to the front and marks every position at which a match starts,</li>
+ *     <li>the minimal DFA itself, which extends a match from its start as far as possible.</li>
+ * </ul>
+ * Matches are reported leftmost-longest: among all matches the one with the smallest start is chosen, and of those
+ * the longest one. {@link #findAll(CharSequence)} reports non-overlapping matches from left to right.
+ * Characters outside the alphabet of the expression can never be part of a match.
+ * A search reads the input once forwards and once backwards; every reported match is additionally read up to the
+ * point where the minimal DFA cannot accept anymore, which is usually right behind the match. To keep
+ * {@link #findAll(CharSequence)} linear when these extensions overlap, e.g. for {@code a|a*b} on a long run of
+ * {@code a}, the pairs of state and position behind the last accepting state of an extension are remembered in a
+ * {@link FailureSet}, and later extensions stop as soon as they reach one of them.
+ * <p>
+ * Most of the input is usually skipped with literals that every match must contain (see {@link RequiredLiterals}).
+ * An input without the required infix is rejected by a single {@link String#indexOf(String, int)}, which the JVM
+ * implements with vector instructions. Whenever the forward search DFA is back in its start state, i.e. no match
+ * has begun, it jumps to the next occurrence of the required prefix, and the reverse search DFA likewise jumps to
+ * the previous occurrence of the required suffix. The prefix is read from the minimal DFA; the suffix and the
+ * infix are only known if the search was compiled from an expression.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class SearchFSM {
+
+    private final CompiledFSM fsm;
+    private final CompiledFSM forward;
+    private final CompiledFSM reverse;
+    private final String prefix;
+    private final String suffix;
+    private final String infix;
+
+    private SearchFSM(CompiledFSM fsm, CompiledFSM forward, CompiledFSM reverse, String suffix, String infix) {
+        this.fsm = fsm;
+        this.forward = forward;
+        this.reverse = reverse;
+        this.prefix = requiredPrefix(fsm);
+        this.suffix = suffix;
+        this.infix = infix.length() > prefix.length() ? infix : prefix;
+    }
+
+    /**
+     * Compiles a regular expression for searching, together with the literals every match contains.
+     *
+     * @param expression The infix regular expression.
+     * @return The search automata of the expression.
+     */
+    public static SearchFSM compile(String expression) {
+        RequiredLiterals literals = RequiredLiterals.of(expression);
+        return of(CompiledFSM.compile(expression), literals.getSuffix(), literals.getInfix());
+    }
+
+    /**
+     * Creates the search automata of an FSM, e.g. the result of an evaluation.
+     *
+     * @param fsm The FSM describing the words to search for.
+     * @return The search automata of the FSM.
+     */
+    public static SearchFSM of(FSMStructure fsm) {
+        return of(CompiledFSM.compile(fsm));
+    }
+
+    /**
+     * Creates the search automata of a compiled automaton.
+     *
+     * @param fsm The automaton describing the words to search for.
+     * @return The search automata of the automaton.
+     */
+    public static SearchFSM of(CompiledFSM fsm) {
+        return of(fsm, "", "");
+    }
+
+    private static SearchFSM of(CompiledFSM fsm, String suffix, String infix) {
+        CompiledFSM minimal = fsm.minimize();
+        return new SearchFSM(minimal, CompiledFSM.compile(toForwardNfa(minimal)).minimize(),
+                CompiledFSM.compile(toReverseNfa(minimal)).minimize(), suffix, infix);
+    }
+
+    /**
+     * Reads the longest common prefix of all accepted words from the DFA: the path from the start state
+     * as long as it is not accepting and only one of its transitions can still lead to acceptance.
+     */
+    private static String requiredPrefix(CompiledFSM fsm) {
+        StringBuilder prefix = new StringBuilder();
+        int state = fsm.getStartState();
+        while (state >= 0 && !fsm.isAccepting(state) && prefix.length() < fsm.getStateCount()) {
+            int next = -1;
+            for (int symbol = 0; symbol < fsm.getAlphabet().size(); symbol++) {
+                int target = fsm.getTransition(state, symbol);
+                if (target >= 0 && fsm.canReachAcceptingState(target)) {
+                    if (next >= 0) {
+                        return prefix.toString();
+                    }
+                    next = symbol;
+                }
+            }
+            if (next < 0) {
+                // The language is empty
+                return "";
+            }
+            prefix.append(fsm.getAlphabet().getSymbol(next));
+            state = fsm.getTransition(state, next);
+        }
+        return prefix.toString();
+    }
+
+    /**
+     * Builds an NFA for {@code Σ*L}: a new start state loops on every symbol and has an ε-transition
+     * to the start state of the DFA.
+     */
+    private static IndexedFSM toForwardNfa(CompiledFSM fsm) {
+        int stateCount = fsm.getStateCount();
+        int symbolCount = fsm.getAlphabet().size();
+        int loop = stateCount;
+        int[][] targets = new int[(stateCount + 1) * symbolCount][];
+        int[][] epsilonTargets = new int[stateCount + 1][];
+        for (int state = 0; state < stateCount; state++) {
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                int target = fsm.getTransition(state, symbol);
+                targets[state * symbolCount + symbol] = target < 0 ? new int[0] : new int[]{target};
+            }
+            epsilonTargets[state] = new int[0];
+        }
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            targets[loop * symbolCount + symbol] = new int[]{loop};
+        }
+        epsilonTargets[loop] = new int[]{fsm.getStartState()};
+
+        boolean[] finalStates = new boolean[stateCount + 1];
+        for (int state = 0; state < stateCount; state++) {
+            finalStates[state] = fsm.isAccepting(state);
+        }
+        return new IndexedFSM(fsm.getAlphabet(), targets, epsilonTargets, new int[]{loop}, finalStates);
+    }
+
+    /**
+     * Builds an NFA for {@code Σ*L^R}: all transitions of the DFA are reversed, the start state of the DFA becomes
+     * the only final state, and a new start state loops on every symbol and has ε-transitions to the accepting states.
+     */
+    private static IndexedFSM toReverseNfa(CompiledFSM fsm) {
+        int stateCount = fsm.getStateCount();
+        int symbolCount = fsm.getAlphabet().size();
+        int loop = stateCount;
+
+        // Count the reversed edges first, so that the source lists can be filled in ascending order
+        int[] counts = new int[(stateCount + 1) * symbolCount];
+        for (int state = 0; state < stateCount; state++) {
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                int target = fsm.getTransition(state, symbol);
+                if (target >= 0) {
+                    counts[target * symbolCount + symbol]++;
+                }
+            }
+        }
+        int[][] targets = new int[(stateCount + 1) * symbolCount][];
+        for (int i = 0; i < stateCount * symbolCount; i++) {
+            targets[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int state = 0; state < stateCount; state++) {
+            for (int symbol = 0; symbol < symbolCount; symbol++) {
+                int target = fsm.getTransition(state, symbol);
+                if (target >= 0) {
+                    int index = target * symbolCount + symbol;
+                    targets[index][counts[index]++] = state;
+                }
+            }
+        }
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            targets[loop * symbolCount + symbol] = new int[]{loop};
+        }
+
+        int[][] epsilonTargets = new int[stateCount + 1][];
+        Arrays.fill(epsilonTargets, new int[0]);
+        epsilonTargets[loop] = IntStream.range(0, stateCount).filter(fsm::isAccepting).toArray();
+
+        boolean[] finalStates = new boolean[stateCount + 1];
+        finalStates[fsm.getStartState()] = true;
+        return new IndexedFSM(fsm.getAlphabet(), targets, epsilonTargets, new int[]{loop}, finalStates);
+    }
+
+    /**
+     * Checks whether the input contains a word of the language. The input is read at most once.
+     *
+     * @param input The input to search.
+     * @return {@code true} if some substring of the input is accepted.
+     */
+    public boolean contains(CharSequence input) {
+        return firstMatchEnd(input, 0) >= 0;
+    }
+
+    /**
+     * Finds the leftmost-longest match in the input.
+     *
+     * @param input The input to search.
+     * @return The match, or {@code null} if the input contains no match.
+     */
+    public Match find(CharSequence input) {
+        return find(input, 0);
+    }
+
+    /**
+     * Finds the leftmost-longest match that starts at or after the given position.
+     *
+     * @param input The input to search.
+     * @param from The position at which the search starts.
+     * @return The match, or {@code null} if there is no match behind the position.
+     * @throws IndexOutOfBoundsException If the position is outside the input.
+     */
+    public Match find(CharSequence input, int from) {
+        if (from < 0 || from > input.length()) {
+            throw new IndexOutOfBoundsException("Invalid start position: " + from);
+        }
+        if (firstMatchEnd(input, from) < 0) {
+            return null;
+        }
+        int start = matchStarts(input, from).nextSetBit(from);
+        return new Match(start, longestMatchEnd(input, start, new FailureSet(input.length())));
+    }
+
+    /**
+     * Finds all non-overlapping leftmost-longest matches from left to right.
+     * After an empty match the search continues one character further.
+     *
+     * @param input The input to search.
+     * @return The matches in ascending order.
+     */
+    public List<Match> findAll(CharSequence input) {
+        List<Match> matches = new ArrayList<>();
+        if (firstMatchEnd(input, 0) < 0) {
+            return matches;
+        }
+        BitSet starts = matchStarts(input, 0);
+        FailureSet failures = new FailureSet(input.length());
+        int position = 0;
+        int start;
+        while (position <= input.length() && (start = starts.nextSetBit(position)) >= 0) {
+            int end = longestMatchEnd(input, start, failures);
+            matches.add(new Match(start, end));
+            position = end > start ? end : start + 1;
+        }
+        return matches;
+    }
+
+    /**
+     * Runs the forward search DFA until it accepts for the first time.
+     *
+     * @return The end of the match that ends first, or {@code -1} if there is none.
+     */
+    private int firstMatchEnd(CharSequence input, int from) {
+        Alphabet alphabet = forward.getAlphabet();
+        int start = forward.getStartState();
+        int state = start;
+        if (forward.isAccepting(state)) {
+            return from;
+        }
+        if (!infix.isEmpty() && indexOf(input, infix, from) < 0) {
+            return -1;
+        }
+        for (int i = from, length = input.length(); i < length; i++) {
+            if (state == start && !prefix.isEmpty()) {
+                // No match has begun, so the next one starts at the next occurrence of the prefix
+                i = indexOf(input, prefix, i);
+                if (i < 0) {
+                    return -1;
+                }
+            }
+            int symbol = alphabet.indexOf(input.charAt(i));
+            // Σ* absorbs every character, so an unknown character returns to the start state
+            state = symbol < 0 ? start : forward.getTransition(state, symbol);
+            if (state < 0) {
+                // Only the automaton of the empty language has missing transitions
+                return -1;
+            }
+            if (forward.isAccepting(state)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Runs the reverse search DFA from the end of the input back to the given position.
+     * The reverse DFA accepts at position {@code i} exactly if a match starts at {@code i}.
+     *
+     * @return The positions at which a match starts.
+     */
+    private BitSet matchStarts(CharSequence input, int from) {
+        Alphabet alphabet = reverse.getAlphabet();
+        int start = reverse.getStartState();
+        BitSet starts = new BitSet(input.length() + 1);
+        int state = start;
+        if (reverse.isAccepting(state)) {
+            starts.set(input.length());
+        }
+        for (int i = input.length() - 1; i >= from; i--) {
+            if (state == start && !suffix.isEmpty()) {
+                // No match is pending, so the next match to the left ends with the previous occurrence of the suffix
+                int occurrence = lastIndexOf(input, suffix, i + 1 - suffix.length());
+                if (occurrence < 0) {
+                    break;
+                }
+                i = occurrence + suffix.length() - 1;
+            }
+            int symbol = alphabet.indexOf(input.charAt(i));
+            state = symbol < 0 ? start : reverse.getTransition(state, symbol);
+            if (reverse.isAccepting(state)) {
+                starts.set(i);
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * Runs the minimal DFA from the start of a match until it cannot accept anymore or reaches a known failure.
+     *
+     * @param failures The failures of the previous runs over the same input; the failures of this run are added.
+     * @return The end of the longest match starting at the given position.
+     */
+    private int longestMatchEnd(CharSequence input, int start, FailureSet failures) {
+        int state = fsm.getStartState();
+        int end = start;
+        for (int i = start, length = input.length(); ; i++) {
+            if (fsm.isAccepting(state)) {
+                end = i;
+                failures.clearVisits();
+            }
+            // A known failure means that no accepting state follows behind this position
+            if (failures.contains(state, i) || i == length) {
+                break;
+            }
+            failures.visit(state, i);
+            state = fsm.step(state, input.charAt(i));
+            if (!fsm.canReachAcceptingState(state)) {
+                break;
+            }
+        }
+        failures.failVisits();
+        return end;
+    }
+
+    private static int indexOf(CharSequence input, String literal, int from) {
+        if (input instanceof String string) {
+            return string.indexOf(literal, from);
+        }
+        char first = literal.charAt(0);
+        for (int i = Math.max(from, 0), last = input.length() - literal.length(); i <= last; i++) {
+            if (input.charAt(i) == first && regionMatches(input, i, literal)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(CharSequence input, String literal, int from) {
+        if (input instanceof String string) {
+            return string.lastIndexOf(literal, from);
+        }
+        char first = literal.charAt(0);
+        for (int i = Math.min(from, input.length() - literal.length()); i >= 0; i--) {
+            if (input.charAt(i) == first && regionMatches(input, i, literal)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(CharSequence input, int offset, String literal) {
+        for (int j = 1; j < literal.length(); j++) {
+            if (input.charAt(offset + j) != literal.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Getter and setter methods
+
+    public CompiledFSM getFsm() {
+        return fsm;
+    }
+
+    public CompiledFSM getForwardFsm() {
+        return forward;
+    }
+
+    public CompiledFSM getReverseFsm() {
+        return reverse;
+    }
+
+    /**
+     * Returns the literal every match starts with.
+     *
+     * @return The required prefix, or an empty string if there is none.
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Returns the literal every match ends with.
+     *
+     * @return The required suffix, or an empty string if there is none or the search was not compiled from an
+     * expression.
+     */
+    public String getSuffix() {
+        return suffix;
+    }
+
+    /**
+     * Returns the longest known literal that every match contains.
+     *
+     * @return The required infix, or an empty string if there is none.
+     */
+    public String getInfix() {
+        return infix;
+    }
+
+    /**
+     * Represents the span of a match in the input.
+     */
+    public static final class Match {
+        private final int start;
+        private final int end;
+
+        public Match(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Match match = (Match) o;
+            return start == match.start && end == match.end;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + ")";
+        }
+
+        // Getter and setter methods
+
+        /**
+         * Returns the index of the first character of the match.
+         *
+         * @return The start of the match (inclusive).
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * Returns the index after the last character of the match.
+         *
+         * @return The end of the match (exclusive).
+         */
+        public int getEnd() {
+            return end;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package geje1017.logic.matcher;
+
+import geje1017.logic.finiteStateMachine.Alphabet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Runs input against a {@link CompiledFSM} piece by piece, e.g. as it arrives from the network.
+ * The input is never buffered: between two calls the matcher only keeps the id of the current state,
+ * so a stream can be checked in constant memory. After every call the matcher reports whether the input
+ * seen so far is accepted, rejected or dead. A dead input cannot be accepted anymore, no matter what follows,
+ * and the rest of the input is skipped.
+ * Byte input is decoded with a charset; a multi-byte character that is split between two chunks is left
+ * in the {@link ByteBuffer} and has to be passed again together with the next chunk, as usual for NIO buffers.
+ * Streaming matchers are not thread-safe; each stream needs its own matcher from {@link CompiledFSM#streamingMatcher()}.
+ */
+public final class StreamingMatcher {
+
+    /**
+     * Enumerates the results of a streaming match.
+     */
+    public enum Status {
+        /**
+         * The input seen so far is accepted.
+         */
+        ACCEPT,
+        /**
+         * The input seen so far is not accepted, but a continuation of it may be.
+         */
+        REJECT,
+        /**
+         * Neither the input seen so far nor any continuation of it can be accepted.
+         */
+        DEAD
+    }
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private final CompiledFSM fsm;
+    private final Alphabet alphabet;
+    private final int symbolCount;
+    private final int[] transitions;
+    private final boolean[] acceptingStates;
+    private final boolean[] liveStates;
+    private final CharsetDecoder decoder;
+
+    private int state;
+    private long consumed;
+    private long longestAcceptedPrefix;
+
+    // Scratch buffers for decoding and reading, created on first use
+    private CharBuffer chars;
+    private byte[] bytes;
+
+    /**
+     * Constructs a streaming matcher in the start state of the given automaton.
+     *
+     * @param fsm The compiled automaton to run.
+     * @param charset The charset used to decode byte input.
+     */
+    StreamingMatcher(CompiledFSM fsm, Charset charset) {
+        this.fsm = fsm;
+        this.alphabet = fsm.getAlphabet();
+        this.symbolCount = alphabet.size();
+        this.transitions = fsm.transitionTable();
+        this.acceptingStates = fsm.acceptTable();
+        this.liveStates = fsm.liveTable();
+        // Malformed input is replaced by a character outside the alphabet and therefore leads to the dead state
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        reset();
+    }
+
+    /**
+     * Resets the matcher to the start state, so that a new stream can be matched.
+     */
+    public void reset() {
+        resume(fsm.getStartState());
+    }
+
+    /**
+     * Continues matching from a state that was obtained by {@link #getState()}, e.g. from a matcher that was
+     * discarded between two chunks of the same stream. The counters of the matcher start again at zero.
+     *
+     * @param state The state to continue from, or {@link CompiledFSM#DEAD_STATE}.
+     * @throws IllegalArgumentException If the state does not belong to the automaton.
+     */
+    public void resume(int state) {
+        if (state < CompiledFSM.DEAD_STATE || state >= fsm.getStateCount()) {
+            throw new IllegalArgumentException("Invalid state: " + state);
+        }
+        this.state = state >= 0 && liveStates[state] ? state : CompiledFSM.DEAD_STATE;
+        this.consumed = 0;
+        this.longestAcceptedPrefix = isAccepted() ? 0 : -1;
+        decoder.reset();
+    }
+
+    /**
+     * Feeds all characters of an array.
+     *
+     * @param input The characters.
+     * @return The status after the characters.
+     */
+    public Status feed(char[] input) {
+        return feed(input, 0, input.length);
+    }
+
+    /**
+     * Feeds a slice of a character array.
+     *
+     * @param input The characters.
+     * @param offset The index of the first character.
+     * @param length The number of characters.
+     * @return The status after the characters.
+     */
+    public Status feed(char[] input, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > input.length) {
+            throw new IndexOutOfBoundsException("Invalid slice: offset " + offset + ", length " + length);
+        }
+        int current = state;
+        if (current < 0) {
+            return Status.DEAD;
+        }
+        long start = consumed - offset;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            int symbol = alphabet.indexOf(input[i]);
+            current = symbol < 0 ? CompiledFSM.DEAD_STATE : transitions[current * symbolCount + symbol];
+            if (current < 0 || !liveStates[current]) {
+                state = CompiledFSM.DEAD_STATE;
+                consumed = start + i;
+                return Status.DEAD;
+            }
+            if (acceptingStates[current]) {
+                longestAcceptedPrefix = start + i + 1;
+            }
+        }
+        state = current;
+        consumed = start + end;
+        return getStatus();
+    }
+
+    /**
+     * Feeds the remaining characters of a buffer. The position of the buffer is moved to its limit,
+     * also if the input became dead before.
+     *
+     * @param input The characters.
+     * @return The status after the characters.
+     */
+    public Status feed(CharBuffer input) {
+        if (input.hasArray()) {
+            feed(input.array(), input.arrayOffset() + input.position(), input.remaining());
+        } else {
+            char[] scratch = chars().array();
+            while (input.hasRemaining() && state >= 0) {
+                int length = Math.min(scratch.length, input.remaining());
+                input.get(scratch, 0, length);
+                feed(scratch, 0, length);
+            }
+        }
+        input.position(input.limit());
+        return getStatus();
+    }
+
+    /**
+     * Feeds the remaining bytes of a buffer, decoded with the charset of the matcher.
+     * The bytes of a character that is incomplete at the end of the buffer are not consumed.
+     * If the input becomes dead, the position of the buffer is moved to its limit.
+     *
+     * @param input The bytes.
+     * @return The status after the decoded characters.
+     */
+    public Status feed(ByteBuffer input) {
+        decode(input, false);
+        if (state < 0) {
+            input.position(input.limit());
+        }
+        return getStatus();
+    }
+
+    /**
+     * Reads and feeds all characters of a reader until its end or until the input becomes dead.
+     * The reader is not closed.
+     *
+     * @param reader The reader.
+     * @return The status after the characters.
+     * @throws IOException If the reader fails.
+     */
+    public Status feed(Reader reader) throws IOException {
+        char[] scratch = chars().array();
+        int length;
+        while (state >= 0 && (length = reader.read(scratch, 0, scratch.length)) >= 0) {
+            feed(scratch, 0, length);
+        }
+        return getStatus();
+    }
+
+    /**
+     * Reads and feeds all bytes of a stream until its end or until the input becomes dead.
+     * The bytes are decoded with the charset of the matcher; an incomplete character at the end of the stream
+     * makes the input dead. The stream is not closed.
+     *
+     * @param stream The stream.
+     * @return The status after the decoded characters.
+     * @throws IOException If the stream fails.
+     */
+    public Status feed(InputStream stream) throws IOException {
+        if (bytes == null) {
+            bytes = new byte[BUFFER_SIZE];
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int length;
+        while (state >= 0 && (length = stream.read(bytes, buffer.position(), bytes.length - buffer.position())) >= 0) {
+            buffer.limit(buffer.position() + length).position(0);
+            decode(buffer, false);
+            buffer.compact();
+        }
+        if (state >= 0) {
+            buffer.flip();
+            decode(buffer, true);
+        }
+        return getStatus();
+    }
+
+    /**
+     * Decodes bytes in portions that fit into the scratch buffer and feeds the characters.
+     */
+    private void decode(ByteBuffer input, boolean endOfInput) {
+        CharBuffer scratch = chars();
+        CoderResult result;
+        do {
+            scratch.clear();
+            result = decoder.decode(input, scratch, endOfInput);
+            if (endOfInput && result.isUnderflow()) {
+                result = decoder.flush(scratch);
+            }
+            feed(scratch.array(), 0, scratch.position());
+        } while (result.isOverflow() && state >= 0);
+    }
+
+    private CharBuffer chars() {
+        if (chars == null) {
+            chars = CharBuffer.allocate(BUFFER_SIZE);
+        }
+        return chars;
+    }
+
+    // Getter and setter methods
+
+    public CompiledFSM getFsm() {
+        return fsm;
+    }
+
+    /**
+     * Returns the status of the input seen so far.
+     *
+     * @return {@link Status#DEAD} if no continuation can be accepted, {@link Status#ACCEPT} if the input is
+     *         accepted, otherwise {@link Status#REJECT}.
+     */
+    public Status getStatus() {
+        if (state < 0) {
+            return Status.DEAD;
+        }
+        return acceptingStates[state] ? Status.ACCEPT : Status.REJECT;
+    }
+
+    public boolean isAccepted() {
+        return state >= 0 && acceptingStates[state];
+    }
+
+    /**
+     * Returns the id of the current state. Together with {@link #resume(int)} it is all that is needed
+     * to continue the match later.
+     *
+     * @return The current state, or {@link CompiledFSM#DEAD_STATE} if the input is dead.
+     */
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * Returns the number of characters consumed since the last reset.
+     * For a dead input this is the position of the character that made it dead.
+     *
+     * @return The number of consumed characters.
+     */
+    public long getConsumed() {
+        return consumed;
+    }
+
+    /**
+     * Returns the length of the longest prefix of the input that is accepted.
+     *
+     * @return The number of characters of the longest accepted prefix, or {@code -1} if no prefix is accepted.
+     */
+    public long getLongestAcceptedPrefix() {
+        return longestAcceptedPrefix;
+    }
+}
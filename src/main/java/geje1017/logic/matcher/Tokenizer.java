@@ -0,0 +1,203 @@
+package geje1017.logic.matcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Splits an input into tokens according to an ordered list of token rules, each consisting of a name and a
+ * regular expression. All rules are compiled into one {@link MultiPatternFSM}, whose pattern ids are the token types.
+ * The input is split by maximal munch: every token is the longest non-empty prefix of the remaining input that is
+ * accepted by some rule, and if several rules accept that prefix, the rule that comes first wins.
+ * Characters at which no token starts are reported as tokens of the type {@link #UNKNOWN} with a length of one.
+ * <p>
+ * To stay linear in the length of the input even if a token has to be backtracked, the tokenizer remembers every
+ * pair of state and position from which no accepting state was reached in a {@link FailureSet} and stops as soon
+ * as it reaches such a pair again.
+ * Tokens are reported as {@code (type, start, end)} triples, either to a {@link TokenConsumer} or packed into an
+ * int array; no objects are allocated per token. Instances are immutable and can be shared between threads.
+ */
+public final class Tokenizer {
+
+    /**
+     * The token type of a character at which no token starts.
+     */
+    public static final int UNKNOWN = -1;
+
+    private final MultiPatternFSM fsm;
+    private final String[] names;
+
+    private Tokenizer(MultiPatternFSM fsm, String[] names) {
+        this.fsm = fsm;
+        this.names = names;
+    }
+
+    /**
+     * Compiles a list of token rules into a tokenizer.
+     *
+     * @param rules The rules in descending priority; the index of a rule is its token type.
+     * @return The tokenizer.
+     * @throws IllegalArgumentException If the expression of a rule is not valid.
+     */
+    public static Tokenizer compile(List<Rule> rules) {
+        List<String> expressions = new ArrayList<>(rules.size());
+        String[] names = new String[rules.size()];
+        for (int i = 0; i < rules.size(); i++) {
+            expressions.add(rules.get(i).getExpression());
+            names[i] = rules.get(i).getName();
+        }
+        return new Tokenizer(MultiPatternFSM.compile(expressions), names);
+    }
+
+    /**
+     * Splits the input into tokens and passes them to a consumer in input order.
+     *
+     * @param input The input to split.
+     * @param consumer The consumer of the tokens.
+     * @return The number of tokens.
+     */
+    public int tokenize(CharSequence input, TokenConsumer consumer) {
+        int length = input.length();
+        int startState = fsm.getStartState();
+        FailureSet failures = new FailureSet(length);
+        int tokenCount = 0;
+
+        int position = 0;
+        while (position < length) {
+            int state = startState;
+            int i = position;
+            int tokenEnd = -1;
+            int tokenType = UNKNOWN;
+            while (true) {
+                if (i > position && fsm.isAccepting(state)) {
+                    tokenEnd = i;
+                    tokenType = fsm.getFirstPattern(state);
+                    failures.clearVisits();
+                }
+                // A known failure means that no accepting state follows behind this position
+                if (failures.contains(state, i)) {
+                    break;
+                }
+                failures.visit(state, i);
+                if (i == length) {
+                    break;
+                }
+                state = fsm.step(state, input.charAt(i));
+                if (state < 0) {
+                    break;
+                }
+                i++;
+            }
+
+            // No accepting state follows behind the pairs visited since the token end, whatever the start position
+            failures.failVisits();
+
+            if (tokenEnd < 0) {
+                tokenEnd = position + 1;
+            }
+            consumer.accept(tokenType, position, tokenEnd);
+            tokenCount++;
+            position = tokenEnd;
+        }
+        return tokenCount;
+    }
+
+    /**
+     * Splits the input into tokens.
+     *
+     * @param input The input to split.
+     * @return The tokens as consecutive {@code (type, start, end)} triples.
+     */
+    public int[] tokenize(CharSequence input) {
+        TripleList tokens = new TripleList();
+        tokenize(input, tokens);
+        return tokens.toArray();
+    }
+
+    // Getter and setter methods
+
+    /**
+     * Returns the name of a token type.
+     *
+     * @param type The token type.
+     * @return The name of the rule, or {@code "UNKNOWN"} for {@link #UNKNOWN}.
+     */
+    public String getTokenName(int type) {
+        return type == UNKNOWN ? "UNKNOWN" : names[type];
+    }
+
+    public int getRuleCount() {
+        return names.length;
+    }
+
+    public MultiPatternFSM getFsm() {
+        return fsm;
+    }
+
+    /**
+     * Receives the tokens of an input.
+     */
+    @FunctionalInterface
+    public interface TokenConsumer {
+
+        /**
+         * Receives one token.
+         *
+         * @param type The token type, i.e. the index of the rule, or {@link #UNKNOWN}.
+         * @param start The index of the first character of the token.
+         * @param end The index after the last character of the token.
+         */
+        void accept(int type, int start, int end);
+    }
+
+    /**
+     * Represents a token rule consisting of a name and an infix regular expression.
+     */
+    public static final class Rule {
+        private final String name;
+        private final String expression;
+
+        public Rule(String name, String expression) {
+            this.name = Objects.requireNonNull(name);
+            this.expression = Objects.requireNonNull(expression);
+        }
+
+        @Override
+        public String toString() {
+            return name + " = " + expression;
+        }
+
+        // Getter and setter methods
+
+        public String getName() {
+            return name;
+        }
+
+        public String getExpression() {
+            return expression;
+        }
+    }
+
+    /**
+     * A growable int array that collects token triples.
+     */
+    private static final class TripleList implements TokenConsumer {
+        private int[] values = new int[48];
+        private int size;
+
+        @Override
+        public void accept(int type, int start, int end) {
+            if (size + 3 > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = type;
+            values[size++] = start;
+            values[size++] = end;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package geje1017.logic.parser;
+
+import geje1017.logic.postfix.ExpressionValidator.InvalidExpressionException;
+
+import java.util.*;
+
+/**
+ * Shrinks the syntax tree of a regular expression with algebraic identities before an automaton is built from it.
+ * Every symbol that is removed from the expression is one state less in the NFA and makes the subset construction
+ * cheaper. The tree is rewritten bottom-up; for every rule the rewriter counts how many nodes it removed.
+ * Nested concatenations and alternations are flattened on the way without being counted.
+ * The language of the expression never changes.
+ */
+public class ExpressionRewriter {
+
+    /**
+     * Enumerates the rewrite rules.
+     */
+    public enum Rule {
+        /**
+         * {@code (a*)* = (a+)* = (a*)+ = a*} and {@code (a+)+ = a+}.
+         */
+        NESTED_CLOSURE,
+        /**
+         * {@code (ε|a)* = (ε|a)+ = a*}, {@code ε* = Ø* = ε} and {@code Ø+ = Ø}.
+         */
+        EMPTY_STRING_IN_CLOSURE,
+        /**
+         * {@code a|a = a}.
+         */
+        DUPLICATE_ALTERNATIVE,
+        /**
+         * {@code a*a* = a*} and {@code a*a+ = a+a* = a+}.
+         */
+        ADJACENT_CLOSURES,
+        /**
+         * {@code ab|ac = a(b|c)} and {@code a|ab = a(ε|b)}.
+         */
+        COMMON_PREFIX,
+        /**
+         * {@code εa = a}, {@code Øa = Ø} and {@code Ø|a = a}.
+         */
+        NEUTRAL_ELEMENT
+    }
+
+    private final long[] removedNodes = new long[Rule.values().length];
+
+    /**
+     * Parses, rewrites and converts an infix expression into postfix notation.
+     *
+     * @param expression The infix expression.
+     * @return The postfix form of the simplified expression.
+     * @throws IllegalArgumentException If the expression is not valid.
+     */
+    public static String toSimplifiedPostfix(String expression) {
+        try {
+            return new ExpressionRewriter().rewrite(RegexParser.parse(expression)).toPostfix();
+        } catch (InvalidExpressionException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rewrites a syntax tree until none of the rules applies anymore.
+     *
+     * @param node The root of the tree.
+     * @return The root of the simplified tree, which accepts the same language.
+     */
+    public RegexNode rewrite(RegexNode node) {
+        if (node instanceof RegexNode.Closure closure) {
+            return rewriteClosure(closure);
+        }
+        if (node instanceof RegexNode.Concatenation) {
+            List<RegexNode> children = new ArrayList<>();
+            for (RegexNode child : node.getChildren()) {
+                children.add(rewrite(child));
+            }
+            return rewriteConcatenation(node.getPosition(), children);
+        }
+        if (node instanceof RegexNode.Alternation) {
+            List<RegexNode> children = new ArrayList<>();
+            for (RegexNode child : node.getChildren()) {
+                children.add(rewrite(child));
+            }
+            return rewriteAlternation(node.getPosition(), children);
+        }
+        return node;
+    }
+
+    private RegexNode rewriteClosure(RegexNode.Closure closure) {
+        // Chains of closures are unwrapped without recursion, as they can be arbitrarily long
+        RegexNode inner = closure.getInner();
+        boolean isPositive = closure.isPositive();
+        while (inner instanceof RegexNode.Closure innerClosure) {
+            isPositive &= innerClosure.isPositive();
+            inner = innerClosure.getInner();
+        }
+        record(Rule.NESTED_CLOSURE, closure.getSize() - 1 - inner.getSize());
+        return closureOf(closure.getPosition(), rewrite(inner), isPositive);
+    }
+
+    /**
+     * Creates the closure of an already simplified expression.
+     */
+    private RegexNode closureOf(int position, RegexNode inner, boolean isPositive) {
+        if (inner instanceof RegexNode.EmptyString || (inner instanceof RegexNode.EmptySet && !isPositive)) {
+            record(Rule.EMPTY_STRING_IN_CLOSURE, 1);
+            return new RegexNode.EmptyString(position);
+        }
+        if (inner instanceof RegexNode.EmptySet) {
+            record(Rule.EMPTY_STRING_IN_CLOSURE, 1);
+            return inner;
+        }
+        if (inner instanceof RegexNode.Closure innerClosure) {
+            record(Rule.NESTED_CLOSURE, 1);
+            return new RegexNode.Closure(position, innerClosure.getInner(), isPositive && innerClosure.isPositive());
+        }
+        if (inner instanceof RegexNode.Alternation && containsEmptyString(inner.getChildren())) {
+            List<RegexNode> alternatives = new ArrayList<>();
+            for (RegexNode alternative : inner.getChildren()) {
+                if (!(alternative instanceof RegexNode.EmptyString)) {
+                    alternatives.add(alternative);
+                }
+            }
+            RegexNode withoutEmptyString = alternatives.size() == 1
+                    ? alternatives.get(0)
+                    : new RegexNode.Alternation(inner.getPosition(), alternatives);
+            record(Rule.EMPTY_STRING_IN_CLOSURE, inner.getSize() - withoutEmptyString.getSize());
+            return closureOf(position, withoutEmptyString, false);
+        }
+        return new RegexNode.Closure(position, inner, isPositive);
+    }
+
+    private static boolean containsEmptyString(List<RegexNode> nodes) {
+        for (RegexNode node : nodes) {
+            if (node instanceof RegexNode.EmptyString) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates the concatenation of already simplified operands.
+     */
+    private RegexNode rewriteConcatenation(int position, List<RegexNode> operands) {
+        List<RegexNode> result = new ArrayList<>();
+        for (RegexNode operand : operands) {
+            if (operand instanceof RegexNode.Concatenation) {
+                result.addAll(operand.getChildren());
+            } else {
+                result.add(operand);
+            }
+        }
+
+        // ε is the neutral element, Ø absorbs everything
+        int before = nodeSizeOf(result);
+        for (RegexNode operand : result) {
+            if (operand instanceof RegexNode.EmptySet) {
+                record(Rule.NEUTRAL_ELEMENT, before - 1);
+                return operand;
+            }
+        }
+        result.removeIf(operand -> operand instanceof RegexNode.EmptyString);
+        record(Rule.NEUTRAL_ELEMENT, before - nodeSizeOf(result));
+        if (result.isEmpty()) {
+            return new RegexNode.EmptyString(position);
+        }
+
+        // Merge adjacent closures of the same expression
+        List<RegexNode> merged = new ArrayList<>();
+        for (RegexNode operand : result) {
+            RegexNode previous = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (previous instanceof RegexNode.Closure closure1 && operand instanceof RegexNode.Closure closure2
+                    && closure1.getInner().equals(closure2.getInner())
+                    && !(closure1.isPositive() && closure2.isPositive())) {
+                boolean isPositive = closure1.isPositive() || closure2.isPositive();
+                merged.set(merged.size() - 1, new RegexNode.Closure(closure1.getPosition(), closure1.getInner(), isPositive));
+            } else {
+                merged.add(operand);
+            }
+        }
+        record(Rule.ADJACENT_CLOSURES, nodeSizeOf(result) - nodeSizeOf(merged));
+        return merged.size() == 1 ? merged.get(0) : new RegexNode.Concatenation(position, merged);
+    }
+
+    /**
+     * Creates the alternation of already simplified alternatives.
+     */
+    private RegexNode rewriteAlternation(int position, List<RegexNode> alternatives) {
+        List<RegexNode> flattened = new ArrayList<>();
+        for (RegexNode alternative : alternatives) {
+            if (alternative instanceof RegexNode.Alternation) {
+                flattened.addAll(alternative.getChildren());
+            } else {
+                flattened.add(alternative);
+            }
+        }
+
+        // Ø is the neutral element
+        int before = nodeSizeOf(flattened);
+        flattened.removeIf(alternative -> alternative instanceof RegexNode.EmptySet);
+        record(Rule.NEUTRAL_ELEMENT, before - nodeSizeOf(flattened));
+        if (flattened.isEmpty()) {
+            return new RegexNode.EmptySet(position);
+        }
+
+        before = nodeSizeOf(flattened);
+        List<RegexNode> distinct = new ArrayList<>(new LinkedHashSet<>(flattened));
+        record(Rule.DUPLICATE_ALTERNATIVE, before - nodeSizeOf(distinct));
+
+        List<RegexNode> factored = factorCommonPrefixes(distinct);
+        return factored.size() == 1 ? factored.get(0) : new RegexNode.Alternation(position, factored);
+    }
+
+    /**
+     * Groups the alternatives by their first operand and factors the longest common prefix out of every group,
+     * as long as this does not make the tree larger.
+     */
+    private List<RegexNode> factorCommonPrefixes(List<RegexNode> alternatives) {
+        Map<RegexNode, List<RegexNode>> groups = new LinkedHashMap<>();
+        for (RegexNode alternative : alternatives) {
+            groups.computeIfAbsent(operandsOf(alternative).get(0), key -> new ArrayList<>()).add(alternative);
+        }
+        if (groups.size() == alternatives.size()) {
+            return alternatives;
+        }
+
+        List<RegexNode> result = new ArrayList<>();
+        for (List<RegexNode> group : groups.values()) {
+            if (group.size() == 1) {
+                result.add(group.get(0));
+                continue;
+            }
+            int prefixLength = commonPrefixLength(group);
+            List<RegexNode> prefix = operandsOf(group.get(0)).subList(0, prefixLength);
+            int position = group.get(0).getPosition();
+
+            List<RegexNode> suffixes = new ArrayList<>();
+            for (RegexNode alternative : group) {
+                List<RegexNode> operands = operandsOf(alternative);
+                suffixes.add(sequenceOf(alternative.getPosition(), operands.subList(prefixLength, operands.size())));
+            }
+            // The suffixes are simplified further; their removals are only kept if the factoring is applied
+            long[] countsBefore = removedNodes.clone();
+            List<RegexNode> operands = new ArrayList<>(prefix);
+            operands.add(rewriteAlternation(position, suffixes));
+            RegexNode factored = rewriteConcatenation(position, operands);
+
+            // If all alternatives share the prefix, the alternation node disappears as well
+            int removed = sizeOf(group) - factored.getSize() + (groups.size() == 1 ? 1 : 0);
+            if (removed >= 0) {
+                long removedByOtherRules = Arrays.stream(removedNodes).sum() - Arrays.stream(countsBefore).sum();
+                record(Rule.COMMON_PREFIX, (int) (removed - removedByOtherRules));
+                result.add(factored);
+            } else {
+                System.arraycopy(countsBefore, 0, removedNodes, 0, removedNodes.length);
+                result.addAll(group);
+            }
+        }
+        return result;
+    }
+
+    private static int commonPrefixLength(List<RegexNode> group) {
+        List<RegexNode> first = operandsOf(group.get(0));
+        int length = first.size();
+        for (RegexNode alternative : group) {
+            List<RegexNode> operands = operandsOf(alternative);
+            int common = 0;
+            while (common < length && common < operands.size() && operands.get(common).equals(first.get(common))) {
+                common++;
+            }
+            length = common;
+        }
+        return length;
+    }
+
+    private static List<RegexNode> operandsOf(RegexNode node) {
+        return node instanceof RegexNode.Concatenation ? node.getChildren() : List.of(node);
+    }
+
+    private static RegexNode sequenceOf(int position, List<RegexNode> operands) {
+        if (operands.isEmpty()) {
+            return new RegexNode.EmptyString(position);
+        }
+        return operands.size() == 1 ? operands.get(0) : new RegexNode.Concatenation(position, operands);
+    }
+
+    private static int sizeOf(List<RegexNode> nodes) {
+        int size = 0;
+        for (RegexNode node : nodes) {
+            size += node.getSize();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the size of the node that an n-ary operation over the given operands forms.
+     * A single operand stands for itself, no operands for ε or Ø.
+     */
+    private static int nodeSizeOf(List<RegexNode> operands) {
+        return operands.size() > 1 ? 1 + sizeOf(operands) : Math.max(1, sizeOf(operands));
+    }
+
+    private void record(Rule rule, int removed) {
+        removedNodes[rule.ordinal()] += removed;
+    }
+
+    // Getter and setter methods
+
+    /**
+     * Returns the number of nodes a rule has removed from all trees rewritten by this rewriter.
+     *
+     * @param rule The rule.
+     * @return The number of removed nodes.
+     */
+    public long getRemovedNodes(Rule rule) {
+        return removedNodes[rule.ordinal()];
+    }
+
+    public long getTotalRemovedNodes() {
+        return Arrays.stream(removedNodes).sum();
+    }
+}
@@ -0,0 +1,263 @@
+package geje1017.logic.parser;
+
+import geje1017.logic.postfix.InputManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Represents a node of the abstract syntax tree (AST) of a regular expression.
+ * Every node remembers the position in the expression where it starts, so that later stages can report
+ * errors at the right place. Concatenations and alternations are stored with all of their operands,
+ * so that long flat expressions do not produce deep trees.
+ * Nodes are immutable. Two nodes are equal if they describe the same tree, regardless of their positions.
+ */
+public abstract class RegexNode {
+
+    private final int position;
+    private final int size;
+    private final int hash;
+
+    private RegexNode(int position, int size, int hash) {
+        this.position = position;
+        this.size = size;
+        this.hash = hash;
+    }
+
+    private static int sizeOf(List<RegexNode> children) {
+        int size = 1;
+        for (RegexNode child : children) {
+            size += child.size;
+        }
+        return size;
+    }
+
+    private static int hashOf(char operator, List<RegexNode> children) {
+        int hash = operator;
+        for (RegexNode child : children) {
+            hash = 31 * hash + child.hash;
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RegexNode node = (RegexNode) o;
+        return hash == node.hash
+                && size == node.size
+                && getOperatorSymbol() == node.getOperatorSymbol()
+                && getChildren().equals(node.getChildren());
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Converts the tree into the postfix notation used by the evaluation pipeline, e.g. {@code a b , c |}
+     * for {@code ab|c}. Operands and operators are separated by spaces, n-ary operations are written
+     * left-associatively. The tree is traversed without recursion, so arbitrarily deep trees can be converted.
+     *
+     * @return The postfix expression.
+     */
+    public String toPostfix() {
+        StringBuilder postfix = new StringBuilder();
+        // A node is pushed with index 0 when it is entered and with the index of the next child afterwards
+        Deque<RegexNode> nodes = new ArrayDeque<>();
+        Deque<Integer> indices = new ArrayDeque<>();
+        nodes.push(this);
+        indices.push(0);
+
+        while (!nodes.isEmpty()) {
+            RegexNode node = nodes.pop();
+            int index = indices.pop();
+            List<RegexNode> children = node.getChildren();
+
+            if (index > 1 || (index == 1 && children.size() == 1)) {
+                postfix.append(node.getOperatorSymbol()).append(' ');
+            }
+            if (index < children.size()) {
+                nodes.push(node);
+                indices.push(index + 1);
+                nodes.push(children.get(index));
+                indices.push(0);
+            } else if (children.isEmpty()) {
+                postfix.append(node.getOperatorSymbol()).append(' ');
+            }
+        }
+        return postfix.toString().trim();
+    }
+
+    /**
+     * Returns the operator symbol of the node in postfix notation, or the operand symbol for leaves.
+     */
+    abstract char getOperatorSymbol();
+
+    // Getter and setter methods
+
+    /**
+     * Returns the index in the original expression at which this node starts.
+     *
+     * @return The start position of the node.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns the number of nodes in the subtree of this node, including the node itself.
+     *
+     * @return The size of the subtree.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the operands of the node. Leaves have no children.
+     *
+     * @return The unmodifiable list of children.
+     */
+    public List<RegexNode> getChildren() {
+        return List.of();
+    }
+
+    /**
+     * Represents a single input symbol.
+     */
+    public static final class Symbol extends RegexNode {
+        private final char symbol;
+
+        public Symbol(int position, char symbol) {
+            super(position, 1, symbol);
+            this.symbol = symbol;
+        }
+
+        @Override
+        char getOperatorSymbol() {
+            return symbol;
+        }
+
+        public char getSymbol() {
+            return symbol;
+        }
+    }
+
+    /**
+     * Represents the empty string ε.
+     */
+    public static final class EmptyString extends RegexNode {
+        public EmptyString(int position) {
+            super(position, 1, InputManager.getEmptySymbol());
+        }
+
+        @Override
+        char getOperatorSymbol() {
+            return InputManager.getEmptySymbol();
+        }
+    }
+
+    /**
+     * Represents the empty set Ø.
+     */
+    public static final class EmptySet extends RegexNode {
+        public EmptySet(int position) {
+            super(position, 1, InputManager.getEmptySet());
+        }
+
+        @Override
+        char getOperatorSymbol() {
+            return InputManager.getEmptySet();
+        }
+    }
+
+    /**
+     * Represents the concatenation of two or more expressions.
+     */
+    public static final class Concatenation extends RegexNode {
+        private final List<RegexNode> children;
+
+        public Concatenation(int position, List<RegexNode> children) {
+            super(position, sizeOf(children), hashOf(InputManager.OperatorType.CONCATENATION.getSymbol(), children));
+            if (children.size() < 2) {
+                throw new IllegalArgumentException("A concatenation needs at least two operands.");
+            }
+            this.children = List.copyOf(children);
+        }
+
+        @Override
+        char getOperatorSymbol() {
+            return InputManager.OperatorType.CONCATENATION.getSymbol();
+        }
+
+        @Override
+        public List<RegexNode> getChildren() {
+            return children;
+        }
+    }
+
+    /**
+     * Represents the alternation of two or more expressions.
+     */
+    public static final class Alternation extends RegexNode {
+        private final List<RegexNode> children;
+
+        public Alternation(int position, List<RegexNode> children) {
+            super(position, sizeOf(children), hashOf(InputManager.OperatorType.ALTERNATION.getSymbol(), children));
+            if (children.size() < 2) {
+                throw new IllegalArgumentException("An alternation needs at least two operands.");
+            }
+            this.children = List.copyOf(children);
+        }
+
+        @Override
+        char getOperatorSymbol() {
+            return InputManager.OperatorType.ALTERNATION.getSymbol();
+        }
+
+        @Override
+        public List<RegexNode> getChildren() {
+            return children;
+        }
+    }
+
+    /**
+     * Represents the Kleene closure ({@code *}) or the positive closure ({@code +}) of an expression.
+     */
+    public static final class Closure extends RegexNode {
+        private final RegexNode inner;
+        private final boolean isPositive;
+
+        public Closure(int position, RegexNode inner, boolean isPositive) {
+            super(position, 1 + inner.size, hashOf(isPositive
+                    ? InputManager.OperatorType.POSITIVE_CLOSURE.getSymbol()
+                    : InputManager.OperatorType.KLEENE_CLOSURE.getSymbol(), List.of(inner)));
+            this.inner = inner;
+            this.isPositive = isPositive;
+        }
+
+        @Override
+        char getOperatorSymbol() {
+            return isPositive
+                    ? InputManager.OperatorType.POSITIVE_CLOSURE.getSymbol()
+                    : InputManager.OperatorType.KLEENE_CLOSURE.getSymbol();
+        }
+
+        @Override
+        public List<RegexNode> getChildren() {
+            return List.of(inner);
+        }
+
+        public RegexNode getInner() {
+            return inner;
+        }
+
+        public boolean isPositive() {
+            return isPositive;
+        }
+    }
+}
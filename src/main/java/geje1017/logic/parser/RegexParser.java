@@ -0,0 +1,224 @@
+package geje1017.logic.parser;
+
+import geje1017.logic.postfix.ExpressionValidator.InvalidExpressionException;
+import geje1017.logic.postfix.InputManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses infix regular expressions into an abstract syntax tree with a recursive-descent parser.
+ * Validation and tree construction happen in a single left-to-right pass, so the running time is linear
+ * in the length of the expression and there is no limit on its length. Errors are reported with the
+ * position of the offending character.
+ * <p>
+ * The grammar, from the lowest to the highest precedence, is:
+ * <pre>
+ * alternation   := concatenation ('|' concatenation)*
+ * concatenation := repetition ([','] repetition)*
+ * repetition    := atom ('*' | '+')*
+ * atom          := symbol | '\e' | '\0' | '(' alternation ')' | '(' ')'
+ * </pre>
+ * Whitespace is ignored. An empty pair of parentheses stands for nothing and is left out of the tree; an expression
+ * that consists only of empty pairs of parentheses, such as {@code ()} or {@code (())}, is the empty string.
+ */
+public class RegexParser {
+
+    /**
+     * The maximum nesting depth of parentheses, which protects the parser against stack overflows.
+     */
+    public static final int MAX_NESTING_DEPTH = 500;
+
+    private static final char OPEN = InputManager.OperatorType.PARENTHESIS_OPEN.getSymbol();
+    private static final char CLOSE = InputManager.OperatorType.PARENTHESIS_CLOSE.getSymbol();
+    private static final char ALTERNATION = InputManager.OperatorType.ALTERNATION.getSymbol();
+    private static final char CONCATENATION = InputManager.OperatorType.CONCATENATION.getSymbol();
+
+    private final String expression;
+    private int position = 0;
+    private int depth = 0;
+
+    private RegexParser(String expression) {
+        this.expression = expression;
+    }
+
+    /**
+     * Parses an infix regular expression.
+     *
+     * @param expression The infix expression.
+     * @return The root of the syntax tree.
+     * @throws InvalidExpressionException If the expression is blank or not well-formed.
+     */
+    public static RegexNode parse(String expression) throws InvalidExpressionException {
+        RegexParser parser = new RegexParser(expression);
+        RegexNode root = parser.parseAlternation();
+        if (parser.peek() == CLOSE) {
+            throw parser.error("More closing than opening parentheses.");
+        }
+        if (root == null) {
+            if (expression.isBlank()) {
+                throw new InvalidExpressionException("No expression given", 0);
+            }
+            // The expression consists only of empty pairs of parentheses
+            return new RegexNode.EmptyString(0);
+        }
+        return root;
+    }
+
+    /**
+     * Parses alternatives separated by {@code |}.
+     *
+     * @return The alternation, its only alternative, or {@code null} if there is nothing to parse.
+     */
+    private RegexNode parseAlternation() throws InvalidExpressionException {
+        int start = skipWhitespace();
+        RegexNode first = parseConcatenation();
+        if (peek() != ALTERNATION) {
+            return first;
+        }
+
+        List<RegexNode> alternatives = new ArrayList<>();
+        alternatives.add(requireOperand(first, "Missing operand before binary operator: " + ALTERNATION));
+        while (peek() == ALTERNATION) {
+            position++;
+            alternatives.add(requireOperand(parseConcatenation(), "Missing operand after binary operator: " + ALTERNATION));
+        }
+        return new RegexNode.Alternation(start, alternatives);
+    }
+
+    /**
+     * Parses a sequence of repetitions, optionally separated by the explicit concatenation operator.
+     *
+     * @return The concatenation, its only operand, or {@code null} if there is nothing to parse.
+     */
+    private RegexNode parseConcatenation() throws InvalidExpressionException {
+        int start = skipWhitespace();
+        List<RegexNode> operands = new ArrayList<>();
+        while (true) {
+            char c = peek();
+            if (c == CONCATENATION) {
+                if (operands.isEmpty()) {
+                    throw error("Expression cannot start with binary operator: " + c);
+                }
+                position++;
+                if (!startsOperand(peek())) {
+                    throw error("Missing operand after binary operator: " + c);
+                }
+            } else if (InputManager.isUnaryOperator(c)) {
+                throw error("Invalid unary operator placement: " + c);
+            } else if (!startsOperand(c)) {
+                break;
+            }
+            RegexNode operand = parseRepetition();
+            if (operand != null) {
+                operands.add(operand);
+            }
+        }
+
+        if (operands.isEmpty()) {
+            return null;
+        }
+        return operands.size() == 1 ? operands.get(0) : new RegexNode.Concatenation(start, operands);
+    }
+
+    /**
+     * Parses an atom followed by any number of closure operators.
+     *
+     * @return The repetition, or {@code null} for an empty pair of parentheses.
+     */
+    private RegexNode parseRepetition() throws InvalidExpressionException {
+        int start = skipWhitespace();
+        RegexNode node = parseAtom();
+        while (InputManager.isUnaryOperator(peek())) {
+            if (node == null) {
+                throw error("Invalid unary operator placement after empty parentheses");
+            }
+            boolean isPositive = peek() == InputManager.OperatorType.POSITIVE_CLOSURE.getSymbol();
+            position++;
+            node = new RegexNode.Closure(start, node, isPositive);
+        }
+        return node;
+    }
+
+    /**
+     * Parses a single symbol or a parenthesized expression.
+     *
+     * @return The atom, or {@code null} for an empty pair of parentheses.
+     */
+    private RegexNode parseAtom() throws InvalidExpressionException {
+        int start = skipWhitespace();
+        char c = peek();
+
+        if (c == OPEN) {
+            if (++depth > MAX_NESTING_DEPTH) {
+                throw error("Expression is nested too deeply");
+            }
+            position++;
+            RegexNode inner = parseAlternation();
+            if (peek() != CLOSE) {
+                throw new InvalidExpressionException("Unbalanced parentheses.", start);
+            }
+            position++;
+            depth--;
+            return inner;
+        }
+
+        position++;
+        if (c == '\\' && position < expression.length()) {
+            char next = expression.charAt(position);
+            if (next == 'e') {
+                position++;
+                return new RegexNode.EmptyString(start);
+            }
+            if (next == '0') {
+                position++;
+                return new RegexNode.EmptySet(start);
+            }
+        }
+        if (c == InputManager.getEmptySymbol()) {
+            return new RegexNode.EmptyString(start);
+        }
+        if (c == InputManager.getEmptySet()) {
+            return new RegexNode.EmptySet(start);
+        }
+        return new RegexNode.Symbol(start, c);
+    }
+
+    private boolean startsOperand(char c) {
+        return c == OPEN || InputManager.isOperand(c);
+    }
+
+    private RegexNode requireOperand(RegexNode node, String message) throws InvalidExpressionException {
+        if (node == null) {
+            throw error(message);
+        }
+        return node;
+    }
+
+    /**
+     * Returns the next non-whitespace character without consuming it, or {@code 0} at the end of the expression.
+     * Invalid characters are reported here.
+     */
+    private char peek() throws InvalidExpressionException {
+        skipWhitespace();
+        if (position >= expression.length()) {
+            return 0;
+        }
+        char c = expression.charAt(position);
+        if (!InputManager.isOperand(c) && !InputManager.isOperator(c)) {
+            throw error("Invalid character in expression: " + c);
+        }
+        return c;
+    }
+
+    private int skipWhitespace() {
+        while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private InvalidExpressionException error(String message) {
+        return new InvalidExpressionException(message, position);
+    }
+}
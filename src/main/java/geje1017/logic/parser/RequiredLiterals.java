@@ -0,0 +1,192 @@
+package geje1017.logic.parser;
+
+import geje1017.logic.postfix.ExpressionValidator.InvalidExpressionException;
+
+import java.util.List;
+
+/**
+ * Computes literals that every word of the language of an expression must contain, so that a search can skip
+ * all parts of an input in which the literals do not occur before an automaton reads them.
+ * Three literals are derived from the syntax tree, bottom-up like in {@code grep}'s "must" analysis:
+ * <ul>
+ *     <li>the prefix, with which every word starts,</li>
+ *     <li>the suffix, with which every word ends, and</li>
+ *     <li>the infix, the longest literal found that every word contains; it is at least as long as the
+ *     prefix and the suffix.</li>
+ * </ul>
+ * For every node the analysis also remembers whether the node only accepts a single word. The literals are
+ * conservative: an empty literal means that nothing is known, e.g. for {@code a*} or {@code a|b}.
+ */
+public final class RequiredLiterals {
+
+    private static final RequiredLiterals NONE = new RequiredLiterals(null, "", "", "", false);
+
+    private final String exact;
+    private final String prefix;
+    private final String suffix;
+    private final String infix;
+    private final boolean isEmptyLanguage;
+
+    private RequiredLiterals(String exact, String prefix, String suffix, String infix, boolean isEmptyLanguage) {
+        this.exact = exact;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.infix = longest(longest(prefix, infix), suffix);
+        this.isEmptyLanguage = isEmptyLanguage;
+    }
+
+    private static RequiredLiterals exact(String word) {
+        return new RequiredLiterals(word, word, word, word, false);
+    }
+
+    /**
+     * Parses and simplifies an infix expression and computes its required literals.
+     *
+     * @param expression The infix expression.
+     * @return The required literals of the expression.
+     * @throws IllegalArgumentException If the expression is not valid.
+     */
+    public static RequiredLiterals of(String expression) {
+        try {
+            return of(new ExpressionRewriter().rewrite(RegexParser.parse(expression)));
+        } catch (InvalidExpressionException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Computes the required literals of a syntax tree.
+     *
+     * @param node The root of the tree.
+     * @return The required literals of the tree. If the tree accepts no word at all, nothing is known.
+     */
+    public static RequiredLiterals of(RegexNode node) {
+        RequiredLiterals literals = analyze(node);
+        return literals.isEmptyLanguage ? NONE : literals;
+    }
+
+    private static RequiredLiterals analyze(RegexNode node) {
+        if (node instanceof RegexNode.Symbol symbol) {
+            return exact(String.valueOf(symbol.getSymbol()));
+        }
+        if (node instanceof RegexNode.EmptyString) {
+            return exact("");
+        }
+        if (node instanceof RegexNode.EmptySet) {
+            return new RequiredLiterals(null, "", "", "", true);
+        }
+        if (node instanceof RegexNode.Closure closure) {
+            RequiredLiterals inner = analyze(closure.getInner());
+            if (inner.isEmptyLanguage || "".equals(inner.exact)) {
+                // Ø* = ε and ε+ = ε* = ε, but Ø+ = Ø
+                return closure.isPositive() && inner.isEmptyLanguage ? inner : exact("");
+            }
+            // A positive closure starts and ends with a word of its operand, a Kleene closure can be empty
+            return closure.isPositive() ? new RequiredLiterals(null, inner.prefix, inner.suffix, inner.infix, false)
+                    : NONE;
+        }
+        List<RegexNode> children = node.getChildren();
+        RequiredLiterals result = analyze(children.get(0));
+        for (int i = 1; i < children.size(); i++) {
+            RequiredLiterals next = analyze(children.get(i));
+            result = node instanceof RegexNode.Concatenation ? concatenate(result, next) : alternate(result, next);
+        }
+        return result;
+    }
+
+    private static RequiredLiterals concatenate(RequiredLiterals left, RequiredLiterals right) {
+        if (left.isEmptyLanguage) {
+            return left;
+        }
+        if (right.isEmptyLanguage) {
+            return right;
+        }
+        String exact = left.exact != null && right.exact != null ? left.exact + right.exact : null;
+        String prefix = left.exact != null ? left.exact + right.prefix : left.prefix;
+        String suffix = right.exact != null ? left.suffix + right.exact : right.suffix;
+        // A literal may also span the border between both operands
+        String infix = longest(left.suffix + right.prefix, longest(left.infix, right.infix));
+        return new RequiredLiterals(exact, prefix, suffix, infix, false);
+    }
+
+    private static RequiredLiterals alternate(RequiredLiterals left, RequiredLiterals right) {
+        if (left.isEmptyLanguage) {
+            return right;
+        }
+        if (right.isEmptyLanguage) {
+            return left;
+        }
+        String exact = left.exact != null && left.exact.equals(right.exact) ? left.exact : null;
+        String prefix = commonPrefix(left.prefix, right.prefix);
+        String suffix = commonSuffix(left.suffix, right.suffix);
+        return new RequiredLiterals(exact, prefix, suffix, commonSubstring(left.infix, right.infix), false);
+    }
+
+    private static String commonPrefix(String a, String b) {
+        int length = 0;
+        while (length < a.length() && length < b.length() && a.charAt(length) == b.charAt(length)) {
+            length++;
+        }
+        return a.substring(0, length);
+    }
+
+    private static String commonSuffix(String a, String b) {
+        int length = 0;
+        while (length < a.length() && length < b.length()
+                && a.charAt(a.length() - 1 - length) == b.charAt(b.length() - 1 - length)) {
+            length++;
+        }
+        return a.substring(a.length() - length);
+    }
+
+    /**
+     * Finds the longest common substring of two literals by dynamic programming over the lengths of the
+     * common suffixes of their prefixes.
+     */
+    private static String commonSubstring(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        int bestLength = 0;
+        int bestEnd = 0;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                current[j] = a.charAt(i - 1) == b.charAt(j - 1) ? previous[j - 1] + 1 : 0;
+                if (current[j] > bestLength) {
+                    bestLength = current[j];
+                    bestEnd = i;
+                }
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return a.substring(bestEnd - bestLength, bestEnd);
+    }
+
+    private static String longest(String a, String b) {
+        return b.length() > a.length() ? b : a;
+    }
+
+    // Getter and setter methods
+
+    /**
+     * Returns the only word of the language, if the language consists of a single word.
+     *
+     * @return The word, or {@code null} if the language has several words or none.
+     */
+    public String getExact() {
+        return exact;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    public String getInfix() {
+        return infix;
+    }
+}
@@ -2,9 +2,13 @@ package geje1017.logic.postfix;
 
 import geje1017.gui.FSMGroup;
 import geje1017.gui.FSMStorage;
+import geje1017.logic.compiler.ExpressionCache;
+import geje1017.logic.compiler.ThompsonCompiler;
+import geje1017.logic.finiteStateMachine.CompilationContext;
 import geje1017.logic.finiteStateMachine.FSMOperator.*;
 import geje1017.logic.finiteStateMachine.FSMStructure;
-import geje1017.logic.finiteStateMachine.State;
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.parser.ExpressionRewriter;
 
 import java.util.Stack;
 
@@ -15,16 +19,93 @@ import java.util.Stack;
  */
 public class ExpressionEvaluator {
 
+    /**
+     * Enumerates the ways an expression can be evaluated.
+     */
+    public enum Mode {
+        /**
+         * Determinizes, minimizes and simplifies the FSM after every operator and keeps all intermediate FSMs,
+         * so that each step can be displayed.
+         */
+        TRACED,
+        /**
+         * Builds one FSM for the whole expression, determinizes and minimizes it once
+         * and keeps only the final result.
+         */
+        FAST
+    }
+
+    private final Mode mode;
+    private final ExpressionCache<FSMStorage> cache;
+
+    /**
+     * Constructs an evaluator in traced mode that compiles every expression from scratch.
+     */
+    public ExpressionEvaluator() {
+        this(Mode.TRACED, null);
+    }
+
+    /**
+     * Constructs an evaluator in traced mode that reuses the results stored in the given cache.
+     * The cached FSM structures are shared and must not be modified by the caller.
+     *
+     * @param cache The cache of evaluated expressions, or {@code null} to disable caching.
+     */
+    public ExpressionEvaluator(ExpressionCache<FSMStorage> cache) {
+        this(Mode.TRACED, cache);
+    }
+
+    /**
+     * Constructs an evaluator with the given mode. A cache must only be shared between evaluators of the same mode.
+     *
+     * @param mode The evaluation mode.
+     * @param cache The cache of evaluated expressions, or {@code null} to disable caching.
+     */
+    public ExpressionEvaluator(Mode mode, ExpressionCache<FSMStorage> cache) {
+        this.mode = mode;
+        this.cache = cache;
+    }
+
     /**
      * Evaluates an infix regular expression, converts it to postfix notation, and processes it into FSM structures.
+     * Every evaluation uses its own {@link CompilationContext}, so expressions can be evaluated concurrently.
+     * If the evaluator has a cache, an expression that was evaluated before is returned from the cache.
+     * In {@link Mode#FAST} the storage contains only the minimized result FSM, and the cache is keyed by the
+     * postfix form of the simplified expression.
      *
      * @param expression The infix regular expression to evaluate.
      * @return An FSMStorage object containing the generated FSM structures for the expression.
      */
     public FSMStorage evaluateExpression(String expression) {
-        State.resetUniqueName();
-        String postfixExpression = ExpressionConverter.convertInfixToPostfix(expression);
-        return evaluatePostfixExpression(postfixExpression);
+        if (mode == Mode.FAST) {
+            // The expression is parsed once; the simplified postfix form is both the cache key and the input
+            // of the compiler, so equivalent spellings also share one entry
+            String simplifiedPostfix = ExpressionRewriter.toSimplifiedPostfix(expression);
+            return cache != null ? cache.getNormalized(simplifiedPostfix, this::compilePostfixExpression)
+                    : compilePostfixExpression(simplifiedPostfix);
+        }
+        if (cache != null) {
+            return cache.get(expression, postfix -> evaluatePostfixExpression(postfix, new CompilationContext()));
+        }
+        return evaluatePostfixExpression(ExpressionConverter.convertInfixToPostfix(expression), new CompilationContext());
+    }
+
+    /**
+     * Compiles a postfix expression in one go: the {@link ThompsonCompiler} builds a single NFA for the
+     * whole expression, which is then determinized and minimized once. No intermediate FSMs are stored.
+     * In fast mode the expression is simplified by the {@link ExpressionRewriter} before.
+     *
+     * @param postfixExpression The postfix expression to compile.
+     * @return An FSMStorage object containing only the result FSM.
+     */
+    private FSMStorage compilePostfixExpression(String postfixExpression) {
+        FSMStructure resultFsm = CompiledFSM.compile(ThompsonCompiler.toNfa(postfixExpression)).minimize().toFsmStructure();
+        resultFsm.setExpression(postfixExpression);
+        resultFsm.setExplanation("Compiling the whole expression at once and minimizing the result.\n");
+
+        FSMStorage storage = new FSMStorage();
+        storage.addElementaryFSM(resultFsm);
+        return storage;
     }
 
     /**
@@ -32,9 +113,10 @@ public class ExpressionEvaluator {
      * (concatenation, alternation, or closure) based on the operators.
      *
      * @param postfixExpression The postfix expression to evaluate.
+     * @param context The compilation context that allocates the state identifiers.
      * @return An FSMStorage object containing the FSM structures.
      */
-    private FSMStorage evaluatePostfixExpression(String postfixExpression) {
+    private FSMStorage evaluatePostfixExpression(String postfixExpression, CompilationContext context) {
         FSMStorage storage = new FSMStorage();
         Stack<FSMStructure> stack = new Stack<>();
 
@@ -43,17 +125,17 @@ public class ExpressionEvaluator {
             FSMStructure fsm;
 
             if (InputManager.isOperator(currentChar)) {
-                fsm = processOperator(currentChar, stack);
+                fsm = processOperator(currentChar, stack, context);
                 if (fsm != null) {
                     FSMStructure deterministicFSM = FSMDeterminizer.toDeterministicFsm(fsm);
                     FSMStructure minimizedFSM = FSMMinimizer.minimize(deterministicFSM);
-                    FSMStructure simplifiedFSM = FSMSimplifier.simplify(minimizedFSM);
+                    FSMStructure simplifiedFSM = FSMSimplifier.simplify(minimizedFSM, context);
                     FSMGroup group = new FSMGroup(fsm, deterministicFSM, minimizedFSM, simplifiedFSM);
                     storage.addFSMGroup(group);
                     stack.push(simplifiedFSM);
                 }
             } else if (InputManager.isOperand(currentChar)) {
-                fsm = FSMSymbolConverter.convertInputCharacter(currentChar);
+                fsm = FSMSymbolConverter.convertInputCharacter(currentChar, context);
                 stack.push(fsm);
                 storage.addElementaryFSM(fsm);
             }
@@ -67,15 +149,16 @@ public class ExpressionEvaluator {
      *
      * @param operator The operator to process (e.g., concatenation, alternation, closure).
      * @param stack The stack of FSM structures used in the evaluation.
+     * @param context The compilation context that allocates the state identifiers.
      * @return The resulting FSM after applying the operator.
      */
-    private FSMStructure processOperator(char operator, Stack<FSMStructure> stack) {
+    private FSMStructure processOperator(char operator, Stack<FSMStructure> stack, CompilationContext context) {
         FSMStructure result = null;
         FSMStructure fsm1, fsm2;
 
         if (InputManager.OperatorType.KLEENE_CLOSURE.getSymbol() == operator) {
             fsm1 = stack.pop();
-            result = FSMClosureApplier.applyKleeneClosure(fsm1);
+            result = FSMClosureApplier.applyKleeneClosure(fsm1, context);
         } else if (InputManager.OperatorType.POSITIVE_CLOSURE.getSymbol() == operator) {
             fsm1 = stack.pop();
             result = FSMClosureApplier.applyPositiveClosure(fsm1);
@@ -1,137 +1,56 @@
 package geje1017.logic.postfix;
 
+import geje1017.logic.parser.RegexParser;
+
 /**
  * Validates the syntactic correctness of an infix expression.
  * This class checks the expression against a set of predefined rules, ensuring that it contains only allowed characters,
  * balanced parentheses, correctly placed operators, and adheres to special syntax rules.
+ * The checks are performed by the {@link RegexParser} in a single pass, so expressions of any length can be validated.
  */
 public abstract class ExpressionValidator {
 
-    private static final int maxLengthExpression = 35;
-
     /**
      * Validates an entire infix expression by applying multiple checks on its syntax.
-     * The validation ensures that the expression adheres to rules regarding length, characters, parentheses balance,
+     * The validation ensures that the expression adheres to rules regarding characters, parentheses balance,
      * and operator placement.
      *
      * @param expression The expression to validate.
      * @throws InvalidExpressionException If any part of the expression violates the syntax rules.
      */
     public static void validateInfix(String expression) throws InvalidExpressionException {
-        checkLength(expression);
-        expression = ExpressionConverter.removeEmptyParentheses(expression);
-        validateCharacters(expression);
-        validateParenthesesBalance(expression);
-        validateUnaryOperatorPlacement(expression);
-        validateBinaryOperatorPlacement(expression);
-    }
-
-    private static void checkLength(String expression) throws InvalidExpressionException {
-        if (expression.isEmpty()) throw new InvalidExpressionException("No expression given");
-        if (expression.length() > maxLengthExpression) throw new InvalidExpressionException("Expression is too long");
-    }
-
-    /**
-     * Validates that the expression contains only allowed characters, including operands and operators.
-     *
-     * @param expression The expression to check.
-     * @throws InvalidExpressionException If the expression contains illegal characters.
-     */
-    private static void validateCharacters(String expression) throws InvalidExpressionException {
-        for (char c : expression.toCharArray()) {
-            if (!InputManager.isOperand(c)
-                    && !InputManager.isOperator(c)) {
-                throw new InvalidExpressionException("Invalid character in expression: " + c);
-            }
-        }
+        RegexParser.parse(expression);
     }
 
     /**
-     * Validates that the parentheses in the expression are balanced.
-     * Ensures that every opening parenthesis has a corresponding closing parenthesis.
-     *
-     * @param expression The expression to check.
-     * @throws InvalidExpressionException If the parentheses are unbalanced.
-     */
-    private static void validateParenthesesBalance(String expression) throws InvalidExpressionException {
-        int balance = 0;
-        for (char c : expression.toCharArray()) {
-            if (c == '(') {
-                balance++;
-            } else if (c == ')') {
-                balance--;
-                if (balance < 0) {
-                    throw new InvalidExpressionException("More closing than opening parentheses.");
-                }
-            }
-        }
-        if (balance != 0) {
-            throw new InvalidExpressionException("Unbalanced parentheses.");
-        }
-    }
-
-    /**
-     * Validates that the expression contains only allowed characters, including operands and operators.
-     *
-     * @param expression The expression to check.
-     * @throws InvalidExpressionException If the expression contains illegal characters.
+     * Custom exception class for invalid expressions.
+     * Provides detailed information about syntax violations in expressions.
      */
-    private static void validateUnaryOperatorPlacement(String expression) throws InvalidExpressionException {
-        for (int i = 0; i < expression.length(); i++) {
-            char c = expression.charAt(i);
-
-            if (InputManager.isUnaryOperator(c)) {
-                if (i > 0) {
-                    char previousChar = expression.charAt(i - 1);
-                    if (previousChar == '(' || InputManager.isBinaryOperator(previousChar)) {
-                        throw new InvalidExpressionException("Invalid unary operator placement after " + previousChar);
-                    }
-                }
+    public static class InvalidExpressionException extends Exception {
+        private final int position;
 
-                if (i == 0) {
-                    throw new InvalidExpressionException("Expression cannot start with unary operator: " + c);
-                }
-            }
+        public InvalidExpressionException(String message) {
+            this(message, -1);
         }
-    }
-
-    /**
-     * Validates the placement of binary operators in the expression, ensuring that they do not
-     * appear in invalid positions (e.g., at the start or end of the expression or consecutively).
-     *
-     * @param expression The expression to check.
-     * @throws InvalidExpressionException If binary operators are incorrectly placed.
-     */
-    private static void validateBinaryOperatorPlacement(String expression) throws InvalidExpressionException {
-        for (int i = 0; i < expression.length(); i++) {
-            char c = expression.charAt(i);
-
-            if (InputManager.isBinaryOperator(c)) {
 
-                if (i == 0 || i == expression.length() - 1) {
-                    throw new InvalidExpressionException("Expression cannot start or end with binary operator: " + c);
-                }
-
-                char previousChar = expression.charAt(i - 1);
-                char nextChar = expression.charAt(i + 1);
-
-                if (InputManager.isBinaryOperator(previousChar)
-                        || InputManager.isBinaryOperator(nextChar)
-                        || previousChar == InputManager.OperatorType.PARENTHESIS_OPEN.getSymbol()
-                        || nextChar == InputManager.OperatorType.PARENTHESIS_CLOSE.getSymbol()){
-                    throw new InvalidExpressionException("Invalid binary operator placement near: " + c);
-                }
-            }
+        /**
+         * Constructs an exception for a syntax violation at a known position.
+         *
+         * @param message The description of the violation.
+         * @param position The index in the expression at which the violation was found.
+         */
+        public InvalidExpressionException(String message, int position) {
+            super(position < 0 ? message : message + " (at position " + position + ")");
+            this.position = position;
         }
-    }
 
-    /**
-     * Custom exception class for invalid expressions.
-     * Provides detailed information about syntax violations in expressions.
-     */
-    public static class InvalidExpressionException extends Exception {
-        public InvalidExpressionException(String message) {
-            super(message);
+        /**
+         * Returns the index in the expression at which the violation was found.
+         *
+         * @return The position, or {@code -1} if it is unknown.
+         */
+        public int getPosition() {
+            return position;
         }
     }
 }
@@ -0,0 +1,89 @@
+import geje1017.headless.BatchCompiler;
+import geje1017.headless.BatchCompiler.Entry;
+import geje1017.logic.matcher.CompiledFSM;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class BatchCompilerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Concurrently compiled automata equal those compiled one after another")
+    public void testCompile() {
+        List<String> expressions = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            expressions.add("(a|b" + i % 10 + ")*a(a|b)" + "(a|b)".repeat(i % 6) + "|c" + i);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Entry> entries = new BatchCompiler(pool).compile(expressions);
+            Assertions.assertEquals(expressions.size(), entries.size());
+            for (int i = 0; i < expressions.size(); i++) {
+                Entry entry = entries.get(i);
+                Assertions.assertEquals(i + 1, entry.getLine());
+                Assertions.assertTrue(entry.isSuccessful(), entry.getError());
+                Assertions.assertTrue(entry.getFsm().isEquivalentTo(CompiledFSM.compile(expressions.get(i))));
+                Assertions.assertEquals(entry.getFsm().getStateCount(), entry.getMinimizedStateCount());
+                Assertions.assertTrue(entry.getDfaStateCount() >= entry.getMinimizedStateCount());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Invalid expressions produce error entries without stopping the batch")
+    public void testErrors() throws IOException {
+        Path file = directory.resolve("expressions.txt");
+        Files.writeString(file, "ab*\n\na|\n((a)\n  c+d  \n", StandardCharsets.UTF_8);
+        List<Entry> entries = new BatchCompiler().compile(file);
+
+        Assertions.assertEquals(List.of(1, 3, 4, 5), entries.stream().map(Entry::getLine).toList());
+        Assertions.assertTrue(entries.get(0).isSuccessful());
+        Assertions.assertFalse(entries.get(1).isSuccessful());
+        Assertions.assertNotNull(entries.get(1).getError());
+        Assertions.assertFalse(entries.get(2).isSuccessful());
+        Assertions.assertTrue(entries.get(3).getFsm().matches("ccd"));
+
+        StringWriter statistics = new StringWriter();
+        BatchCompiler.writeStatistics(entries, statistics);
+        String[] rows = statistics.toString().split("\n");
+        Assertions.assertEquals(5, rows.length);
+        Assertions.assertTrue(rows[1].startsWith("1\tok\t"));
+        Assertions.assertTrue(rows[2].startsWith("3\terror\t"));
+        Assertions.assertTrue(rows[4].endsWith("\tc+d"));
+    }
+
+    @Test
+    @DisplayName("An expression whose DFA exceeds the state budget gets an error entry without stopping the batch")
+    public void testStateBudget() {
+        // The DFA of the second expression has 2^27 states
+        List<String> expressions = List.of("ab", "(a|b)*a" + "(a|b)".repeat(26), "cd");
+        List<Entry> entries = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> new BatchCompiler().compile(expressions));
+
+        Assertions.assertTrue(entries.get(0).getFsm().matches("ab"));
+        Assertions.assertFalse(entries.get(1).isSuccessful());
+        Assertions.assertEquals("DFA exceeds " + BatchCompiler.DEFAULT_MAX_STATES + " states", entries.get(1).getError());
+        Assertions.assertTrue(entries.get(2).getFsm().matches("cd"));
+
+        List<Entry> small = new BatchCompiler(ForkJoinPool.commonPool(), 3).compile(List.of("ab", "abc"));
+        Assertions.assertTrue(small.get(0).isSuccessful());
+        Assertions.assertEquals("DFA exceeds 3 states", small.get(1).getError());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BatchCompiler(ForkJoinPool.commonPool(), 0));
+    }
+}
@@ -0,0 +1,56 @@
+import geje1017.logic.matcher.BatchMatcher;
+import geje1017.logic.matcher.CompiledFSM;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class BatchMatcherTest {
+
+    @Test
+    @DisplayName("Parallel and sequential batches agree with matching every input on its own")
+    public void testMatchAll() {
+        CompiledFSM fsm = CompiledFSM.compile("(a|b)+c(0|1|2)*");
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            BatchMatcher matcher = new BatchMatcher(fsm, pool);
+            Random random = new Random(40);
+            for (int count : new int[]{0, 1, 63, 64, 65, 10_000, 50_001}) {
+                List<CharSequence> inputs = new ArrayList<>();
+                StringBuilder data = new StringBuilder();
+                int[] offsets = new int[count + 1];
+                BitSet expected = new BitSet();
+                for (int i = 0; i < count; i++) {
+                    String input = RandomFixtures.input(random, "abc01x", random.nextInt(8));
+                    inputs.add(input);
+                    data.append(input);
+                    offsets[i + 1] = data.length();
+                    expected.set(i, fsm.matches(input));
+                }
+                char[] packed = data.toString().toCharArray();
+                Assertions.assertEquals(expected, matcher.matchAll(inputs), "List of " + count);
+                Assertions.assertEquals(expected, matcher.matchAllSequential(inputs), "List of " + count);
+                Assertions.assertEquals(expected, matcher.matchAll(packed, offsets), "Packed " + count);
+                Assertions.assertEquals(expected, matcher.matchAllSequential(packed, offsets), "Packed " + count);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Invalid offsets are rejected")
+    public void testInvalidOffsets() {
+        BatchMatcher matcher = new BatchMatcher(CompiledFSM.compile("ab"));
+        char[] data = "abab".toCharArray();
+        Assertions.assertEquals(BitSet.valueOf(new long[]{0b101}), matcher.matchAll(data, new int[]{0, 2, 2, 4}));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> matcher.matchAll(data, new int[0]));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> matcher.matchAll(data, new int[]{0, 5}));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> matcher.matchAll(data, new int[]{0, 3, 2}));
+    }
+}
@@ -0,0 +1,74 @@
+import geje1017.gui.FSMGroup;
+import geje1017.gui.FSMStorage;
+import geje1017.logic.matcher.BitParallelNFA;
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.postfix.ExpressionEvaluator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+public class BitParallelNFATest {
+
+    private static final List<String> EXPRESSIONS = List.of("(a|b)*abb", "a+b*(c|d)", "(ab|ba)*(a|\\e)",
+            "(a|b)*a(a|b)(a|b)(a|b)", "(0|\\0)+cd\\e", "((a|b)*c)+", "c(a*|b)*c");
+
+    @Test
+    @DisplayName("Simulation of the non-deterministic operation FSM accepts the same inputs as the compiled DFA")
+    public void testOperationFsm() {
+        Random random = new Random(17);
+        for (String expression : EXPRESSIONS) {
+            List<FSMGroup> groups = new ExpressionEvaluator().evaluateExpression(expression).getFSMGroups();
+            BitParallelNFA nfa = BitParallelNFA.of(groups.get(groups.size() - 1).getOperationFSM());
+            assertSameLanguage(expression, nfa, CompiledFSM.compile(expression), random);
+        }
+    }
+
+    @Test
+    @DisplayName("NFAs with more than 64 states are simulated with several words per state set")
+    public void testLargeNfa() {
+        Random random = new Random(18);
+        String expression = "(a|b)*a" + "(a|b)".repeat(12) + "|(abc)*";
+        BitParallelNFA nfa = BitParallelNFA.compile(expression);
+        Assertions.assertTrue(nfa.getStateCount() > 64);
+        assertSameLanguage(expression, nfa, CompiledFSM.compile(expression), random);
+        Assertions.assertTrue(nfa.matches("a" + "b".repeat(12)));
+        Assertions.assertFalse(nfa.matches("a" + "b".repeat(13)));
+        Assertions.assertTrue(nfa.matches("abcabc"));
+        Assertions.assertFalse(nfa.matches("abd"));
+    }
+
+    @Test
+    @DisplayName("NFAs with thousands of states are built and simulated in linear space and time")
+    public void testHugeNfa() {
+        // 10200 NFA states; masks per symbol and state would take more than 100 MB
+        String expression = "(a|b|c|d|e|f|g|h)*x".repeat(300);
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+        BitParallelNFA nfa = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> BitParallelNFA.compile(expression));
+        System.gc();
+        long usedAfter = runtime.totalMemory() - runtime.freeMemory();
+        Assertions.assertTrue(nfa.getStateCount() > 10_000);
+        Assertions.assertTrue(usedAfter - usedBefore < 32_000_000, "Used " + (usedAfter - usedBefore) + " bytes");
+
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            Assertions.assertTrue(nfa.matches("abcdefghx".repeat(300)));
+            Assertions.assertTrue(nfa.matches("x".repeat(300)));
+            Assertions.assertFalse(nfa.matches("x".repeat(299)));
+            Assertions.assertFalse(nfa.matches("x".repeat(300) + "a"));
+        });
+    }
+
+    private static void assertSameLanguage(String expression, BitParallelNFA nfa, CompiledFSM expected, Random random) {
+        for (int i = 0; i < 1000; i++) {
+            String input = RandomFixtures.input(random, "abcd0", random.nextInt(18));
+            Assertions.assertEquals(expected.matches(input), nfa.matches(input),
+                    "Expression '" + expression + "', input '" + input + "'");
+        }
+    }
+}
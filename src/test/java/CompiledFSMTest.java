@@ -0,0 +1,108 @@
+import geje1017.logic.finiteStateMachine.Alphabet;
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.matcher.FSMMatcher;
+import geje1017.logic.matcher.RegexMatcher;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class CompiledFSMTest {
+
+    @Test
+    @DisplayName("Compiled automaton accepts exactly the words of the expression")
+    public void testMatches() {
+        CompiledFSM fsm = CompiledFSM.compile("(a|b)*abb");
+        Assertions.assertTrue(fsm.matches("abb"));
+        Assertions.assertTrue(fsm.matches("babaabb"));
+        Assertions.assertFalse(fsm.matches("ab"));
+        Assertions.assertFalse(fsm.matches("abba"));
+        Assertions.assertFalse(fsm.matches("abc"));
+        Assertions.assertFalse(fsm.matches(""));
+    }
+
+    @Test
+    @DisplayName("Matcher reports where a rejected input got stuck")
+    public void testMatcherConsumed() {
+        FSMMatcher matcher = CompiledFSM.compile("a+b").matcher();
+        Assertions.assertTrue(matcher.matches("aaab"));
+        Assertions.assertEquals(4, matcher.getConsumed());
+        Assertions.assertFalse(matcher.matches("aaxb"));
+        Assertions.assertEquals(2, matcher.getConsumed());
+        Assertions.assertEquals(CompiledFSM.DEAD_STATE, matcher.getEndState());
+    }
+
+    @Test
+    @DisplayName("Empty set and empty string compile to the expected languages")
+    public void testSpecialSymbols() {
+        Assertions.assertFalse(CompiledFSM.compile("\\0").matches(""));
+        Assertions.assertTrue(CompiledFSM.compile("\\e").matches(""));
+        Assertions.assertFalse(CompiledFSM.compile("\\e").matches("a"));
+    }
+
+    @Test
+    @DisplayName("Converting to an FSM structure and back keeps the language")
+    public void testRoundTrip() {
+        CompiledFSM fsm = CompiledFSM.compile("a+b*(c|d)");
+        Assertions.assertTrue(fsm.isEquivalentTo(CompiledFSM.compile(fsm.toFsmStructure())));
+        Assertions.assertFalse(fsm.isEquivalentTo(CompiledFSM.compile("a*b*(c|d)")));
+    }
+
+    @Test
+    @DisplayName("Generated matcher class accepts the same inputs as the transition table")
+    public void testCompileToBytecode() {
+        Random random = new Random(19);
+        for (String expression : new String[]{"(a|b)*abb", "a+b*(c|ä)", "\\0", "\\e", "(ab|ba)*(a|\\e)",
+                "(a|b)*a(a|b)(a|b)(a|b)"}) {
+            CompiledFSM fsm = CompiledFSM.compile(expression);
+            RegexMatcher generated = fsm.compileToBytecode();
+            Assertions.assertNotSame(fsm, generated, expression);
+            for (int i = 0; i < 500; i++) {
+                String input = RandomFixtures.input(random, "abcäx", random.nextInt(12));
+                Assertions.assertEquals(fsm.matches(input), generated.matches(input),
+                        "Expression '" + expression + "', input '" + input + "'");
+            }
+        }
+
+        // Automata whose method would exceed the limit keep using the transition table
+        CompiledFSM large = CompiledFSM.compile("(a|b)*a(a|b)(a|b)(a|b)(a|b)(a|b)");
+        Assertions.assertSame(large, large.compileToBytecode(100));
+        Assertions.assertNotSame(large, large.compileToBytecode());
+    }
+
+    @Test
+    @DisplayName("Automata whose generated method would be too large fall back to the transition table")
+    public void testCompileToBytecodeFallback() {
+        // 256 states over 2 symbols already exceed the size up to which the JIT compiles a method
+        CompiledFSM counter = ring(256, 2);
+        Assertions.assertSame(counter, counter.compileToBytecode());
+
+        // A few states over a wide alphabet exceed even the 64 KB limit of a method in the class file format
+        CompiledFSM wide = ring(5, 3000);
+        Assertions.assertSame(wide, wide.compileToBytecode());
+        RegexMatcher unbounded = wide.compileToBytecode(Integer.MAX_VALUE);
+        Assertions.assertSame(wide, unbounded);
+        Assertions.assertTrue(unbounded.matches("abcde"));
+        Assertions.assertFalse(unbounded.matches("abcd"));
+    }
+
+    /**
+     * Builds a DFA whose states form a ring: every symbol leads to the next state, and the input is accepted
+     * if its length is a multiple of the number of states.
+     */
+    private static CompiledFSM ring(int stateCount, int symbolCount) {
+        char[] symbols = new char[symbolCount];
+        for (int symbol = 0; symbol < symbolCount; symbol++) {
+            symbols[symbol] = (char) ('a' + symbol);
+        }
+        int[] transitions = new int[stateCount * symbolCount];
+        for (int state = 0; state < stateCount; state++) {
+            Arrays.fill(transitions, state * symbolCount, (state + 1) * symbolCount, (state + 1) % stateCount);
+        }
+        boolean[] acceptingStates = new boolean[stateCount];
+        acceptingStates[0] = true;
+        return new CompiledFSM(new Alphabet(symbols), 0, transitions, acceptingStates);
+    }
+}
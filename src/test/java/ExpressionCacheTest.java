@@ -0,0 +1,79 @@
+import geje1017.logic.compiler.ExpressionCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ExpressionCacheTest {
+
+    @Test
+    @DisplayName("Equivalent spellings of an expression share one cache entry")
+    public void testNormalizedKey() {
+        ExpressionCache<String> cache = new ExpressionCache<>(10, 1000, String::length);
+        String first = cache.get("(a|b)*c", expression -> expression);
+        String second = cache.get("(a | b)* c", expression -> Assertions.fail("Expression compiled twice"));
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, cache.getMissCount());
+        Assertions.assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    @DisplayName("Least recently used entries are evicted when the size or weight bound is exceeded")
+    public void testEviction() {
+        ExpressionCache<String> cache = new ExpressionCache<>(2, 10, String::length);
+        cache.get("a", expression -> "1234");
+        cache.get("b", expression -> "1234");
+        cache.get("a", expression -> "unused");
+        cache.get("c", expression -> "1234");
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(1, cache.getEvictionCount());
+        Assertions.assertEquals("1234", cache.get("a", expression -> "new"));
+        Assertions.assertEquals("new", cache.get("b", expression -> "new"));
+
+        cache.get("d", expression -> "123456789");
+        Assertions.assertEquals(9, cache.getTotalWeight());
+    }
+
+    @Test
+    @DisplayName("Concurrent requests for the same expression compile it only once")
+    public void testSingleFlight() throws Exception {
+        ExpressionCache<String> cache = new ExpressionCache<>(10, 1000, String::length);
+        AtomicInteger compilations = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get("a*b", expression -> {
+                        compilations.incrementAndGet();
+                        try {
+                            Thread.sleep(100);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return expression;
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                Assertions.assertEquals(ExpressionCache.normalize("a*b"), result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertEquals(1, compilations.get());
+        Assertions.assertEquals(1, cache.getMissCount());
+        Assertions.assertEquals(7, cache.getHitCount());
+    }
+}
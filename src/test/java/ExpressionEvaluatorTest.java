@@ -0,0 +1,74 @@
+import geje1017.gui.FSMStorage;
+import geje1017.logic.compiler.ExpressionCache;
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.postfix.ExpressionEvaluator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ExpressionEvaluatorTest {
+
+    private static final List<String> EXPRESSIONS = List.of("(a|b)*abb", "a+b*(c|d)", "(ab|ac)*", "ab(c|d)*e+", "x*y*z*");
+
+    @Test
+    @DisplayName("Concurrent evaluations produce the same automata as sequential ones")
+    public void testConcurrentEvaluation() {
+        List<CompiledFSM> sequential = EXPRESSIONS.stream()
+                .map(expression -> CompiledFSM.compile(new ExpressionEvaluator().evaluateExpression(expression).getResultFsm()))
+                .collect(Collectors.toList());
+
+        List<CompiledFSM> concurrent = IntStream.range(0, 200).parallel()
+                .mapToObj(i -> CompiledFSM.compile(new ExpressionEvaluator().evaluateExpression(EXPRESSIONS.get(i % EXPRESSIONS.size())).getResultFsm()))
+                .collect(Collectors.toList());
+
+        for (int i = 0; i < concurrent.size(); i++) {
+            CompiledFSM expected = sequential.get(i % EXPRESSIONS.size());
+            Assertions.assertEquals(expected.getStateCount(), concurrent.get(i).getStateCount());
+            Assertions.assertTrue(expected.isEquivalentTo(concurrent.get(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Fast mode keeps only the minimized result with the same language as traced mode")
+    public void testFastMode() {
+        ExpressionEvaluator fastEvaluator = new ExpressionEvaluator(ExpressionEvaluator.Mode.FAST, null);
+        for (String expression : EXPRESSIONS) {
+            FSMStorage storage = fastEvaluator.evaluateExpression(expression);
+            Assertions.assertTrue(storage.getFSMGroups().isEmpty());
+            Assertions.assertEquals(1, storage.getElementaryFSMs().size());
+
+            CompiledFSM fast = CompiledFSM.compile(storage.getResultFsm());
+            CompiledFSM traced = CompiledFSM.compile(new ExpressionEvaluator().evaluateExpression(expression).getResultFsm());
+            Assertions.assertTrue(traced.isEquivalentTo(fast), expression);
+            Assertions.assertEquals(traced.minimize().getStateCount(), fast.getStateCount(), expression);
+        }
+    }
+
+    @Test
+    @DisplayName("Fast mode compiles chained closures correctly")
+    public void testFastModeClosures() {
+        FSMStorage storage = new ExpressionEvaluator(ExpressionEvaluator.Mode.FAST, null).evaluateExpression("x*y*z*");
+        CompiledFSM fast = CompiledFSM.compile(storage.getResultFsm());
+        Assertions.assertEquals(3, fast.getStateCount());
+        Assertions.assertTrue(fast.matches(""));
+        Assertions.assertTrue(fast.matches("xxyzz"));
+        Assertions.assertFalse(fast.matches("yx"));
+    }
+
+    @Test
+    @DisplayName("Fast mode caches by the simplified expression, so equivalent spellings share one entry")
+    public void testFastModeCache() {
+        ExpressionCache<FSMStorage> cache = new ExpressionCache<>(10, 1_000,
+                storage -> storage.getResultFsm().getStates().size());
+        ExpressionEvaluator fastEvaluator = new ExpressionEvaluator(ExpressionEvaluator.Mode.FAST, cache);
+        FSMStorage first = fastEvaluator.evaluateExpression("(a|a)b*b*");
+        Assertions.assertSame(first, fastEvaluator.evaluateExpression("ab*"));
+        Assertions.assertEquals(1, cache.getMissCount());
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertTrue(CompiledFSM.compile(first.getResultFsm()).isEquivalentTo(CompiledFSM.compile("ab*")));
+    }
+}
@@ -0,0 +1,65 @@
+import geje1017.logic.compiler.ThompsonCompiler;
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.parser.ExpressionRewriter;
+import geje1017.logic.parser.ExpressionRewriter.Rule;
+import geje1017.logic.parser.RegexNode;
+import geje1017.logic.parser.RegexParser;
+import geje1017.logic.postfix.ExpressionConverter;
+import geje1017.logic.postfix.ExpressionValidator.InvalidExpressionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class ExpressionRewriterTest {
+
+    @Test
+    @DisplayName("Algebraic identities shrink the expression tree")
+    public void testIdentities() {
+        Assertions.assertEquals("a *", ExpressionRewriter.toSimplifiedPostfix("(a*)*"));
+        Assertions.assertEquals("a +", ExpressionRewriter.toSimplifiedPostfix("(a+)+"));
+        Assertions.assertEquals("a *", ExpressionRewriter.toSimplifiedPostfix("(a+)*"));
+        Assertions.assertEquals("a", ExpressionRewriter.toSimplifiedPostfix("a|a"));
+        Assertions.assertEquals("a *", ExpressionRewriter.toSimplifiedPostfix("(\\e|a)*"));
+        Assertions.assertEquals("a *", ExpressionRewriter.toSimplifiedPostfix("a*a*"));
+        Assertions.assertEquals("a +", ExpressionRewriter.toSimplifiedPostfix("a*a+"));
+        Assertions.assertEquals("a b c | ,", ExpressionRewriter.toSimplifiedPostfix("ab|ac"));
+        Assertions.assertEquals("a b c | , d |", ExpressionRewriter.toSimplifiedPostfix("ab|d|ac"));
+        Assertions.assertEquals("b", ExpressionRewriter.toSimplifiedPostfix("\\e b|a\\0"));
+        Assertions.assertEquals("ε", ExpressionRewriter.toSimplifiedPostfix("\\0*"));
+    }
+
+    @Test
+    @DisplayName("Removed nodes are counted per rule")
+    public void testCounters() throws InvalidExpressionException {
+        ExpressionRewriter rewriter = new ExpressionRewriter();
+        RegexNode root = RegexParser.parse("((a*)*)*|a|a|bc|bd");
+        RegexNode rewritten = rewriter.rewrite(root);
+
+        Assertions.assertEquals("a * a | b c d | , |", rewritten.toPostfix());
+        Assertions.assertEquals(2, rewriter.getRemovedNodes(Rule.NESTED_CLOSURE));
+        Assertions.assertEquals(1, rewriter.getRemovedNodes(Rule.DUPLICATE_ALTERNATIVE));
+        Assertions.assertEquals(1, rewriter.getRemovedNodes(Rule.COMMON_PREFIX));
+        Assertions.assertEquals(0, rewriter.getRemovedNodes(Rule.ADJACENT_CLOSURES));
+        Assertions.assertEquals(root.getSize() - rewritten.getSize(), rewriter.getTotalRemovedNodes());
+    }
+
+    @Test
+    @DisplayName("Rewritten expressions accept the same language")
+    public void testRandomExpressions() throws InvalidExpressionException {
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            String expression = RandomFixtures.expression(random, 4, "abc");
+            RegexNode root = RegexParser.parse(expression);
+            ExpressionRewriter rewriter = new ExpressionRewriter();
+            RegexNode rewritten = rewriter.rewrite(root);
+
+            CompiledFSM original = CompiledFSM.compile(ThompsonCompiler.toNfa(ExpressionConverter.convertInfixToPostfix(expression))).minimize();
+            CompiledFSM simplified = CompiledFSM.compile(ThompsonCompiler.toNfa(rewritten.toPostfix())).minimize();
+            Assertions.assertTrue(original.isEquivalentTo(simplified), expression + " -> " + rewritten.toPostfix());
+            // Flattening nested concatenations and alternations removes nodes that are not counted
+            Assertions.assertTrue(rewriter.getTotalRemovedNodes() <= root.getSize() - rewritten.getSize(), expression);
+        }
+    }
+}
@@ -1,7 +1,7 @@
 import geje1017.logic.postfix.ExpressionValidator;
-import org.junit.Test;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 
 public class ExpressionValidatorTest {
 
@@ -48,7 +48,8 @@ public class ExpressionValidatorTest {
     @Test
     @DisplayName("Empty expression should throw InvalidExpressionException")
     public void testEmptyExpression() {
-        Assertions.assertDoesNotThrow(() -> ExpressionValidator.validateInfix(""));
+        Assertions.assertThrows(ExpressionValidator.InvalidExpressionException.class,
+                () -> ExpressionValidator.validateInfix(""));
     }
 
     @Test
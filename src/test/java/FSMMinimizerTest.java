@@ -0,0 +1,43 @@
+import geje1017.gui.FSMGroup;
+import geje1017.logic.finiteStateMachine.FSMOperator.FSMDeterminizer;
+import geje1017.logic.finiteStateMachine.FSMOperator.FSMMinimizer;
+import geje1017.logic.finiteStateMachine.FSMStructure;
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.postfix.ExpressionEvaluator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class FSMMinimizerTest {
+
+    private static final String[] EXPRESSIONS = {"(a|b)*abb", "a+b*(c|d)", "(ab|ac)*", "(0|1)*0(0|1)(0|1)", "\\0", "\\e"};
+
+    @Test
+    @DisplayName("Hopcroft's algorithm yields an equivalent automaton with as many states as the Moore minimizer")
+    public void testHopcroftMatchesMoore() {
+        for (String expression : EXPRESSIONS) {
+            FSMStructure operationFsm = new ExpressionEvaluator().evaluateExpression(expression).getResultFsm();
+            FSMStructure deterministicFsm = FSMDeterminizer.toDeterministicFsm(operationFsm);
+
+            FSMStructure moore = FSMMinimizer.minimize(deterministicFsm, FSMMinimizer.Algorithm.MOORE);
+            FSMStructure hopcroft = FSMMinimizer.minimize(deterministicFsm, FSMMinimizer.Algorithm.HOPCROFT);
+
+            Assertions.assertTrue(CompiledFSM.compile(moore).isEquivalentTo(CompiledFSM.compile(hopcroft)), expression);
+            Assertions.assertEquals(moore.getStates().size(), hopcroft.getStates().size(), expression);
+        }
+    }
+
+    @Test
+    @DisplayName("Minimizing a compiled automaton merges equivalent states")
+    public void testCompiledMinimize() {
+        List<FSMGroup> groups = new ExpressionEvaluator().evaluateExpression("(a|b)*abb").getFSMGroups();
+        FSMStructure operationFsm = groups.get(groups.size() - 1).getOperationFSM();
+        CompiledFSM fsm = CompiledFSM.compile(FSMDeterminizer.toDeterministicFsm(operationFsm));
+        CompiledFSM minimized = fsm.minimize();
+
+        Assertions.assertEquals(4, minimized.getStateCount());
+        Assertions.assertTrue(minimized.isEquivalentTo(fsm));
+    }
+}
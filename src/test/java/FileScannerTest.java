@@ -0,0 +1,90 @@
+import geje1017.headless.FileScanner;
+import geje1017.logic.matcher.CompiledFSM;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class FileScannerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Scanner reports the offsets and contents of all matching lines in order, independent of the chunk size")
+    public void testMatchingLines() throws IOException {
+        CompiledFSM fsm = CompiledFSM.compile("(a|ä)*b");
+        Random random = new Random(11);
+        StringBuilder content = new StringBuilder();
+        List<Long> expected = new ArrayList<>();
+        List<String> expectedLines = new ArrayList<>();
+        long offset = 0;
+        for (int i = 0; i < 2000; i++) {
+            String line = RandomFixtures.input(random, "aäbc\r", random.nextInt(12));
+            String lineBreak = random.nextInt(5) == 0 ? "\r\n" : "\n";
+            // One carriage return before the line break is not part of the line
+            String text = (line + lineBreak).substring(0, line.length() + lineBreak.length() - 1);
+            String lineContent = text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+            if (fsm.matches(lineContent)) {
+                expected.add(offset);
+                expectedLines.add(lineContent);
+            }
+            content.append(line).append(lineBreak);
+            offset += (line + lineBreak).getBytes(StandardCharsets.UTF_8).length;
+        }
+        // The last line has no line break
+        content.append("aab");
+        expected.add(offset);
+        expectedLines.add("aab");
+        Path file = Files.writeString(directory.resolve("input.txt"), content, StandardCharsets.UTF_8);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int chunkSize : new int[]{1, 7, 4096, FileScanner.DEFAULT_CHUNK_SIZE}) {
+                long[] lines = new FileScanner(fsm, chunkSize, pool).findMatchingLines(file);
+                Assertions.assertEquals(expected, toList(lines), "Chunk size " + chunkSize);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Long> emitted = new ArrayList<>();
+        FileScanner.ScanResult result = new FileScanner(fsm).scan(file, emitted::add);
+        Assertions.assertEquals(expected, emitted);
+        Assertions.assertEquals(2001, result.getLineCount());
+        Assertions.assertEquals(expected.size(), result.getMatchCount());
+        Assertions.assertEquals(Files.size(file), result.getBytes());
+
+        List<String> lines = new ArrayList<>();
+        new FileScanner(fsm, 4096, ForkJoinPool.commonPool())
+                .scanLines(file, (lineOffset, line) -> lines.add(StandardCharsets.UTF_8.decode(line).toString()));
+        Assertions.assertEquals(expectedLines, lines);
+    }
+
+    @Test
+    @DisplayName("Empty files and empty lines are handled")
+    public void testEmptyLines() throws IOException {
+        Path empty = Files.writeString(directory.resolve("empty.txt"), "");
+        Assertions.assertEquals(0, new FileScanner(CompiledFSM.compile("a*")).findMatchingLines(empty).length);
+
+        Path blank = Files.writeString(directory.resolve("blank.txt"), "\n\nb\n");
+        Assertions.assertEquals(List.of(0L, 1L), toList(new FileScanner(CompiledFSM.compile("a*")).findMatchingLines(blank)));
+    }
+
+    private static List<Long> toList(long[] values) {
+        List<Long> list = new ArrayList<>();
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
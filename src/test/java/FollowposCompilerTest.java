@@ -0,0 +1,46 @@
+import geje1017.logic.compiler.FollowposCompiler;
+import geje1017.logic.finiteStateMachine.IndexedFSM;
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.postfix.ExpressionConverter;
+import geje1017.logic.postfix.ExpressionEvaluator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+public class FollowposCompilerTest {
+
+    private static final List<String> EXPRESSIONS = List.of("(a|b)*abb", "a+b*(c|d)", "x*y*z*", "a+(ba)*",
+            "a|\\e", "\\e+", "(0|\\0)+cd\\e", "(a\\0|b)c", "((a|b)*c)+");
+
+    @Test
+    @DisplayName("Position automaton has one state per symbol occurrence and no epsilon transitions")
+    public void testPositionAutomaton() {
+        IndexedFSM nfa = FollowposCompiler.toNfa(ExpressionConverter.convertInfixToPostfix("(a|b)*abb"));
+        Assertions.assertEquals(6, nfa.getStateCount());
+        Assertions.assertFalse(nfa.hasEpsilonTransitions());
+        Assertions.assertEquals(4, FollowposCompiler.compile("(a|b)*abb").getStateCount());
+    }
+
+    @Test
+    @DisplayName("Followpos construction is equivalent to the evaluation pipeline")
+    public void testEquivalentToPipeline() {
+        for (String expression : EXPRESSIONS) {
+            assertEquivalentToPipeline(expression);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 300; i++) {
+            assertEquivalentToPipeline(RandomFixtures.expression(random, 4, "abc"));
+        }
+    }
+
+    private static void assertEquivalentToPipeline(String expression) {
+        CompiledFSM direct = FollowposCompiler.compile(expression);
+        CompiledFSM traced = CompiledFSM.compile(new ExpressionEvaluator().evaluateExpression(expression).getResultFsm());
+        Assertions.assertTrue(direct.isEquivalentTo(traced), expression);
+        Assertions.assertEquals(traced.minimize().getStateCount(), direct.getStateCount(), expression);
+        Assertions.assertTrue(direct.isEquivalentTo(CompiledFSM.compile(expression)), expression);
+    }
+}
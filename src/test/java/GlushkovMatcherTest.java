@@ -0,0 +1,56 @@
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.matcher.GlushkovMatcher;
+import geje1017.logic.matcher.RegexMatcher;
+import geje1017.logic.postfix.ExpressionConverter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class GlushkovMatcherTest {
+
+    @Test
+    @DisplayName("Bit-parallel simulation accepts the same inputs as the compiled DFA")
+    public void testMatchesCompiledFsm() {
+        Random random = new Random(18);
+        for (int i = 0; i < 300; i++) {
+            String expression = RandomFixtures.expression(random, 4, "abcä");
+            GlushkovMatcher matcher = GlushkovMatcher.fromPostfix(ExpressionConverter.convertInfixToPostfix(expression));
+            CompiledFSM expected = CompiledFSM.compile(expression);
+            for (int j = 0; j < 50; j++) {
+                String input = RandomFixtures.input(random, "abcä", random.nextInt(10));
+                Assertions.assertEquals(expected.matches(input), matcher.matches(input),
+                        "Expression '" + expression + "', input '" + input + "'");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A DFA is used unless it exceeds the state budget and the expression fits into 64 positions")
+    public void testEngineSelection() {
+        String largest = "(a|b)*" + "ab".repeat(31);
+        GlushkovMatcher matcher = GlushkovMatcher.compile(largest);
+        Assertions.assertEquals(64, matcher.getPositionCount());
+        Assertions.assertTrue(matcher.matches("ba" + "ab".repeat(31)));
+        Assertions.assertFalse(matcher.matches("ba" + "ab".repeat(30) + "aa"));
+        // The DFA of this expression is small, so it is built
+        Assertions.assertInstanceOf(CompiledFSM.class, RegexMatcher.compile(largest));
+
+        // The DFA of this expression has 2^11 states
+        String exponential = "(a|b)*a" + "(a|b)".repeat(10);
+        RegexMatcher bitParallel = RegexMatcher.compile(exponential);
+        Assertions.assertInstanceOf(GlushkovMatcher.class, bitParallel);
+        Assertions.assertTrue(bitParallel.matches("ba" + "b".repeat(10)));
+        Assertions.assertFalse(bitParallel.matches("ab" + "b".repeat(10)));
+
+        String tooLarge = largest + "c";
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GlushkovMatcher.compile(tooLarge));
+        RegexMatcher fallback = RegexMatcher.compile(tooLarge);
+        Assertions.assertInstanceOf(CompiledFSM.class, fallback);
+        Assertions.assertTrue(fallback.matches("ab".repeat(31) + "c"));
+
+        Assertions.assertTrue(GlushkovMatcher.compile("a*").matches(""));
+        Assertions.assertFalse(GlushkovMatcher.compile("\\0").matches(""));
+    }
+}
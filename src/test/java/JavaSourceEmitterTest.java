@@ -0,0 +1,78 @@
+import geje1017.logic.finiteStateMachine.Alphabet;
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.matcher.JavaSourceEmitter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class JavaSourceEmitterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Generated class accepts the same inputs as the automaton, with inline and string tables")
+    public void testGeneratedClass() throws Exception {
+        CompiledFSM fsm = CompiledFSM.compile("(a|b)*abb|c(ä|0)*");
+        String source = JavaSourceEmitter.emit(fsm, "generated.Validator");
+        Assertions.assertEquals(source, JavaSourceEmitter.emit(fsm, "generated.Validator"));
+        Assertions.assertFalse(source.contains("unpack("));
+        assertSameLanguage(fsm, compile("generated.Validator", source), "abcä0\"", new Random(20));
+
+        // Symbols that need escapes in string literals and a table that is too large to be inlined
+        CompiledFSM random = RandomFixtures.fsm(new Random(21), 300, "\"\\\n\r\0\u007fÿä ￿a".toCharArray());
+        String packed = JavaSourceEmitter.emit(random, "Packed", 0);
+        Assertions.assertTrue(packed.contains("unpack("));
+        assertSameLanguage(random, compile("Packed", packed), "\"\\\n\r\0\u007fÿä ￿ab", new Random(22));
+    }
+
+    @Test
+    @DisplayName("Automata with more than 65534 states store transitions in two chars")
+    public void testWideTransitions() throws Exception {
+        // A chain of states that accepts every word of a's whose length is a multiple of 7
+        int stateCount = 70_000;
+        int[] transitions = new int[stateCount];
+        boolean[] accepting = new boolean[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            transitions[state] = state + 1 < stateCount ? state + 1 : CompiledFSM.DEAD_STATE;
+            accepting[state] = state % 7 == 0;
+        }
+        CompiledFSM fsm = new CompiledFSM(new Alphabet(new char[]{'a'}), 0, transitions, accepting);
+        String source = JavaSourceEmitter.emit(fsm, "wide.Chain");
+        Assertions.assertTrue(source.contains("unpackInts("));
+        Method matches = compile("wide.Chain", source);
+        for (int length : new int[]{0, 1, 7, 65_534, 65_541, 69_993, 69_999, 70_000}) {
+            String input = "a".repeat(length);
+            Assertions.assertEquals(fsm.matches(input), matches.invoke(null, input), "Length " + length);
+        }
+    }
+
+    private Method compile(String className, String source) throws Exception {
+        Path file = directory.resolve(className.replace('.', '/') + ".java");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source, StandardCharsets.UTF_8);
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        int result = compiler.run(null, null, null, "-encoding", "UTF-8", "-d", directory.toString(), file.toString());
+        Assertions.assertEquals(0, result, "The generated source does not compile");
+        URLClassLoader loader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, null);
+        return loader.loadClass(className).getMethod("matches", CharSequence.class);
+    }
+
+    private static void assertSameLanguage(CompiledFSM fsm, Method matches, String letters, Random random) throws Exception {
+        for (int i = 0; i < 2000; i++) {
+            String input = RandomFixtures.input(random, letters, random.nextInt(10));
+            Assertions.assertEquals(fsm.matches(input), matches.invoke(null, input), "Input '" + input + "'");
+        }
+    }
+}
@@ -0,0 +1,88 @@
+import geje1017.logic.compiler.ThompsonCompiler;
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.matcher.LazyDFA;
+import geje1017.logic.parser.ExpressionRewriter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class LazyDFATest {
+
+    private static final String[] EXPRESSIONS = {"(a|b)*abb", "a*b*|c", "(ab|ba)*(a|ε)", "((a|b)(a|b))*", "Ø|a", "ε",
+            "(a|b)*a(a|b)(a|b)(a|b)", "c(a*|b)*c"};
+
+    @Test
+    @DisplayName("Lazy DFA accepts the same inputs as the compiled DFA for every cache size")
+    public void testMatchesCompiledFsm() {
+        Random random = new Random(16);
+        for (String expression : EXPRESSIONS) {
+            CompiledFSM expected = CompiledFSM.compile(expression);
+            for (int maxStates : new int[]{2, 3, 1000}) {
+                LazyDFA lazy = new LazyDFA(ThompsonCompiler.toNfa(ExpressionRewriter.toSimplifiedPostfix(expression)),
+                        maxStates);
+                for (int i = 0; i < 500; i++) {
+                    String input = RandomFixtures.input(random, "abc", random.nextInt(13));
+                    Assertions.assertEquals(expected.matches(input), lazy.matches(input),
+                            "Expression '" + expression + "', cache size " + maxStates + ", input '" + input + "'");
+                }
+                Assertions.assertTrue(lazy.getCachedStateCount() <= maxStates);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Only the states visited by the input are built")
+    public void testExponentialExpression() {
+        // The full DFA of this expression has 2^21 states
+        LazyDFA lazy = LazyDFA.compile("(a|b)*a" + "(a|b)".repeat(20));
+        StringBuilder input = new StringBuilder("a");
+        for (int i = 0; i < 20; i++) {
+            input.append(i % 3 == 0 ? 'a' : 'b');
+        }
+        Assertions.assertTrue(lazy.matches(input));
+        Assertions.assertFalse(lazy.matches(input.substring(1)));
+        Assertions.assertTrue(lazy.getCachedStateCount() <= 2 * input.length() + 2);
+
+        // Matching the same input again is answered from the cache
+        long misses = lazy.getCacheMisses();
+        Assertions.assertTrue(lazy.matches(input));
+        Assertions.assertEquals(misses, lazy.getCacheMisses());
+        Assertions.assertTrue(lazy.getCacheHitRate() > 0);
+        Assertions.assertEquals(0, lazy.getFlushCount());
+    }
+
+    @Test
+    @DisplayName("Threads can share one cache that is flushed while they match")
+    public void testConcurrentMatching() throws Exception {
+        String expression = "(a|b)*a(a|b)(a|b)(a|b)(a|b)(a|b)";
+        CompiledFSM expected = CompiledFSM.compile(expression);
+        LazyDFA lazy = new LazyDFA(ThompsonCompiler.toNfa(ExpressionRewriter.toSimplifiedPostfix(expression)), 8);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Random random = new Random(t);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        String input = RandomFixtures.input(random, "abc", random.nextInt(31)).replace('c', 'a');
+                        Assertions.assertEquals(expected.matches(input), lazy.matches(input), input);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertTrue(lazy.getFlushCount() > 0);
+        Assertions.assertTrue(lazy.getCachedStateCount() <= 8);
+    }
+}
@@ -0,0 +1,116 @@
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.matcher.MappedFSM;
+import geje1017.logic.matcher.MultiPatternFSM;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32C;
+
+public class MappedFSMTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("A mapped file matches like the automaton it was written from")
+    public void testRoundTrip() throws IOException {
+        CompiledFSM fsm = CompiledFSM.compile("(a|b)*abb|ä(c|ö)+").minimize();
+        Path file = directory.resolve("pattern.dfa");
+        MappedFSM.write(fsm, file);
+        MappedFSM mapped = MappedFSM.map(file);
+
+        Assertions.assertEquals(MappedFSM.COMPILER_ID, mapped.getCompilerId());
+        Assertions.assertEquals(fsm.getStateCount(), mapped.getStateCount());
+        Assertions.assertEquals(Files.size(file), MappedFSM.encode(fsm).capacity());
+        Assertions.assertEquals(0, Files.size(file) % 8);
+        Random random = new Random(50);
+        for (int i = 0; i < 2000; i++) {
+            String input = RandomFixtures.input(random, "abäcöx", random.nextInt(8));
+            Assertions.assertEquals(fsm.matches(input), mapped.matches(input), input);
+        }
+
+        MultiPatternFSM patterns = MultiPatternFSM.compile(List.of("ab*", "a(b|c)", "c+"));
+        MappedFSM mappedPatterns = MappedFSM.wrap(MappedFSM.encode(patterns));
+        Assertions.assertEquals(3, mappedPatterns.getPatternCount());
+        for (String input : new String[]{"a", "ab", "ac", "abb", "ccc", "", "ba"}) {
+            Assertions.assertArrayEquals(patterns.match(input), mappedPatterns.getPatterns(mappedPatterns.run(input)),
+                    input);
+        }
+    }
+
+    @Test
+    @DisplayName("Corrupted, truncated and foreign data is rejected")
+    public void testInvalidData() {
+        ByteBuffer encoded = MappedFSM.encode(CompiledFSM.compile("ab*c"));
+        byte[] bytes = Arrays.copyOf(encoded.array(), encoded.capacity());
+        Assertions.assertTrue(MappedFSM.wrap(ByteBuffer.wrap(bytes)).matches("abbc"));
+
+        byte[] corrupted = bytes.clone();
+        corrupted[corrupted.length - 1] ^= 1;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MappedFSM.wrap(ByteBuffer.wrap(corrupted)));
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 8);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MappedFSM.wrap(ByteBuffer.wrap(truncated)));
+
+        byte[] newerVersion = bytes.clone();
+        newerVersion[4] = 2;
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> MappedFSM.wrap(ByteBuffer.wrap(newerVersion)));
+        Assertions.assertTrue(exception.getMessage().contains("version"));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MappedFSM.wrap(ByteBuffer.wrap(new byte[64])));
+    }
+
+    @Test
+    @DisplayName("Data with a valid checksum but out-of-range contents is rejected while loading")
+    public void testInvalidContents() {
+        ByteBuffer encoded = MappedFSM.encode(MultiPatternFSM.compile(List.of("ab*", "a(b|c)", "c+")));
+        byte[] bytes = Arrays.copyOf(encoded.array(), encoded.capacity());
+        int transitions = encoded.getInt(32);
+        int patternStarts = encoded.getInt(40);
+        int patternIds = encoded.getInt(44);
+
+        byte[] badTarget = withInt(bytes, transitions, 1_000_000);
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> MappedFSM.wrap(ByteBuffer.wrap(badTarget)));
+        Assertions.assertTrue(exception.getMessage().contains("target state"), exception.getMessage());
+
+        // The first state with patterns starts behind its successor
+        int state = 0;
+        while (encoded.getInt(patternStarts + 4 * (state + 1)) == 0) {
+            state++;
+        }
+        byte[] decreasingStarts = withInt(bytes, patternStarts + 4 * (state + 1), -1);
+        exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> MappedFSM.wrap(ByteBuffer.wrap(decreasingStarts)));
+        Assertions.assertTrue(exception.getMessage().contains("pattern starts"), exception.getMessage());
+
+        byte[] badPattern = withInt(bytes, patternIds, 3);
+        exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> MappedFSM.wrap(ByteBuffer.wrap(badPattern)));
+        Assertions.assertTrue(exception.getMessage().contains("pattern id"), exception.getMessage());
+    }
+
+    /**
+     * Overwrites a little-endian int of encoded data and updates the checksum, as a faulty writer would.
+     */
+    private static byte[] withInt(byte[] bytes, int offset, int value) {
+        ByteBuffer data = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(offset, value);
+        CRC32C crc = new CRC32C();
+        crc.update(data.array(), 0, 52);
+        crc.update(data.array(), 56, bytes.length - 56);
+        data.putInt(52, (int) crc.getValue());
+        return data.array();
+    }
+}
@@ -0,0 +1,61 @@
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.matcher.MultiPatternFSM;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class MultiPatternFSMTest {
+
+    @Test
+    @DisplayName("Combined automaton reports exactly the patterns that accept the input on their own")
+    public void testMatchesIndividualPatterns() {
+        List<String> expressions = List.of("(a|b)*abb", "a*", "ab", "(a|b)(a|b)", "c*a", "b*(c|ε)", "Ø", "(ab)*");
+        List<CompiledFSM> patterns = new ArrayList<>();
+        for (String expression : expressions) {
+            patterns.add(CompiledFSM.compile(expression));
+        }
+        MultiPatternFSM fsm = MultiPatternFSM.compile(expressions);
+        Assertions.assertEquals(expressions.size(), fsm.getPatternCount());
+
+        Random random = new Random(14);
+        for (int i = 0; i < 3000; i++) {
+            String input = RandomFixtures.input(random, "abcd", random.nextInt(8));
+            List<Integer> expected = new ArrayList<>();
+            for (int p = 0; p < patterns.size(); p++) {
+                if (patterns.get(p).matches(input)) {
+                    expected.add(p);
+                }
+            }
+            List<Integer> actual = new ArrayList<>();
+            for (int p : fsm.match(input)) {
+                actual.add(p);
+            }
+            Assertions.assertEquals(expected, actual, "Input '" + input + "'");
+            Assertions.assertEquals(expected.isEmpty() ? MultiPatternFSM.NO_PATTERN : expected.get(0),
+                    fsm.matchFirst(input), "Input '" + input + "'");
+        }
+    }
+
+    @Test
+    @DisplayName("States are only merged if they accept the same patterns")
+    public void testMinimizationKeepsPatternIds() {
+        // Both patterns describe the same language, so every accepting state accepts both
+        MultiPatternFSM same = MultiPatternFSM.compile(List.of("a(b|c)", "ab|ac"));
+        Assertions.assertEquals(CompiledFSM.compile("a(b|c)").getStateCount(), same.getStateCount());
+        Assertions.assertArrayEquals(new int[]{0, 1}, same.match("ac"));
+
+        // The languages differ only in the accepting pattern, so the accepting states must stay apart
+        MultiPatternFSM different = MultiPatternFSM.compile(List.of("ab", "ac"));
+        Assertions.assertEquals(4, different.getStateCount());
+        Assertions.assertEquals(1, different.matchFirst("ac"));
+        Assertions.assertEquals(MultiPatternFSM.NO_PATTERN, different.matchFirst("a"));
+
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> MultiPatternFSM.compile(List.of("a", "(b")));
+        Assertions.assertTrue(e.getMessage().startsWith("Invalid pattern 1"));
+    }
+}
@@ -0,0 +1,57 @@
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.matcher.ParallelDFAMatcher;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelDFAMatcherTest {
+
+    @Test
+    @DisplayName("The end states of all chunks equal those of a sequential run")
+    public void testChunkEndStates() {
+        Random random = new Random(30);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int round = 0; round < 50; round++) {
+                CompiledFSM fsm = RandomFixtures.fsm(random, 1 + random.nextInt(12), new char[]{'a', 'b', 'c'});
+                int chunkSize = 1 + random.nextInt(40);
+                ParallelDFAMatcher matcher = new ParallelDFAMatcher(fsm, chunkSize, pool);
+                String input = RandomFixtures.input(random, "abcx", random.nextInt(500));
+
+                int[] endStates = matcher.run(input);
+                Assertions.assertEquals(Math.max(1, (input.length() + chunkSize - 1) / chunkSize), endStates.length);
+                int state = fsm.getStartState();
+                for (int i = 0; i < input.length(); i++) {
+                    state = fsm.step(state, input.charAt(i));
+                    if ((i + 1) % chunkSize == 0 || i == input.length() - 1) {
+                        int expected = fsm.canReachAcceptingState(state) ? state : CompiledFSM.DEAD_STATE;
+                        Assertions.assertEquals(expected, endStates[i / chunkSize], "Chunk " + i / chunkSize);
+                    }
+                }
+                Assertions.assertEquals(fsm.matches(input), matcher.matches(input));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Large inputs are accepted exactly if the sequential DFA accepts them")
+    public void testMatches() {
+        CompiledFSM fsm = CompiledFSM.compile("(a|b)*a(a|b)(a|b)").minimize();
+        ParallelDFAMatcher matcher = new ParallelDFAMatcher(fsm, 1000, ForkJoinPool.commonPool());
+        Random random = new Random(31);
+        for (int i = 0; i < 20; i++) {
+            String input = RandomFixtures.input(random, "ab", 10_000 + random.nextInt(10_000));
+            Assertions.assertEquals(fsm.matches(input), matcher.matches(input));
+        }
+        Assertions.assertTrue(matcher.matches("b".repeat(50_000) + "abb"));
+        Assertions.assertFalse(matcher.matches("a".repeat(50_000) + "bbb"));
+        Assertions.assertFalse(matcher.matches("a".repeat(50_000) + "c" + "abb"));
+        Assertions.assertFalse(matcher.matches(""));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ParallelDFAMatcher(fsm, 0, ForkJoinPool.commonPool()));
+    }
+}
@@ -0,0 +1,78 @@
+import geje1017.logic.finiteStateMachine.Alphabet;
+import geje1017.logic.matcher.CompiledFSM;
+
+import java.util.Random;
+
+/**
+ * Generates the random expressions, automata and inputs on which the tests compare different engines.
+ */
+final class RandomFixtures {
+
+    private RandomFixtures() {
+    }
+
+    /**
+     * Generates a random infix expression with concatenations, alternations and both closures. The operands are
+     * the given symbols and occasionally the empty string {@code \e} or the empty set {@code \0}.
+     *
+     * @param random The source of randomness.
+     * @param depth The maximum nesting depth of the operators.
+     * @param symbols The symbols the expression is built from.
+     * @return The expression.
+     */
+    static String expression(Random random, int depth, String symbols) {
+        if (depth <= 0 || random.nextInt(9) < 4) {
+            switch (random.nextInt(12)) {
+                case 0: return "\\e";
+                case 1: return "\\0";
+                default: return String.valueOf(symbols.charAt(random.nextInt(symbols.length())));
+            }
+        }
+        String left = expression(random, depth - 1, symbols);
+        switch (random.nextInt(5)) {
+            case 0:
+            case 1: return left + expression(random, depth - 1, symbols);
+            case 2: return "(" + left + "|" + expression(random, depth - 1, symbols) + ")";
+            case 3: return "(" + left + ")*";
+            default: return "(" + left + ")+";
+        }
+    }
+
+    /**
+     * Generates a DFA with random transitions, accepting states and start state. About every eighth transition
+     * is missing and about every third state is accepting.
+     *
+     * @param random The source of randomness.
+     * @param stateCount The number of states.
+     * @param symbols The symbols of the alphabet.
+     * @return The automaton.
+     */
+    static CompiledFSM fsm(Random random, int stateCount, char[] symbols) {
+        Alphabet alphabet = new Alphabet(symbols);
+        int[] transitions = new int[stateCount * alphabet.size()];
+        for (int i = 0; i < transitions.length; i++) {
+            transitions[i] = random.nextInt(8) == 0 ? CompiledFSM.DEAD_STATE : random.nextInt(stateCount);
+        }
+        boolean[] accepting = new boolean[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            accepting[state] = random.nextInt(3) == 0;
+        }
+        return new CompiledFSM(alphabet, random.nextInt(stateCount), transitions, accepting);
+    }
+
+    /**
+     * Generates a random input.
+     *
+     * @param random The source of randomness.
+     * @param letters The letters the input is built from.
+     * @param length The length of the input.
+     * @return The input.
+     */
+    static String input(Random random, String letters, int length) {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            input.append(letters.charAt(random.nextInt(letters.length())));
+        }
+        return input.toString();
+    }
+}
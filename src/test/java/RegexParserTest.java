@@ -0,0 +1,64 @@
+import geje1017.logic.parser.RegexNode;
+import geje1017.logic.parser.RegexParser;
+import geje1017.logic.postfix.ExpressionValidator.InvalidExpressionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class RegexParserTest {
+
+    @Test
+    @DisplayName("Parser builds a typed tree with positions and converts it to postfix")
+    public void testTree() throws InvalidExpressionException {
+        RegexNode root = RegexParser.parse("ab|c* \\e");
+        Assertions.assertInstanceOf(RegexNode.Alternation.class, root);
+        RegexNode right = root.getChildren().get(1);
+        Assertions.assertInstanceOf(RegexNode.Concatenation.class, right);
+        Assertions.assertEquals(3, right.getPosition());
+        Assertions.assertInstanceOf(RegexNode.Closure.class, right.getChildren().get(0));
+        Assertions.assertInstanceOf(RegexNode.EmptyString.class, right.getChildren().get(1));
+        Assertions.assertEquals("a b , c * ε , |", root.toPostfix());
+
+        Assertions.assertEquals("a b , c ,", RegexParser.parse("a()b,c").toPostfix());
+        Assertions.assertEquals("a + * b ,", RegexParser.parse("a+*b").toPostfix());
+        Assertions.assertInstanceOf(RegexNode.EmptyString.class, RegexParser.parse("(())"));
+    }
+
+    @Test
+    @DisplayName("Syntax errors are reported with their position")
+    public void testErrorPositions() {
+        assertError("a+b#c", 3);
+        assertError("a||b", 2);
+        assertError("|a", 0);
+        assertError("a|", 2);
+        assertError("a+(b*c", 2);
+        assertError("ab)", 2);
+        assertError("(*a)", 1);
+        assertError("()+", 2);
+        assertError("", 0);
+        assertError("  ", 0);
+    }
+
+    @Test
+    @DisplayName("Long expressions are parsed in linear time, deep nesting is rejected")
+    public void testLargeExpressions() throws InvalidExpressionException {
+        StringBuilder expression = new StringBuilder();
+        while (expression.length() < 1_000_000) {
+            expression.append("(ab|c)*d");
+        }
+        long start = System.nanoTime();
+        RegexNode root = RegexParser.parse(expression.toString());
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        Assertions.assertEquals(250_000, root.getChildren().size());
+        Assertions.assertTrue(millis < 2000, "Parsing took " + millis + " ms");
+
+        String nested = "(".repeat(RegexParser.MAX_NESTING_DEPTH + 1) + "a" + ")".repeat(RegexParser.MAX_NESTING_DEPTH + 1);
+        assertError(nested, RegexParser.MAX_NESTING_DEPTH);
+    }
+
+    private static void assertError(String expression, int position) {
+        InvalidExpressionException exception = Assertions.assertThrows(InvalidExpressionException.class,
+                () -> RegexParser.parse(expression));
+        Assertions.assertEquals(position, exception.getPosition(), exception.getMessage());
+    }
+}
@@ -0,0 +1,36 @@
+import geje1017.logic.parser.RequiredLiterals;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class RequiredLiteralsTest {
+
+    @Test
+    @DisplayName("Prefix, suffix and infix are derived from concatenations, alternations and closures")
+    public void testLiterals() {
+        assertLiterals("abc", "abc", "abc", "abc", "abc");
+        assertLiterals("ab(c|d)*ef", null, "ab", "ef", "ab");
+        assertLiterals("x(abcd|zbcdy)+y", null, "x", "y", "bcd");
+        assertLiterals("(ab|ac)d", null, "a", "d", "a");
+        assertLiterals("a*|b", null, "", "", "");
+        assertLiterals("(a\\e)+b", null, "a", "ab", "ab");
+        assertLiterals("q(er)+t", null, "qer", "ert", "qer");
+    }
+
+    @Test
+    @DisplayName("The empty set and the empty string do not produce literals")
+    public void testEmptyLanguages() {
+        assertLiterals("\\0", null, "", "", "");
+        assertLiterals("\\e", "", "", "", "");
+        assertLiterals("(\\0)*ab", "ab", "ab", "ab", "ab");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RequiredLiterals.of("a|"));
+    }
+
+    private static void assertLiterals(String expression, String exact, String prefix, String suffix, String infix) {
+        RequiredLiterals literals = RequiredLiterals.of(expression);
+        Assertions.assertEquals(exact, literals.getExact(), expression);
+        Assertions.assertEquals(prefix, literals.getPrefix(), expression);
+        Assertions.assertEquals(suffix, literals.getSuffix(), expression);
+        Assertions.assertEquals(infix, literals.getInfix(), expression);
+    }
+}
@@ -0,0 +1,106 @@
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.matcher.SearchFSM;
+import geje1017.logic.matcher.SearchFSM.Match;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SearchFSMTest {
+
+    @Test
+    @DisplayName("Search reports leftmost-longest matches")
+    public void testFind() {
+        SearchFSM search = SearchFSM.compile("ab+|b+c");
+        Assertions.assertEquals(new Match(2, 6), search.find("xxabbbc"));
+        Assertions.assertEquals(new Match(3, 7), search.find("xxabbbc", 3));
+        Assertions.assertNull(search.find("xxaxc"));
+        Assertions.assertTrue(search.contains("zzabzz"));
+        Assertions.assertFalse(search.contains(""));
+
+        // The match ending first is not the leftmost one
+        Assertions.assertEquals(new Match(0, 5), SearchFSM.compile("xabcy|ab").find("xabcy"));
+        Assertions.assertEquals(List.of(new Match(0, 0), new Match(1, 4), new Match(4, 4)),
+                SearchFSM.compile("a*").findAll("baaa"));
+        Assertions.assertEquals(List.of(), SearchFSM.compile("\\0").findAll("abc"));
+    }
+
+    @Test
+    @DisplayName("Search agrees with trying every span of random inputs")
+    public void testRandomInputs() {
+        Random random = new Random(5);
+        String[] expressions = {"(a|b)*abb", "a+|ab*c", "(ab|c)+", "c*", "a(b|\\e)c|bc", "(a|b)(a|b)c+"};
+        for (String expression : expressions) {
+            CompiledFSM fsm = CompiledFSM.compile(expression);
+            SearchFSM search = SearchFSM.of(fsm);
+            for (int i = 0; i < 200; i++) {
+                String input = RandomFixtures.input(random, "abcd", random.nextInt(25));
+                Assertions.assertEquals(findAllByTrial(fsm, input), search.findAll(input),
+                        expression + " in " + input);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Skipping to the required literals finds the same matches")
+    public void testLiteralPrefilter() {
+        SearchFSM search = SearchFSM.compile("err(a|b)+or(x|\\e)c");
+        Assertions.assertEquals("err", search.getPrefix());
+        Assertions.assertEquals("c", search.getSuffix());
+        Assertions.assertEquals("err", search.getInfix());
+        Assertions.assertEquals(new Match(23, 33), search.find("zz errorc err errabbor-errabaorxc"));
+
+        Random random = new Random(6);
+        String[] expressions = {"ab(a|c)*ba", "(ab|cb)+a", "b(a|b)*cc|bc", "c(ab)+", "a(c|\\0)bb*"};
+        for (String expression : expressions) {
+            SearchFSM withLiterals = SearchFSM.compile(expression);
+            SearchFSM withoutLiterals = SearchFSM.of(CompiledFSM.compile(expression));
+            for (int i = 0; i < 300; i++) {
+                String input = RandomFixtures.input(random, "abcd", random.nextInt(40));
+                List<Match> expected = withoutLiterals.findAll(input);
+                Assertions.assertEquals(expected, withLiterals.findAll(input), expression + " in " + input);
+                Assertions.assertEquals(expected, withLiterals.findAll(input), expression + " in " + input);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Finding all matches stays linear when the longest-match extensions overlap")
+    public void testLinearTime() {
+        // Every 'a' is a match of its own, but the extension of each one reads to the end of the input
+        SearchFSM search = SearchFSM.compile("a|a*b");
+        String input = "a".repeat(200_000);
+        List<Match> matches = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> search.findAll(input));
+        Assertions.assertEquals(input.length(), matches.size());
+        Assertions.assertEquals(new Match(199_999, 200_000), matches.get(matches.size() - 1));
+
+        Assertions.assertEquals(List.of(new Match(0, 4), new Match(4, 5)), search.findAll("aaaba"));
+    }
+
+    private static List<Match> findAllByTrial(CompiledFSM fsm, String input) {
+        List<Match> matches = new ArrayList<>();
+        int position = 0;
+        while (position <= input.length()) {
+            Match match = null;
+            for (int start = position; start <= input.length() && match == null; start++) {
+                for (int end = input.length(); end >= start; end--) {
+                    if (fsm.matches(input.substring(start, end))) {
+                        match = new Match(start, end);
+                        break;
+                    }
+                }
+            }
+            if (match == null) {
+                break;
+            }
+            matches.add(match);
+            position = match.getEnd() > match.getStart() ? match.getEnd() : match.getStart() + 1;
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,93 @@
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.matcher.StreamingMatcher;
+import geje1017.logic.matcher.StreamingMatcher.Status;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+public class StreamingMatcherTest {
+
+    @Test
+    @DisplayName("Input fed in chunks gives the same result as the whole input")
+    public void testChunks() {
+        CompiledFSM fsm = CompiledFSM.compile("(a|b)*abb");
+        Random random = new Random(3);
+        for (int i = 0; i < 200; i++) {
+            char[] input = new char[random.nextInt(30)];
+            for (int j = 0; j < input.length; j++) {
+                input[j] = random.nextBoolean() ? 'a' : 'b';
+            }
+
+            StreamingMatcher matcher = fsm.streamingMatcher();
+            int offset = 0;
+            while (offset < input.length) {
+                int length = Math.min(random.nextInt(5), input.length - offset);
+                // A new matcher is resumed from the state id of the previous one
+                int state = matcher.getState();
+                matcher = fsm.streamingMatcher();
+                matcher.resume(state);
+                matcher.feed(input, offset, length);
+                offset += length;
+            }
+            Assertions.assertEquals(fsm.matches(new String(input)), matcher.isAccepted(), new String(input));
+        }
+    }
+
+    @Test
+    @DisplayName("Dead inputs are reported as soon as no continuation can be accepted")
+    public void testDeadInput() {
+        StreamingMatcher matcher = CompiledFSM.compile("ab*c").streamingMatcher();
+        Assertions.assertEquals(Status.REJECT, matcher.feed("abb".toCharArray()));
+        Assertions.assertEquals(Status.ACCEPT, matcher.feed(CharBuffer.wrap("c")));
+        Assertions.assertEquals(4, matcher.getLongestAcceptedPrefix());
+
+        CharBuffer rest = CharBuffer.wrap("cabc");
+        Assertions.assertEquals(Status.DEAD, matcher.feed(rest));
+        Assertions.assertEquals(4, matcher.getConsumed());
+        Assertions.assertEquals(4, matcher.getLongestAcceptedPrefix());
+        Assertions.assertFalse(rest.hasRemaining());
+        Assertions.assertEquals(Status.DEAD, matcher.feed("abc".toCharArray()));
+
+        matcher.reset();
+        Assertions.assertEquals(Status.DEAD, matcher.feed("ax".toCharArray()));
+        Assertions.assertEquals(1, matcher.getConsumed());
+        Assertions.assertEquals(-1, matcher.getLongestAcceptedPrefix());
+    }
+
+    @Test
+    @DisplayName("Bytes are decoded across chunk boundaries, readers and streams are read until they are dead")
+    public void testByteInput() throws IOException {
+        CompiledFSM fsm = CompiledFSM.compile("(ä|b)+");
+        byte[] encoded = "bäbä".getBytes(StandardCharsets.UTF_8);
+
+        StreamingMatcher matcher = fsm.streamingMatcher();
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.put(encoded, 0, 2).flip();
+        Assertions.assertEquals(Status.ACCEPT, matcher.feed(buffer));
+        // The first byte of 'ä' stays in the buffer until the second byte arrives
+        Assertions.assertEquals(1, buffer.remaining());
+        buffer.compact().put(encoded, 2, encoded.length - 2).flip();
+        Assertions.assertEquals(Status.ACCEPT, matcher.feed(buffer));
+        Assertions.assertEquals(4, matcher.getConsumed());
+
+        matcher.reset();
+        Assertions.assertEquals(Status.ACCEPT, matcher.feed(new ByteArrayInputStream(encoded)));
+        matcher.reset();
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 1);
+        Assertions.assertEquals(Status.DEAD, matcher.feed(new ByteArrayInputStream(truncated)));
+        Assertions.assertEquals(3, matcher.getLongestAcceptedPrefix());
+
+        matcher.reset();
+        Assertions.assertEquals(Status.DEAD, matcher.feed(new StringReader("bäc" + "b".repeat(10_000))));
+        Assertions.assertEquals(2, matcher.getConsumed());
+    }
+}
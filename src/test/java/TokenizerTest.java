@@ -0,0 +1,84 @@
+import geje1017.logic.matcher.CompiledFSM;
+import geje1017.logic.matcher.Tokenizer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class TokenizerTest {
+
+    @Test
+    @DisplayName("Tokenizer splits by maximal munch and prefers earlier rules")
+    public void testMaximalMunch() {
+        List<Tokenizer.Rule> rules = List.of(
+                new Tokenizer.Rule("IF", "if"),
+                new Tokenizer.Rule("ID", "(i|f|x)(i|f|x|0|1)*"),
+                new Tokenizer.Rule("NUM", "(0|1)(0|1)*"),
+                new Tokenizer.Rule("ABC", "abc|ab(ab)*c"),
+                new Tokenizer.Rule("A", "a"));
+        Tokenizer tokenizer = Tokenizer.compile(rules);
+
+        String input = "if iff x10 101 abababc abd";
+        List<String> tokens = new ArrayList<>();
+        tokenizer.tokenize(input, (type, start, end) ->
+                tokens.add(tokenizer.getTokenName(type) + ":" + input.substring(start, end)));
+        Assertions.assertEquals(List.of("IF:if", "UNKNOWN: ", "ID:iff", "UNKNOWN: ", "ID:x10", "UNKNOWN: ",
+                "NUM:101", "UNKNOWN: ", "ABC:abababc", "UNKNOWN: ", "A:a", "UNKNOWN:b", "UNKNOWN:d"), tokens);
+
+        List<CompiledFSM> fsms = new ArrayList<>();
+        for (Tokenizer.Rule rule : rules) {
+            fsms.add(CompiledFSM.compile(rule.getExpression()));
+        }
+        Random random = new Random(15);
+        for (int i = 0; i < 500; i++) {
+            String text = RandomFixtures.input(random, "ifx01abc ", random.nextInt(30));
+            Assertions.assertArrayEquals(tokenizeNaively(fsms, text), tokenizer.tokenize(text),
+                    "Input '" + text + "'");
+        }
+    }
+
+    @Test
+    @DisplayName("Backtracking does not make the tokenizer quadratic")
+    public void testLinearTime() {
+        Tokenizer tokenizer = Tokenizer.compile(List.of(new Tokenizer.Rule("A", "a"), new Tokenizer.Rule("AB", "a*b")));
+        String input = "a".repeat(200_000);
+        int[] tokens = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> tokenizer.tokenize(input));
+        Assertions.assertEquals(3 * input.length(), tokens.length);
+        Assertions.assertArrayEquals(new int[]{0, 199_999, 200_000}, Arrays.copyOfRange(tokens,
+                tokens.length - 3, tokens.length));
+
+        int[] withEnd = tokenizer.tokenize("aaab");
+        Assertions.assertArrayEquals(new int[]{1, 0, 4}, withEnd);
+    }
+
+    /**
+     * Tries every rule and every length at each position.
+     */
+    private static int[] tokenizeNaively(List<CompiledFSM> fsms, String input) {
+        List<Integer> tokens = new ArrayList<>();
+        int position = 0;
+        while (position < input.length()) {
+            int end = position + 1;
+            int type = Tokenizer.UNKNOWN;
+            for (int e = input.length(); e > position && type == Tokenizer.UNKNOWN; e--) {
+                for (int r = 0; r < fsms.size(); r++) {
+                    if (fsms.get(r).matches(input.substring(position, e))) {
+                        type = r;
+                        end = e;
+                        break;
+                    }
+                }
+            }
+            tokens.add(type);
+            tokens.add(position);
+            tokens.add(end);
+            position = end;
+        }
+        return tokens.stream().mapToInt(Integer::intValue).toArray();
+    }
+}